@@ -0,0 +1,297 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.executer.Executor;
+import oop.ex6.parser.Parser;
+import oop.ex6.parser.ParserIOException;
+import oop.ex6.parser.ParserSyntaxException;
+import oop.ex6.parser.Program;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class represents a micro-benchmark harness for the parser and the executor, and contains its main
+ * method. It verifies a synthetic s-java file generated by a source generator and measures, for each
+ * benchmark, the median time of a single verification and the bytes it allocates, per line of the file:
+ *     parse       - Parser.getCommands() on the file's bytes in memory.
+ *     execute     - Executor.execute() on the commands parsed once in advance.
+ *     end-to-end  - parsing the file from disk and executing its commands, as the verifier does.
+ * Allocation is measured on the benchmark's thread, so it does not include the allocation of the threads
+ * which verify method scopes in parallel.
+ * The results may be compared with a baseline file of earlier results; the run fails if any benchmark has
+ * become slower, or allocates more, than its baseline by more than the given tolerance.
+ */
+public class Benchmark {
+
+    /*----=   Constants  =----*/
+
+    private final static int REGRESSION = 1;
+    private final static int BAD_ARGUMENTS = 2;
+    private final static int LEGAL_CODE = 0;
+    private final static double NANOS_PER_MILLI = 1e6;
+    private final static double PERCENT = 100;
+
+    // Names of the benchmarks.
+    private final static String PARSE = "parse";
+    private final static String EXECUTE = "execute";
+    private final static String END_TO_END = "end-to-end";
+    private final static String ALL = "all";
+    private final static List<String> BENCHMARKS = Arrays.asList(PARSE, EXECUTE, END_TO_END);
+
+    // Names and default values of the options.
+    private final static String OPTION_PREFIX = "--";
+    private final static String VALUE_SEPARATOR = "=";
+    private final static String LINES = "lines";
+    private final static String METHODS = "methods";
+    private final static String DEPTH = "depth";
+    private final static String IDENTIFIERS = "identifiers";
+    private final static String SEED = "seed";
+    private final static String WARMUP = "warmup";
+    private final static String ITERATIONS = "iterations";
+    private final static String BENCHMARK = "benchmark";
+    private final static String BASELINE = "baseline";
+    private final static String TOLERANCE = "tolerance";
+    private final static String[][] DEFAULTS = {{LINES, "20000"}, {METHODS, "200"}, {DEPTH, "3"},
+            {IDENTIFIERS, "20"}, {SEED, "1"}, {WARMUP, "30"}, {ITERATIONS, "30"}, {BENCHMARK, ALL},
+            {BASELINE, ""}, {TOLERANCE, "50"}};
+
+    // Formats of the printed results.
+    private final static String COMMENT_PREFIX = "#";
+    private final static String HEADER = "# benchmark      lines      ms/op    ns/line  bytes/line";
+    private final static String RESULT_FORMAT = "%-12s %9d %10.3f %10.1f %11.1f";
+    private final static String COMPARISON_FORMAT = "# %-12s %+.1f%% ns/line, %+.1f%% bytes/line";
+    private final static String FIELD_SEPARATOR = "\\s+";
+    private final static String LINE_SEPARATOR = "\n";
+    private final static String SOURCE_FILE_SUFFIX = ".sjava";
+
+    // Formats for messages that are generated by this class.
+    private final static String UNKNOWN_OPTION = "unknown option ";
+    private final static String BAD_NUMBER = "bad number in option ";
+    private final static String UNKNOWN_BENCHMARK = "unknown benchmark ";
+    private final static String ILLEGAL_SOURCE = "the generated file is not legal: ";
+    private final static String BAD_BASELINE = "bad baseline file ";
+    private final static String REGRESSION_FOUND = "slower or allocating more than its baseline: ";
+
+    /*----=   Nested Interfaces  =----*/
+
+    /**
+     * This interface represents a single operation of a benchmark.
+     */
+    private interface Operation {
+
+        /**
+         * @return 0 if the verified code is legal; another value otherwise.
+         * @throws Exception - if the operation failed.
+         */
+        int run() throws Exception;
+    }
+
+    /*----=   Instance Data Members  =----*/
+
+    private final HashMap<String, String> options;
+    private final PrintStream nullStream;
+    private final ArrayList<String> results;
+    private int lines;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the command line arguments: options of the form --name=value.
+     * @param args - the given arguments.
+     * @throws IllegalArgumentException - if an argument is not one of the options.
+     */
+    private Benchmark(String[] args){
+        this.options = new HashMap<>();
+        for (String[] option: DEFAULTS){
+            this.options.put(option[0], option[1]);
+        }
+        for (String arg: args){
+            int separator = arg.indexOf(VALUE_SEPARATOR);
+            if (!arg.startsWith(OPTION_PREFIX) || separator == -1 ||
+                    !this.options.containsKey(arg.substring(OPTION_PREFIX.length(), separator))){
+                throw new IllegalArgumentException(UNKNOWN_OPTION+arg);
+            }
+            this.options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator+1));
+        }
+        this.nullStream = new PrintStream(OutputStream.nullOutputStream());
+        this.results = new ArrayList<>();
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * The main method: runs the benchmarks given in the command line options and prints their results.
+     * Exits with 1 if a benchmark regressed from its baseline by more than the tolerance, and with 2 if the
+     * options are illegal, or the benchmark failed.
+     * @param args - the command line options.
+     */
+    public static void main(String[] args){
+        try {
+            Benchmark benchmark = new Benchmark(args);
+            System.exit(benchmark.run());
+        }
+        catch (Exception e){
+            System.err.println(e.getMessage());
+            System.exit(BAD_ARGUMENTS);
+        }
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Generate the s-java file, run the chosen benchmarks, print their results and compare them with the
+     * baseline, if one was given.
+     * @return 0 if no benchmark regressed from its baseline by more than the tolerance; 1 otherwise.
+     * @throws Exception - if an option is illegal, or a benchmark failed.
+     */
+    private int run() throws Exception {
+        String text = new SourceGenerator(this.getNumber(LINES), this.getNumber(METHODS),
+                this.getNumber(DEPTH), this.getNumber(IDENTIFIERS), this.getNumber(SEED)).generate();
+        this.lines = text.split(LINE_SEPARATOR, -1).length-1;
+        byte[] bytes = text.getBytes(Charset.defaultCharset());
+        ByteBuffer contents = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        Path file = Files.createTempFile(Benchmark.class.getSimpleName(), SOURCE_FILE_SUFFIX);
+        file.toFile().deleteOnExit();
+        Files.write(file, bytes);
+        String[] fileArgs = {file.toString()};
+        Program program = new Parser().getCommands(contents.duplicate());
+
+        String chosen = this.options.get(BENCHMARK);
+        if (!chosen.equals(ALL) && !BENCHMARKS.contains(chosen)){
+            throw new IllegalArgumentException(UNKNOWN_BENCHMARK+chosen);
+        }
+        System.out.println(HEADER);
+        if (chosen.equals(ALL) || chosen.equals(PARSE)){
+            this.measure(PARSE, () -> new Parser().getCommands(contents.duplicate()).size() > 0 ? LEGAL_CODE : 1);
+        }
+        if (chosen.equals(ALL) || chosen.equals(EXECUTE)){
+            this.measure(EXECUTE, () -> new Executor(program, this.nullStream).execute());
+        }
+        if (chosen.equals(ALL) || chosen.equals(END_TO_END)){
+            this.measure(END_TO_END, () -> this.verify(fileArgs));
+        }
+        Files.deleteIfExists(file);
+
+        if (this.options.get(BASELINE).isEmpty()){
+            return LEGAL_CODE;
+        }
+        return this.compare(Paths.get(this.options.get(BASELINE)));
+    }
+
+    /**
+     * Parse and execute the s-java file at the given path, as the verifier does.
+     * @param args - the path of the file.
+     * @return 0 if the code is legal; 1 otherwise.
+     * @throws ParserSyntaxException - if the parser encountered a syntax error.
+     * @throws ParserIOException - if the parser encountered an IO exception.
+     */
+    private int verify(String[] args) throws ParserSyntaxException, ParserIOException {
+        return new Executor(new Parser().getCommands(args), this.nullStream).execute();
+    }
+
+    /**
+     * Run the given operation for the warmup iterations, then measure the median time and the mean allocation
+     * of the measured iterations, and print them per line of the s-java file. The median is not skewed by the
+     * few iterations which are interrupted by garbage collection or compilation.
+     * @param name - the benchmark's name.
+     * @param operation - the benchmark's operation.
+     * @throws Exception - if the operation failed, or found the s-java file to be illegal.
+     */
+    private void measure(String name, Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i=0; i<this.getNumber(WARMUP); i++){
+            this.check(operation.run());
+        }
+        int iterations = Math.max(1, this.getNumber(ITERATIONS));
+        long[] times = new long[iterations];
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i=0; i<iterations; i++){
+            long start = System.nanoTime();
+            this.check(operation.run());
+            times[i] = System.nanoTime()-start;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes()-allocatedBefore;
+        Arrays.sort(times);
+        double nanosPerOperation = times[iterations/2];
+        double bytesPerOperation = (double) allocated/iterations;
+        String result = String.format(Locale.ROOT, RESULT_FORMAT, name, this.lines,
+                nanosPerOperation/NANOS_PER_MILLI, nanosPerOperation/this.lines, bytesPerOperation/this.lines);
+        this.results.add(result);
+        System.out.println(result);
+    }
+
+    /**
+     * @param result - the result of a benchmark's operation.
+     * @throws IllegalStateException - if the result is not legal.
+     */
+    private void check(int result){
+        if (result != LEGAL_CODE){
+            throw new IllegalStateException(ILLEGAL_SOURCE+result);
+        }
+    }
+
+    /**
+     * Compare this run's results with the results in the given baseline file, of the same format. Benchmarks
+     * which are not in the baseline file are not compared.
+     * @param baseline - the path of the baseline file.
+     * @return 0 if no benchmark regressed from its baseline by more than the tolerance; 1 otherwise.
+     * @throws IOException - if the baseline file could not be read.
+     */
+    private int compare(Path baseline) throws IOException {
+        HashMap<String, String[]> baselineResults = new HashMap<>();
+        for (String line: Files.readAllLines(baseline)){
+            String[] fields = line.trim().split(FIELD_SEPARATOR);
+            if (!line.startsWith(COMMENT_PREFIX) && fields.length == 5){
+                baselineResults.put(fields[0], fields);
+            }
+        }
+        if (baselineResults.isEmpty()){
+            throw new IOException(BAD_BASELINE+baseline);
+        }
+        double tolerance = this.getNumber(TOLERANCE)/PERCENT;
+        int code = LEGAL_CODE;
+        for (String result: this.results){
+            String[] fields = result.trim().split(FIELD_SEPARATOR);
+            String[] expected = baselineResults.get(fields[0]);
+            if (expected == null){
+                continue;
+            }
+            double timeChange = Double.parseDouble(fields[3])/Double.parseDouble(expected[3])-1;
+            double allocationChange = Double.parseDouble(fields[4])/Double.parseDouble(expected[4])-1;
+            System.out.println(String.format(Locale.ROOT, COMPARISON_FORMAT, fields[0], timeChange*PERCENT,
+                    allocationChange*PERCENT));
+            if (timeChange > tolerance || allocationChange > tolerance){
+                System.err.println(REGRESSION_FOUND+fields[0]);
+                code = REGRESSION;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * @param option - the option's name.
+     * @return the value of the given option, as a number.
+     * @throws IllegalArgumentException - if the option's value is not a number.
+     */
+    private int getNumber(String option){
+        try {
+            return Integer.parseInt(this.options.get(option));
+        }
+        catch (NumberFormatException e){
+            throw new IllegalArgumentException(BAD_NUMBER+option);
+        }
+    }
+}
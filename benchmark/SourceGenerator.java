@@ -0,0 +1,124 @@
+package oop.ex6.benchmark;
+
+import java.util.Random;
+
+/**
+ * This class represents a generator of synthetic, legal s-java files, whose size, number of methods, depth
+ * of nested if/while scopes and number of distinct identifiers can be tuned. The same parameters and seed
+ * always generate the same file.
+ */
+class SourceGenerator {
+
+    /*----=   Constants  =----*/
+
+    private final static String[] TYPES = {"int", "double", "boolean", "String", "char"};
+    private final static String[] LITERALS = {"17", "2.5", "true", "\"some text\"", "'c'"};
+    private final static String PARAMETERS = "int p0, double p1, boolean p2";
+    private final static String ARGUMENTS = "3, 4.25, false";
+    private final static String IF_STATEMENT = "if (p2 && true || false) {";
+    private final static String WHILE_STATEMENT = "while (p2 || false) {";
+    private final static String INDENT = "    ";
+    private final static String LINE_SEPARATOR = "\n";
+    private final static int LINES_PER_METHOD_FRAME = 3;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final int lines;
+    private final int methods;
+    private final int depth;
+    private final int identifiers;
+    private final Random random;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the parameters of the generated files.
+     * @param lines - the approximate number of lines of a generated file.
+     * @param methods - the number of methods of a generated file.
+     * @param depth - the maximal depth of nested if/while scopes inside a method.
+     * @param identifiers - the number of distinct global variable names, and of local variable names in each
+     * method.
+     * @param seed - the seed of the generated choices.
+     */
+    SourceGenerator(int lines, int methods, int depth, int identifiers, long seed){
+        this.lines = lines;
+        this.methods = Math.max(1, methods);
+        this.depth = depth;
+        this.identifiers = Math.max(1, identifiers);
+        this.random = new Random(seed);
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return the text of a new generated file.
+     */
+    String generate(){
+        StringBuilder text = new StringBuilder();
+        for (int i=0; i<this.identifiers; i++){
+            text.append(TYPES[i%TYPES.length]).append(" g").append(i).append(" = ")
+                    .append(LITERALS[i%LITERALS.length]).append(';').append(LINE_SEPARATOR);
+        }
+        int bodyLines = Math.max(1, (this.lines-this.identifiers)/this.methods-LINES_PER_METHOD_FRAME);
+        for (int method=0; method<this.methods; method++){
+            text.append("void m").append(method).append('(').append(PARAMETERS).append(") {")
+                    .append(LINE_SEPARATOR);
+            this.appendBody(text, bodyLines);
+            text.append(INDENT).append("return;").append(LINE_SEPARATOR);
+            text.append('}').append(LINE_SEPARATOR);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Append the given number of lines of a method's body, opening and closing nested if/while scopes up to
+     * the maximal depth. Local variables are defined at the method's top level only, so each name is
+     * defined once; once every local name is defined, existing variables are assigned instead.
+     * @param text - the text to append to.
+     * @param bodyLines - the number of lines to append.
+     */
+    private void appendBody(StringBuilder text, int bodyLines){
+        int currentDepth = 0;
+        int definedLocals = 0;
+        for (int line=0; line<bodyLines; line++){
+            int remaining = bodyLines-line;
+            this.indent(text, currentDepth+1);
+            int choice = this.random.nextInt(5);
+            if (currentDepth > 0 && (remaining <= currentDepth || choice == 0)){
+                text.append('}');
+                currentDepth--;
+            }
+            else if (currentDepth < this.depth && remaining > currentDepth+1 && choice == 1){
+                text.append(this.random.nextBoolean() ? IF_STATEMENT : WHILE_STATEMENT);
+                currentDepth++;
+            }
+            else if (choice == 2){
+                text.append('m').append(this.random.nextInt(this.methods)).append('(').append(ARGUMENTS)
+                        .append(");");
+            }
+            else if (currentDepth == 0 && definedLocals < this.identifiers){
+                int type = definedLocals%TYPES.length;
+                text.append(TYPES[type]).append(" v").append(definedLocals).append(" = ")
+                        .append(type < 3 ? "p"+type : LITERALS[type]).append(';');
+                definedLocals++;
+            }
+            else {
+                int global = this.random.nextInt(this.identifiers);
+                text.append('g').append(global).append(" = ").append(LITERALS[global%LITERALS.length])
+                        .append(';');
+            }
+            text.append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Append the indentation of the given depth.
+     * @param text - the text to append to.
+     * @param depth - the given depth.
+     */
+    private void indent(StringBuilder text, int depth){
+        for (int i=0; i<depth; i++){
+            text.append(INDENT);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package oop.ex6.diagnostics;
+
+/**
+ * This class represents the budget of verifying a single s-java file: the size of the file, which is checked
+ * before it is read, and the time its verification may take. The parser and the executor check the time left
+ * every so many lines or commands, and stop once the budget is exceeded, so a single pathological file cannot
+ * hold a shared verifier. A budget may be checked by several threads, such as the tasks which verify method
+ * scopes in parallel.
+ */
+public class Budget {
+
+    /*----=   Constants  =----*/
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final long maxSize;
+    private final long timeLimit;
+    private final long startTime;
+    private volatile Diagnostic failure;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the limits of the budget. The time is counted from the budget's creation.
+     * @param maxSize - the maximal size of the file, in bytes; UNLIMITED if its size is not limited.
+     * @param timeLimit - the maximal time of the verification, in milliseconds; UNLIMITED if it is not limited.
+     */
+    public Budget(long maxSize, long timeLimit){
+        this.maxSize = maxSize;
+        this.timeLimit = timeLimit;
+        this.startTime = System.nanoTime();
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Check the given size of the file against the budget.
+     * @param size - the given size, in bytes.
+     * @return true if the budget is not exceeded; false otherwise.
+     */
+    public boolean checkSize(long size){
+        if (size > this.maxSize && this.failure == null){
+            this.failure = new Diagnostic(DiagnosticCode.SIZE_BUDGET, Diagnostic.NO_LINE, Diagnostic.NO_COLUMN,
+                    new Object[]{this.maxSize});
+        }
+        return this.failure == null;
+    }
+
+    /**
+     * @return true if the budget is not exceeded, and its time limit has not passed; false otherwise.
+     */
+    public boolean hasTimeLeft(){
+        if (this.failure == null && this.timeLimit != UNLIMITED &&
+                System.nanoTime()-this.startTime > this.timeLimit*NANOS_PER_MILLI){
+            this.failure = new Diagnostic(DiagnosticCode.TIME_BUDGET, Diagnostic.NO_LINE, Diagnostic.NO_COLUMN,
+                    new Object[]{this.timeLimit});
+        }
+        return this.failure == null;
+    }
+
+    /**
+     * @return true if the budget was exceeded; false otherwise.
+     */
+    public boolean isExceeded(){
+        return this.failure != null;
+    }
+
+    /**
+     * @return the diagnostic which reports how the budget was exceeded; null if it was not exceeded.
+     */
+    public Diagnostic getFailure(){
+        return this.failure;
+    }
+}
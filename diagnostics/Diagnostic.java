@@ -0,0 +1,106 @@
+package oop.ex6.diagnostics;
+
+/**
+ * This class represents an informative message about an s-java file, as a structured record: its code, the
+ * line and column it refers to, and its arguments. The message itself is only formatted when it is printed,
+ * so reporting an error costs no string building.
+ */
+public final class Diagnostic {
+
+    /*----=   Constants  =----*/
+
+    // The line or column of a diagnostic which does not refer to one.
+    public static final int NO_LINE = 0;
+    public static final int NO_COLUMN = 0;
+
+    private static final String WARNING_HEADER = "Warning in line ";
+    private static final String WARNING_SEPARATOR = " - ";
+    private static final String LINE_END = "\n";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final DiagnosticCode code;
+    private final int line;
+    private final int column;
+    private final Object[] arguments;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives this diagnostic's code, line, column and arguments.
+     * @param code - the given code.
+     * @param line - the given line number; NO_LINE if the diagnostic does not refer to a line.
+     * @param column - the given column, counted from 1; NO_COLUMN if it is unknown.
+     * @param arguments - the arguments of the code's message.
+     */
+    public Diagnostic(DiagnosticCode code, int line, int column, Object[] arguments){
+        this.code = code;
+        this.line = line;
+        this.column = column;
+        this.arguments = arguments;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return this diagnostic's code.
+     */
+    public DiagnosticCode getCode(){
+        return this.code;
+    }
+
+    /**
+     * @return this diagnostic's line number; NO_LINE if it does not refer to a line.
+     */
+    public int getLine(){
+        return this.line;
+    }
+
+    /**
+     * @return this diagnostic's column, counted from 1; NO_COLUMN if it is unknown.
+     */
+    public int getColumn(){
+        return this.column;
+    }
+
+    /**
+     * @return the arguments of this diagnostic's message.
+     */
+    public Object[] getArguments(){
+        return this.arguments.clone();
+    }
+
+    /**
+     * @param lines - the given number of lines.
+     * @return a diagnostic like this one, whose line is moved down by the given number of lines, such as that
+     * of an error found in a part of a file whose first line is not the file's first line; this diagnostic if
+     * it does not refer to a line.
+     */
+    public Diagnostic movedBy(int lines){
+        if (this.line == NO_LINE || lines == 0){
+            return this;
+        }
+        return new Diagnostic(this.code, this.line+lines, this.column, this.arguments);
+    }
+
+    /**
+     * @return this diagnostic's message, without its header or line.
+     */
+    public String getMessage(){
+        return this.code.format(this.arguments);
+    }
+
+    /**
+     * The detail message ends with a line break, so a printed diagnostic is followed by a blank line.
+     * @return this diagnostic's informative message, as it is printed: the line it refers to, the header of
+     * its category, and its detail message.
+     */
+    @Override
+    public String toString(){
+        String message = this.code.getCategory().getHeader()+this.getMessage()+LINE_END;
+        if (this.line == NO_LINE){
+            return message;
+        }
+        return WARNING_HEADER+this.line+WARNING_SEPARATOR+message;
+    }
+}
@@ -0,0 +1,136 @@
+package oop.ex6.diagnostics;
+
+/**
+ * This enum represents the kinds of informative messages the verifier reports about an s-java file. Each code
+ * has a category, whose header precedes the message, and a template of the message, in which {0}, {1}, ... are
+ * replaced by the arguments of a diagnostic when it is printed.
+ */
+public enum DiagnosticCode {
+
+    // Scope errors, which are found by the executor.
+    VARIABLE_OVERFLOW(Category.SCOPE, "variable name overflow."),
+    LOCAL_METHOD_DECLARATION(Category.SCOPE, "a method may not be declared inside another method"),
+    UNINITIALIZED_VALUE(Category.SCOPE, " illegal method call: {0} is uninitialized."),
+    NOT_BOOLEAN_CONDITION(Category.SCOPE, "condition should be a boolean value."),
+    PARAMETERS_NUMBER_EXPECTED(Category.SCOPE, " illegal method call: {0} parameters expected."),
+    BAD_PARAMETER(Category.SCOPE,
+            " illegal method call:  Expected: parameter of type {0}. Found: parameter of type {1}"),
+    UNCLOSED_IF_WHILE(Category.SCOPE, " failed to close an if/while scope."),
+    UNCLOSED_METHOD(Category.SCOPE, " failed to close a method scope."),
+    MISSING_RETURN_STATEMENT(Category.SCOPE, " missing return statement."),
+    MISSING_VARIABLE(Category.SCOPE, " variable {0} does not exist in this scope."),
+    MISSING_METHOD(Category.SCOPE, " illegal method call: {0} does not exist in this scope."),
+    METHOD_OVERFLOW(Category.SCOPE, " method overflow. Two or more methods are named {0}"),
+    PARAMETER_OVERFLOW(Category.SCOPE, " parameter overflow. Two or parameters have the same name."),
+    GLOBAL_IF_WHILE(Category.SCOPE, " an if/while block may only be opened inside a method."),
+    GLOBAL_METHOD_CALL(Category.SCOPE, " method calls may only appear inside a method."),
+    GLOBAL_RETURN_STATEMENT(Category.SCOPE, " return statements may only appear inside a method."),
+    GLOBAL_CLOSE_STATEMENTS(Category.SCOPE, " close-block statements may only appear inside a method"),
+
+    // Variable errors, which are found by the executor.
+    UNINITIALIZED_FINAL(Category.VARIABLE, "final variable must be initialized during construction."),
+    ILLEGAL_ASSIGNMENT(Category.VARIABLE, "variables of type {0} cannot be assigned values of type {1}."),
+    FINAL_ASSIGNMENT(Category.VARIABLE, "cannot assign a value to final variable"),
+
+    // Syntax errors, which are found by the parser.
+    EXPECTED_WORD(Category.SYNTAX, "expected - '{0}', found - '{1}'."),
+    EXPECTED_WORDS(Category.SYNTAX, "expected - '{0}', found - '{1}' ."),
+    VARIABLE_NAME(Category.SYNTAX, "variable name expected."),
+    METHOD_NAME(Category.SYNTAX, "method name expected"),
+    RESERVED_WORD(Category.SYNTAX, "{0} is a reserved word, and not a valid variable or method name"),
+    VARIABLE_TYPE(Category.SYNTAX, "variable type expected."),
+    VALID_VALUE(Category.SYNTAX, "valid value expected."),
+    VERIFY_END(Category.SYNTAX, "unexpected token. One argument is expected in each line."),
+    PARSE_FAIL(Category.SYNTAX, "failed to parse code line."),
+
+    // IO errors, which are found by the parser.
+    NUMBER_OF_ARGUMENTS(Category.IO, "single command line argument expected."),
+    SOURCE_FILE_NAME(Category.IO, "bad source-file name."),
+    SOURCE_CONTENTS(Category.IO, "bad source contents."),
+    SOURCE_CHANGED(Category.IO, "source file changed while it was verified."),
+
+    // IO errors of a batch's inputs, which are found while reading them.
+    ARCHIVE_CONTENTS(Category.IO, "bad archive contents."),
+
+    // Budget errors, which stop the verification of a file.
+    SIZE_BUDGET(Category.BUDGET, "the file is larger than the size budget of {0} bytes."),
+    TIME_BUDGET(Category.BUDGET, "the verification took longer than the time budget of {0} ms.");
+
+    /*----=   Nested Enums  =----*/
+
+    /**
+     * This enum represents the category of a diagnostic code, and the header of its messages.
+     */
+    public enum Category {
+        SCOPE(""),
+        VARIABLE("Variable exception: "),
+        SYNTAX("Syntax exception: "),
+        IO("IO exception: "),
+        BUDGET("Budget exception: ");
+
+        private final String header;
+
+        /**
+         * Constructor for a category.
+         * @param header - the header of the category's messages.
+         */
+        Category(String header){
+            this.header = header;
+        }
+
+        /**
+         * @return the header of this category's messages.
+         */
+        public String getHeader(){
+            return this.header;
+        }
+    }
+
+    /*----=   Constants  =----*/
+
+    private static final char ARGUMENT_START = '{';
+    private static final char ARGUMENT_END = '}';
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Category category;
+    private final String template;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * Constructor for a diagnostic code.
+     * @param category - the code's category.
+     * @param template - the template of the code's messages.
+     */
+    DiagnosticCode(Category category, String template){
+        this.category = category;
+        this.template = template;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return this code's category.
+     */
+    public Category getCategory(){
+        return this.category;
+    }
+
+    /**
+     * @param arguments - the given arguments.
+     * @return this code's message for the given arguments, without its header.
+     */
+    public String format(Object[] arguments){
+        StringBuilder message = new StringBuilder(this.template.length()+16);
+        int index = 0;
+        int start;
+        while ((start = this.template.indexOf(ARGUMENT_START, index)) != -1){
+            int end = this.template.indexOf(ARGUMENT_END, start);
+            message.append(this.template, index, start);
+            message.append(arguments[Integer.parseInt(this.template.substring(start+1, end))]);
+            index = end+1;
+        }
+        return message.append(this.template, index, this.template.length()).toString();
+    }
+}
@@ -0,0 +1,53 @@
+package oop.ex6.diagnostics;
+
+/**
+ * This abstract class signals an error in an s-java file, which is reported as a diagnostic. Invalid files are
+ * common, so these exceptions are cheap to throw: they do not fill in a stack trace, and their message is only
+ * formatted when it is printed.
+ */
+public abstract class DiagnosticException extends Exception {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final DiagnosticCode code;
+    private final Object[] arguments;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the code and arguments of this exception's message.
+     * @param code - the given code.
+     * @param arguments - the arguments of the code's message.
+     */
+    protected DiagnosticException(DiagnosticCode code, Object[] arguments){
+        super(null, null, false, false);
+        this.code = code;
+        this.arguments = arguments;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return this exception's code.
+     */
+    public DiagnosticCode getCode(){
+        return this.code;
+    }
+
+    /**
+     * @param line - the line number of the command which caused this exception; Diagnostic.NO_LINE if none.
+     * @param column - the column at which this exception was found; Diagnostic.NO_COLUMN if it is unknown.
+     * @return the diagnostic which reports this exception.
+     */
+    public Diagnostic getDiagnostic(int line, int column){
+        return new Diagnostic(this.code, line, column, this.arguments);
+    }
+
+    /**
+     * @return this exception's header and detail message.
+     */
+    @Override
+    public String getMessage(){
+        return this.getDiagnostic(Diagnostic.NO_LINE, Diagnostic.NO_COLUMN).toString();
+    }
+}
@@ -0,0 +1,85 @@
+package oop.ex6.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * This class represents the diagnostics collected while verifying an s-java file in a single pass, up to a
+ * maximal number of them. A parser or an executor which is given a list recovers from the errors it finds and
+ * adds them to the list, instead of stopping at the first one, until the list is full.
+ */
+public class DiagnosticList implements Iterable<Diagnostic> {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final ArrayList<Diagnostic> diagnostics;
+    private final int maxSize;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the maximal number of diagnostics to collect.
+     * @param maxSize - the given number, which is positive.
+     */
+    public DiagnosticList(int maxSize){
+        this.diagnostics = new ArrayList<>();
+        this.maxSize = maxSize;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Add the given diagnostic, unless the list is already full.
+     * @param diagnostic - the given diagnostic.
+     */
+    public void add(Diagnostic diagnostic){
+        if (!this.isFull()){
+            this.diagnostics.add(diagnostic);
+        }
+    }
+
+    /**
+     * Remove every diagnostic from the list, such as when an error which stops the verification supersedes
+     * them.
+     */
+    public void clear(){
+        this.diagnostics.clear();
+    }
+
+    /**
+     * @return true if the list holds its maximal number of diagnostics, so no more errors should be looked
+     * for; false otherwise.
+     */
+    public boolean isFull(){
+        return this.diagnostics.size() >= this.maxSize;
+    }
+
+    /**
+     * @return the number of diagnostics which may still be added.
+     */
+    public int getRemaining(){
+        return Math.max(this.maxSize-this.diagnostics.size(), 0);
+    }
+
+    /**
+     * @return true if no diagnostic was added; false otherwise.
+     */
+    public boolean isEmpty(){
+        return this.diagnostics.isEmpty();
+    }
+
+    /**
+     * @return the number of diagnostics in the list.
+     */
+    public int size(){
+        return this.diagnostics.size();
+    }
+
+    /**
+     * @return an iterator over the diagnostics, in the order in which they were added.
+     */
+    @Override
+    public Iterator<Diagnostic> iterator(){
+        return this.diagnostics.iterator();
+    }
+}
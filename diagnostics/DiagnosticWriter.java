@@ -0,0 +1,119 @@
+package oop.ex6.diagnostics;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * This abstract class represents a writer of diagnostics in a machine-readable format, which tools can read
+ * without parsing the informative messages. Each diagnostic is written with the file it was found in, its line
+ * and column, its kind - the category of its code - its code and its message. A single writer is shared by
+ * all the files of a run, and writes each record to a buffered stream at once.
+ */
+public abstract class DiagnosticWriter {
+
+    /*----=   Constants  =----*/
+
+    // Names of the machine-readable formats.
+    public static final String JSON_LINES = "jsonl";
+    public static final String SARIF = "sarif";
+
+    private static final char QUOTE = '"';
+    private static final char BACKSLASH = '\\';
+    private static final String UNICODE_ESCAPE = "\\u";
+    private static final char FIRST_PRINTABLE = ' ';
+    private static final char LAST_PRINTABLE = '~';
+    private static final int HEX_DIGITS = 4;
+    private static final int HEX_RADIX = 16;
+
+    /*----=   Instance Data Members  =----*/
+
+    protected final PrintStream output;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the stream to write to.
+     * @param output - the given stream.
+     */
+    protected DiagnosticWriter(PrintStream output){
+        this.output = output;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @param format - the name of a machine-readable format.
+     * @param output - the stream to write to.
+     * @return a writer of the given format; null if it is not a machine-readable format.
+     */
+    public static DiagnosticWriter create(String format, PrintStream output){
+        switch (format){
+            case JSON_LINES:
+                return new JsonLinesWriter(output);
+            case SARIF:
+                return new SarifWriter(output);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param diagnostic - the given diagnostic.
+     * @return the kind of the given diagnostic: the lower case name of its code's category.
+     */
+    protected static String getKind(Diagnostic diagnostic){
+        return diagnostic.getCode().getCategory().name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Append the given text to the given record as a JSON string. Characters outside of printable ASCII are
+     * escaped, so the record is the same in any charset.
+     * @param record - the given record.
+     * @param text - the given text.
+     * @return the given record.
+     */
+    protected static StringBuilder appendString(StringBuilder record, String text){
+        record.append(QUOTE);
+        char c;
+        for (int i=0; i<text.length(); i++){
+            c = text.charAt(i);
+            if (c == QUOTE || c == BACKSLASH){
+                record.append(BACKSLASH).append(c);
+            }
+            else if (c < FIRST_PRINTABLE || c > LAST_PRINTABLE){
+                String hex = Integer.toString(c, HEX_RADIX);
+                record.append(UNICODE_ESCAPE);
+                for (int j=hex.length(); j<HEX_DIGITS; j++){
+                    record.append('0');
+                }
+                record.append(hex);
+            }
+            else {
+                record.append(c);
+            }
+        }
+        return record.append(QUOTE);
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Write the diagnostics found in the given file.
+     * @param fileName - the path of the file; null if the diagnostics do not refer to a single file.
+     * @param diagnostics - the given diagnostics.
+     */
+    public abstract void write(String fileName, Iterable<Diagnostic> diagnostics);
+
+    /**
+     * Write an error of the run itself, which is not found in a file, such as a directory which could not be
+     * read.
+     * @param message - the error's informative message.
+     */
+    public abstract void writeError(String message);
+
+    /**
+     * Write whatever the format needs after the last file's diagnostics. The stream is not closed.
+     */
+    public void finish(){
+    }
+}
@@ -0,0 +1,74 @@
+package oop.ex6.diagnostics;
+
+import java.io.PrintStream;
+
+/**
+ * This class extends DiagnosticWriter and writes diagnostics as JSON Lines: a JSON object in each line, with
+ * the fields file, line, column, kind, code and message. The file, line and column are left out of a
+ * diagnostic which does not refer to them, and an error of the run itself only has a kind and a message.
+ */
+class JsonLinesWriter extends DiagnosticWriter {
+
+    /*----=   Constants  =----*/
+
+    private static final String FILE = "{\"file\":";
+    private static final String ERROR = "{\"kind\":\"io\",\"message\":";
+    private static final String LINE = "\"line\":";
+    private static final String COLUMN = "\"column\":";
+    private static final String KIND = "\"kind\":";
+    private static final String CODE = ",\"code\":";
+    private static final String MESSAGE = ",\"message\":";
+    private static final char OBJECT_START = '{';
+    private static final char OBJECT_END = '}';
+    private static final char SEPARATOR = ',';
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the stream to write to.
+     * @param output - the given stream.
+     */
+    JsonLinesWriter(PrintStream output){
+        super(output);
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Write a line for each of the diagnostics found in the given file.
+     * @param fileName - the path of the file; null if the diagnostics do not refer to a single file.
+     * @param diagnostics - the given diagnostics.
+     */
+    @Override
+    public void write(String fileName, Iterable<Diagnostic> diagnostics){
+        StringBuilder record = new StringBuilder();
+        for (Diagnostic diagnostic: diagnostics){
+            record.setLength(0);
+            if (fileName != null){
+                appendString(record.append(FILE), fileName).append(SEPARATOR);
+            }
+            else {
+                record.append(OBJECT_START);
+            }
+            if (diagnostic.getLine() != Diagnostic.NO_LINE){
+                record.append(LINE).append(diagnostic.getLine()).append(SEPARATOR);
+            }
+            if (diagnostic.getColumn() != Diagnostic.NO_COLUMN){
+                record.append(COLUMN).append(diagnostic.getColumn()).append(SEPARATOR);
+            }
+            appendString(record.append(KIND), getKind(diagnostic));
+            appendString(record.append(CODE), diagnostic.getCode().name());
+            appendString(record.append(MESSAGE), diagnostic.getMessage().trim());
+            this.output.println(record.append(OBJECT_END));
+        }
+    }
+
+    /**
+     * Write a line for the given error of the run, of the kind io, without a file or code.
+     * @param message - the error's informative message.
+     */
+    @Override
+    public void writeError(String message){
+        this.output.println(appendString(new StringBuilder(ERROR), message.trim()).append(OBJECT_END));
+    }
+}
@@ -0,0 +1,202 @@
+package oop.ex6.diagnostics;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/**
+ * This class extends DiagnosticWriter and writes diagnostics as a SARIF 2.1.0 log with a single run: each
+ * diagnostic is a result whose rule is its code, at the file, line and column it refers to, with its kind as a
+ * property. The log is begun when the writer is created, and each result is written as soon as its file's
+ * diagnostics are, so the results of a large batch are never held in memory. Errors of the run itself are
+ * written as notifications of the run's invocation.
+ * A file is located by a file URI if its path is absolute, and otherwise by a relative URI reference to the
+ * %SRCROOT% base, which the run defines as the working directory, so the path is resolved as it was given.
+ */
+class SarifWriter extends DiagnosticWriter {
+
+    /*----=   Constants  =----*/
+
+    private static final String LOG_START = "{\"version\":\"2.1.0\"," +
+            "\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\"," +
+            "\"runs\":[{\"tool\":{\"driver\":{\"name\":\"sjavac\"}},";
+    private static final String BASE_IDS = "\"originalUriBaseIds\":{\"%SRCROOT%\":{\"uri\":";
+    private static final String BASE_IDS_END = "}},";
+    private static final String RESULTS_START = "\"results\":[";
+    private static final String LOG_END = "]}]}";
+    private static final String RESULTS_END = "],\"invocations\":[{\"executionSuccessful\":false," +
+            "\"toolExecutionNotifications\":[";
+    private static final String NOTIFICATION = "{\"level\":\"error\",\"message\":{\"text\":";
+    private static final String NOTIFICATION_END = "}}";
+    private static final String INVOCATIONS_END = "]}]}]}";
+    private static final String RULE_ID = "{\"ruleId\":";
+    private static final String MESSAGE = ",\"level\":\"error\",\"message\":{\"text\":";
+    private static final String LOCATION = "},\"locations\":[{\"physicalLocation\":{";
+    private static final String ARTIFACT = "\"artifactLocation\":{\"uri\":";
+    private static final String BASE_ID = ",\"uriBaseId\":\"%SRCROOT%\"";
+    private static final String REGION = "\"region\":{\"startLine\":";
+    private static final String START_COLUMN = ",\"startColumn\":";
+    private static final String LOCATION_END = "}}]";
+    private static final String KIND = ",\"properties\":{\"kind\":";
+    private static final String RESULT_END = "}}";
+    private static final String MESSAGE_END = "}";
+    private static final char OBJECT_END = '}';
+    private static final char SEPARATOR = ',';
+    private static final char PATH_SEPARATOR = '/';
+    private static final char SCHEME_SEPARATOR = ':';
+    private static final String CURRENT_DIRECTORY = "./";
+    private static final String PARENT_DIRECTORY = "..";
+
+    /*----=   Instance Data Members  =----*/
+
+    private boolean hasResults;
+    private final ArrayList<String> errors;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the stream to write to, and begins the log.
+     * @param output - the given stream.
+     */
+    SarifWriter(PrintStream output){
+        super(output);
+        this.hasResults = false;
+        this.errors = new ArrayList<>();
+        StringBuilder record = new StringBuilder(LOG_START);
+        String root = getWorkingDirectoryUri();
+        if (root != null){
+            appendString(record.append(BASE_IDS), root).append(BASE_IDS_END);
+        }
+        this.output.println(record.append(RESULTS_START));
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @return the file URI of the working directory, ending with a separator; null if it has none.
+     */
+    private static String getWorkingDirectoryUri(){
+        try {
+            String uri = Paths.get("").toAbsolutePath().toUri().toASCIIString();
+            return uri.endsWith(String.valueOf(PATH_SEPARATOR)) ? uri : uri+PATH_SEPARATOR;
+        }
+        catch (InvalidPathException | SecurityException e){
+            return null;
+        }
+    }
+
+    /**
+     * @param fileName - the path of a file.
+     * @return the file URI of the given path, if it is absolute, or if it is relative but leaves the working
+     * directory; null if the path is relative to the working directory, or is not a legal path.
+     */
+    private static String toFileUri(String fileName){
+        try {
+            Path path = Paths.get(fileName);
+            if (path.isAbsolute() || path.normalize().startsWith(PARENT_DIRECTORY)){
+                return path.toAbsolutePath().normalize().toUri().toASCIIString();
+            }
+            return null;
+        }
+        catch (InvalidPathException | SecurityException e){
+            return null;
+        }
+    }
+
+    /**
+     * @param fileName - the relative path of a file.
+     * @return the given path as a percent-encoded relative URI reference, whose first segment is never taken
+     * for a scheme.
+     */
+    private static String toRelativeUri(String fileName){
+        String path = fileName.replace(File.separatorChar, PATH_SEPARATOR);
+        int firstSeparator = path.indexOf(PATH_SEPARATOR);
+        String firstSegment = firstSeparator == -1 ? path : path.substring(0, firstSeparator);
+        if (firstSegment.indexOf(SCHEME_SEPARATOR) != -1){
+            path = CURRENT_DIRECTORY+path;
+        }
+        try {
+            return new URI(null, null, path, null).toASCIIString();
+        }
+        catch (URISyntaxException e){
+            return new File(fileName).toURI().toASCIIString();
+        }
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Write a result for each of the diagnostics found in the given file.
+     * @param fileName - the path of the file; null if the diagnostics do not refer to a single file.
+     * @param diagnostics - the given diagnostics.
+     */
+    @Override
+    public void write(String fileName, Iterable<Diagnostic> diagnostics){
+        String fileUri = fileName == null ? null : toFileUri(fileName);
+        String uri = fileName == null || fileUri != null ? fileUri : toRelativeUri(fileName);
+        StringBuilder record = new StringBuilder();
+        for (Diagnostic diagnostic: diagnostics){
+            record.setLength(0);
+            if (this.hasResults){
+                record.append(SEPARATOR);
+            }
+            appendString(record.append(RULE_ID), diagnostic.getCode().name());
+            appendString(record.append(MESSAGE), diagnostic.getMessage().trim());
+            if (uri != null){
+                appendString(record.append(LOCATION).append(ARTIFACT), uri);
+                if (fileUri == null){
+                    record.append(BASE_ID);
+                }
+                record.append(OBJECT_END);
+                if (diagnostic.getLine() != Diagnostic.NO_LINE){
+                    record.append(SEPARATOR).append(REGION).append(diagnostic.getLine());
+                    if (diagnostic.getColumn() != Diagnostic.NO_COLUMN){
+                        record.append(START_COLUMN).append(diagnostic.getColumn());
+                    }
+                    record.append(OBJECT_END);
+                }
+                record.append(LOCATION_END);
+            }
+            else {
+                record.append(MESSAGE_END);
+            }
+            appendString(record.append(KIND), getKind(diagnostic)).append(RESULT_END);
+            this.output.println(record);
+            this.hasResults = true;
+        }
+    }
+
+    /**
+     * Keep the given error of the run, to be written as a notification of the run's invocation when the log
+     * is ended, after the results.
+     * @param message - the error's informative message.
+     */
+    @Override
+    public void writeError(String message){
+        this.errors.add(message.trim());
+    }
+
+    /**
+     * End the log, with the errors of the run, if there are any.
+     */
+    @Override
+    public void finish(){
+        if (this.errors.isEmpty()){
+            this.output.println(LOG_END);
+            return;
+        }
+        StringBuilder record = new StringBuilder(RESULTS_END);
+        for (int i=0; i<this.errors.size(); i++){
+            if (i > 0){
+                record.append(SEPARATOR);
+            }
+            appendString(record.append(NOTIFICATION), this.errors.get(i)).append(NOTIFICATION_END);
+        }
+        this.output.println(record.append(INVOCATIONS_END));
+    }
+}
@@ -0,0 +1,15 @@
+package oop.ex6.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class extends KindEvent and represents the commands of a single kind which an executor, or a task of
+ * executors, carried out.
+ */
+@Name("oop.ex6.ExecutedCommands")
+@Label("Executed Commands")
+@Description("The commands of a kind carried out by an executor, and the time spent carrying them out")
+public class ExecutedCommandsEvent extends KindEvent {
+}
@@ -0,0 +1,28 @@
+package oop.ex6.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class represents a flight recorder event which spans a single pass of a parser over an s-java file,
+ * from opening its source - memory-mapping or decoding it - to closing it after its last line.
+ */
+@Name("oop.ex6.FileRead")
+@Label("File Read")
+@Description("A pass over an s-java file, from opening its source to closing it")
+@Category({"S-Java", "Verifier"})
+@StackTrace(false)
+public class FileReadEvent extends Event {
+
+    /*----=   Instance Data Members  =----*/
+
+    @Label("File")
+    public String fileName;
+
+    @Label("Lines")
+    public int lines;
+}
@@ -0,0 +1,22 @@
+package oop.ex6.events;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * This class represents the state of the flight recorder, which is checked before any event is created. An
+ * event is only created once the flight recorder was initialized - by a recording started with the process,
+ * or later with jcmd <pid> JFR.start - so a run which is never recorded does not initialize the flight
+ * recorder, nor load its classes and the event classes.
+ */
+public class FlightRecording {
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @return true if the flight recorder was initialized, so its events may be enabled in a running
+     * recording; false if no recording was started yet.
+     */
+    public static boolean isInitialized(){
+        return FlightRecorder.isInitialized();
+    }
+}
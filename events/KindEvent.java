@@ -0,0 +1,30 @@
+package oop.ex6.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * This abstract class represents a flight recorder event which totals one kind of a phase's work, such as a
+ * kind of line parsed or of command executed. The event spans the whole phase, and holds the number of times
+ * its kind occurred in the phase and the time spent on them, so a file of millions of lines is recorded in a
+ * handful of events.
+ */
+@Category({"S-Java", "Verifier"})
+@StackTrace(false)
+public abstract class KindEvent extends Event {
+
+    /*----=   Instance Data Members  =----*/
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Count")
+    int count;
+
+    @Label("Total Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalDuration;
+}
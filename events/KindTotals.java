@@ -0,0 +1,78 @@
+package oop.ex6.events;
+
+import java.util.function.Supplier;
+
+/**
+ * This class represents the totals of a phase's work by kind, such as the lines a parser parsed or the
+ * commands an executor carried out, which are recorded as a kind event for each kind once the phase ends.
+ * Totals are only kept while their event is enabled in a running recording, so a phase which is not recorded
+ * does not time its lines or commands at all, and no event is created before a recording was started.
+ */
+public class KindTotals {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final String[] kinds;
+    private final KindEvent[] events;
+    private final int[] counts;
+    private final long[] durations;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the names of the kinds, and begins an event for each of them.
+     * @param kinds - the given names, indexed by the kinds.
+     * @param eventFactory - the factory of the phase's events.
+     */
+    private KindTotals(String[] kinds, Supplier<KindEvent> eventFactory){
+        this.kinds = kinds;
+        this.events = new KindEvent[kinds.length];
+        this.counts = new int[kinds.length];
+        this.durations = new long[kinds.length];
+        for (int i=0; i<kinds.length; i++){
+            this.events[i] = eventFactory.get();
+            this.events[i].begin();
+        }
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Begin the totals of a phase, if its events are enabled.
+     * @param kinds - the names of the phase's kinds of work, indexed by the kinds.
+     * @param eventFactory - the factory of the phase's events.
+     * @return the totals of the phase; null if its events are not enabled in any running recording.
+     */
+    public static KindTotals begin(String[] kinds, Supplier<KindEvent> eventFactory){
+        if (!FlightRecording.isInitialized() || !eventFactory.get().isEnabled()){
+            return null;
+        }
+        return new KindTotals(kinds, eventFactory);
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Add a piece of work of the given kind to the totals.
+     * @param kind - the given kind.
+     * @param startTime - the value of System.nanoTime() when the work started.
+     */
+    public void add(int kind, long startTime){
+        this.counts[kind]++;
+        this.durations[kind] += System.nanoTime()-startTime;
+    }
+
+    /**
+     * End the phase, and commit the event of each kind which occurred in it.
+     */
+    public void commit(){
+        for (int i=0; i<this.kinds.length; i++){
+            if (this.counts[i] > 0 && this.events[i].shouldCommit()){
+                this.events[i].kind = this.kinds[i];
+                this.events[i].count = this.counts[i];
+                this.events[i].totalDuration = this.durations[i];
+                this.events[i].commit();
+            }
+        }
+    }
+}
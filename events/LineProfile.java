@@ -0,0 +1,205 @@
+package oop.ex6.events;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * This class represents a profile of the time spent on each line of an s-java file: the time the parser spent
+ * parsing it, and the time the executor spent carrying out its commands. The time is also totalled by the
+ * kind of each line parsed and of each command carried out, so the profile shows both which lines of a file
+ * are the most expensive and which constructs are. A profile is kept by a single thread.
+ */
+public class LineProfile {
+
+    /*----=   Constants  =----*/
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final int TEXT_LENGTH = 60;
+    private static final String ELLIPSIS = "...";
+
+    // Formats of the printed profile.
+    private static final String SUMMARY = "profile: %d lines, parse %.3f ms, execute %.3f ms";
+    private static final String SLOWEST_LINES = "slowest lines:";
+    private static final String LINE = "  line %-7d %9.3f ms  (parse %.3f ms, execute %.3f ms)  %-10s %s";
+    private static final String PARSE_KINDS = "parse time by line kind:";
+    private static final String EXECUTE_KINDS = "execute time by command kind:";
+    private static final String KIND = "  %-20s %9d %12.3f ms";
+
+    /*----=   Instance Data Members  =----*/
+
+    private long[] parseTimes;
+    private long[] executeTimes;
+    private String[] lineKinds;
+    private int lines;
+    private final HashMap<String, long[]> parseTotals;
+    private final HashMap<String, long[]> executeTotals;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * The default constructor.
+     */
+    public LineProfile(){
+        this.parseTimes = new long[INITIAL_CAPACITY];
+        this.executeTimes = new long[INITIAL_CAPACITY];
+        this.lineKinds = new String[INITIAL_CAPACITY];
+        this.lines = 0;
+        this.parseTotals = new HashMap<>();
+        this.executeTotals = new HashMap<>();
+    }
+
+    /*----=   Instance Methods: 1. Profiling  =----*/
+
+    /**
+     * Add the time spent parsing the given line.
+     * @param lineNumber - the line's number.
+     * @param kind - the name of the line's kind.
+     * @param startTime - the value of System.nanoTime() when the parser started parsing the line.
+     */
+    public void addLine(int lineNumber, String kind, long startTime){
+        long duration = System.nanoTime()-startTime;
+        this.ensureCapacity(lineNumber);
+        this.parseTimes[lineNumber] += duration;
+        this.lineKinds[lineNumber] = kind;
+        addTotal(this.parseTotals, kind, duration);
+    }
+
+    /**
+     * Add the time spent carrying out a command of the given line.
+     * @param lineNumber - the line's number.
+     * @param kind - the name of the command's kind.
+     * @param startTime - the value of System.nanoTime() when the executor started carrying out the command.
+     */
+    public void addCommand(int lineNumber, String kind, long startTime){
+        long duration = System.nanoTime()-startTime;
+        this.ensureCapacity(lineNumber);
+        this.executeTimes[lineNumber] += duration;
+        addTotal(this.executeTotals, kind, duration);
+    }
+
+    /**
+     * Add the given duration to the totals of the given kind.
+     * @param totals - the totals of a phase: the number of times each kind occurred, and the time spent on it.
+     * @param kind - the name of the kind.
+     * @param duration - the given duration, in nanoseconds.
+     */
+    private static void addTotal(Map<String, long[]> totals, String kind, long duration){
+        long[] total = totals.computeIfAbsent(kind, k -> new long[2]);
+        total[0]++;
+        total[1] += duration;
+    }
+
+    /**
+     * Make room for the given line's times.
+     * @param lineNumber - the line's number.
+     */
+    private void ensureCapacity(int lineNumber){
+        if (lineNumber >= this.parseTimes.length){
+            int capacity = Math.max(this.parseTimes.length*2, lineNumber+1);
+            this.parseTimes = Arrays.copyOf(this.parseTimes, capacity);
+            this.executeTimes = Arrays.copyOf(this.executeTimes, capacity);
+            this.lineKinds = Arrays.copyOf(this.lineKinds, capacity);
+        }
+        this.lines = Math.max(this.lines, lineNumber);
+    }
+
+    /*----=   Instance Methods: 2. Reporting  =----*/
+
+    /**
+     * @param lineNumber - a line's number.
+     * @return the total time spent on the given line, in nanoseconds.
+     */
+    private long getTime(int lineNumber){
+        return this.parseTimes[lineNumber]+this.executeTimes[lineNumber];
+    }
+
+    /**
+     * @param count - the maximal number of lines to return.
+     * @return the numbers of the lines on which the most time was spent, up to the given number of them, the
+     * most expensive first.
+     */
+    public int[] getSlowestLines(int count){
+        Comparator<Integer> byTime = Comparator.comparingLong(this::getTime);
+        PriorityQueue<Integer> slowest = new PriorityQueue<>(byTime);
+        for (int lineNumber=1; lineNumber<=this.lines; lineNumber++){
+            if (slowest.size() < count){
+                slowest.add(lineNumber);
+            }
+            else if (this.getTime(lineNumber) > this.getTime(slowest.peek())){
+                slowest.poll();
+                slowest.add(lineNumber);
+            }
+        }
+        int[] slowestLines = new int[slowest.size()];
+        for (int i=slowestLines.length-1; i>=0; i--){
+            slowestLines[i] = slowest.poll();
+        }
+        return slowestLines;
+    }
+
+    /**
+     * Print the profile: a summary, the given lines with their times, kinds and texts, and the times of each
+     * kind of line and command.
+     * @param output - the stream to print to.
+     * @param slowestLines - the numbers of the lines to print, as returned by getSlowestLines().
+     * @param texts - the texts of the given lines, in the same order; null if they are not known.
+     */
+    public void print(PrintStream output, int[] slowestLines, String[] texts){
+        output.println(String.format(Locale.ROOT, SUMMARY, this.lines, sum(this.parseTotals)/NANOS_PER_MILLI,
+                sum(this.executeTotals)/NANOS_PER_MILLI));
+        output.println(SLOWEST_LINES);
+        for (int i=0; i<slowestLines.length; i++){
+            int lineNumber = slowestLines[i];
+            String kind = this.lineKinds[lineNumber] == null ? "" : this.lineKinds[lineNumber];
+            String text = texts == null || texts[i] == null ? "" : abbreviate(texts[i].trim());
+            output.println(String.format(Locale.ROOT, LINE, lineNumber, this.getTime(lineNumber)/NANOS_PER_MILLI,
+                    this.parseTimes[lineNumber]/NANOS_PER_MILLI, this.executeTimes[lineNumber]/NANOS_PER_MILLI,
+                    kind, text));
+        }
+        output.println(PARSE_KINDS);
+        printTotals(output, this.parseTotals);
+        output.println(EXECUTE_KINDS);
+        printTotals(output, this.executeTotals);
+    }
+
+    /**
+     * @param totals - the totals of a phase.
+     * @return the time spent on the phase, in nanoseconds.
+     */
+    private static long sum(Map<String, long[]> totals){
+        long sum = 0;
+        for (long[] total: totals.values()){
+            sum += total[1];
+        }
+        return sum;
+    }
+
+    /**
+     * Print the totals of a phase, the kind on which the most time was spent first.
+     * @param output - the stream to print to.
+     * @param totals - the totals of the phase.
+     */
+    private static void printTotals(PrintStream output, Map<String, long[]> totals){
+        ArrayList<Map.Entry<String, long[]>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort((first, second) -> Long.compare(second.getValue()[1], first.getValue()[1]));
+        for (Map.Entry<String, long[]> total: entries){
+            output.println(String.format(Locale.ROOT, KIND, total.getKey(), total.getValue()[0],
+                    total.getValue()[1]/NANOS_PER_MILLI));
+        }
+    }
+
+    /**
+     * @param text - a line's text.
+     * @return the given text, shortened with an ellipsis if it is long.
+     */
+    private static String abbreviate(String text){
+        return text.length() <= TEXT_LENGTH ? text : text.substring(0, TEXT_LENGTH-ELLIPSIS.length())+ELLIPSIS;
+    }
+}
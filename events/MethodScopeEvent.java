@@ -0,0 +1,40 @@
+package oop.ex6.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class represents a flight recorder event which spans the verification of a single method scope, from
+ * the command which opens it to the command which closes it.
+ */
+@Name("oop.ex6.MethodScope")
+@Label("Method Scope")
+@Description("The verification of a method scope, from its declaration line to its closing brace")
+@Category({"S-Java", "Verifier"})
+@StackTrace(false)
+public class MethodScopeEvent extends Event {
+
+    /*----=   Instance Data Members  =----*/
+
+    @Label("Method")
+    public String methodName;
+
+    @Label("First Line")
+    public int firstLine;
+
+    @Label("Last Line")
+    public int lastLine;
+
+    @Label("Commands")
+    public int commands;
+
+    @Label("Variables Defined")
+    public int variablesDefined;
+
+    @Label("Maximum Scope Depth")
+    public int maxScopeDepth;
+}
@@ -0,0 +1,15 @@
+package oop.ex6.events;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class extends KindEvent and represents the lines of a single kind which a parser parsed in a single
+ * pass over an s-java file.
+ */
+@Name("oop.ex6.ParsedLines")
+@Label("Parsed Lines")
+@Description("The lines of a kind parsed in a pass over an s-java file, and the time spent parsing them")
+public class ParsedLinesEvent extends KindEvent {
+}
@@ -0,0 +1,147 @@
+package oop.ex6.executer;
+
+import oop.ex6.events.ExecutedCommandsEvent;
+import oop.ex6.events.FlightRecording;
+import oop.ex6.events.KindTotals;
+import oop.ex6.events.MethodScopeEvent;
+import oop.ex6.parser.Program;
+
+/**
+ * This class represents the flight recorder events of the commands an executor carries out: the totals of
+ * each kind of command, and an event for each method scope, with the number of its commands, the variables
+ * defined in it and the depth of its deepest if/while scope. A recorder is only created while one of these
+ * events is enabled in a running recording, so an executor which is not recorded only checks that it has no
+ * recorder.
+ */
+class ExecutionRecorder {
+
+    /*----=   Constants  =----*/
+
+    // The names of the kinds of commands, indexed by their opcodes.
+    private static final String[] COMMAND_KINDS = {"define variable", "assign value", "declare method",
+            "open method scope", "open if/while scope", "call method", "return statement", "close scope"};
+
+    /*----=   Instance Data Members  =----*/
+
+    private final KindTotals commandTotals;
+    private final boolean recordsMethodScopes;
+    private MethodScopeEvent methodScopeEvent;
+    private int scopeDepth;
+    private int lastLine;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the totals of the commands' kinds, and whether method scopes are recorded.
+     * @param commandTotals - the given totals; null if the kinds of commands are not recorded.
+     * @param recordsMethodScopes - true if method scopes are recorded; false otherwise.
+     */
+    private ExecutionRecorder(KindTotals commandTotals, boolean recordsMethodScopes){
+        this.commandTotals = commandTotals;
+        this.recordsMethodScopes = recordsMethodScopes;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Begin recording an executor's commands, if their events are enabled.
+     * @return a recorder; null if none of the events are enabled in any running recording.
+     */
+    static ExecutionRecorder begin(){
+        if (!FlightRecording.isInitialized()){
+            return null;
+        }
+        KindTotals commandTotals = KindTotals.begin(COMMAND_KINDS, ExecutedCommandsEvent::new);
+        boolean recordsMethodScopes = new MethodScopeEvent().isEnabled();
+        if (commandTotals == null && !recordsMethodScopes){
+            return null;
+        }
+        return new ExecutionRecorder(commandTotals, recordsMethodScopes);
+    }
+
+    /**
+     * @param program - a program.
+     * @param instruction - the index of an instruction in the given program.
+     * @return the name of the given instruction's kind of command.
+     */
+    static String getKind(Program program, int instruction){
+        return COMMAND_KINDS[program.getOpcode(instruction)];
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Record the given instruction, which the executor has just carried out.
+     * @param program - the program of the instruction.
+     * @param instruction - the index of the instruction.
+     * @param isLegal - true if the command was carried out without an error; false otherwise.
+     * @param startTime - the value of System.nanoTime() when the executor started carrying out the command.
+     */
+    void record(Program program, int instruction, boolean isLegal, long startTime){
+        int opcode = program.getOpcode(instruction);
+        if (this.commandTotals != null){
+            this.commandTotals.add(opcode, startTime);
+        }
+        if (!this.recordsMethodScopes){
+            return;
+        }
+        if (opcode == Program.OPEN_METHOD_SCOPE){
+            if (this.methodScopeEvent != null){
+                this.endMethodScope();
+            }
+            this.methodScopeEvent = new MethodScopeEvent();
+            this.methodScopeEvent.begin();
+            this.methodScopeEvent.methodName = program.getSymbol(instruction).getName();
+            this.methodScopeEvent.firstLine = program.getLineNumber(instruction);
+            this.scopeDepth = 0;
+        }
+        if (this.methodScopeEvent == null){
+            return;
+        }
+        this.lastLine = program.getLineNumber(instruction);
+        this.methodScopeEvent.commands++;
+        switch (opcode){
+            case Program.OPEN_METHOD_SCOPE:
+            case Program.OPEN_IF_WHILE_SCOPE:
+                this.scopeDepth++;
+                this.methodScopeEvent.maxScopeDepth = Math.max(this.methodScopeEvent.maxScopeDepth,
+                        this.scopeDepth);
+                break;
+            case Program.DEFINE_VARIABLE:
+                if (isLegal){
+                    this.methodScopeEvent.variablesDefined++;
+                }
+                break;
+            case Program.CLOSE_SCOPE:
+                this.scopeDepth--;
+                if (this.scopeDepth == 0){
+                    this.endMethodScope();
+                }
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Commit the event of the current method scope, which has ended at the last command recorded in it: its
+     * closing brace, or the command at which its verification stopped.
+     */
+    private void endMethodScope(){
+        this.methodScopeEvent.lastLine = this.lastLine;
+        this.methodScopeEvent.commit();
+        this.methodScopeEvent = null;
+    }
+
+    /**
+     * End the recording: commit the event of a method scope which was not closed, and the totals of the
+     * commands' kinds.
+     */
+    void commit(){
+        if (this.methodScopeEvent != null){
+            this.endMethodScope();
+        }
+        if (this.commandTotals != null){
+            this.commandTotals.commit();
+        }
+    }
+}
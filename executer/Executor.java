@@ -1,11 +1,17 @@
 package oop.ex6.executer;
 
-import oop.ex6.parser.CodeLine;
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticList;
+import oop.ex6.events.LineProfile;
+import oop.ex6.parser.Program;
 import oop.ex6.members.*;
 import oop.ex6.scopes.*;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.function.ToIntFunction;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This class represents an executor which executes the commands of an s-java file.
@@ -14,108 +20,397 @@ public class Executor {
 
     /*----=   Constants  =----*/
 
-    private final static String EXCEPTION_MESSAGE_SUFFIX = "Warning in line ";
     private final static int ILLEGAL_CODE = 1;
     private final static int LEGAL_CODE = 0;
+    private final static int BUDGET_CHECK_MASK = 1023;
+    private final static ArrayList<Value> NO_CONDITIONS = new ArrayList<>();
 
     /*----=   Instance Data Members  =----*/
 
-    private final ArrayList<CodeLine> codeLines;
-    private Scope currentScope = new GlobalScope();
+    private final Iterable<Program> programs;
+    private final PrintStream errorStream;
+    private final GlobalScope globalScope;
+    private final DiagnosticList diagnostics;
+    private Scope currentScope;
     private int lineNumber = 0;
+    private Diagnostic failure;
+    private ExecutionRecorder recorder;
+    private LineProfile profile;
+    private Budget budget;
 
     /*----=   Constructor  =----*/
 
     /**
-     * A constructor for an executor which receives an array of commands to execute.
-     * @param codeLines - the commands to execute.
+     * A constructor for an executor which receives the program of commands to execute.
+     * @param program - the program to execute.
      */
-    public Executor(ArrayList<CodeLine> codeLines){
-        this.codeLines = codeLines;
-        this.currentScope = new GlobalScope();
+    public Executor(Program program){
+        this(program, System.err);
     }
 
     /**
-     * Execute this executor's commands consecutively.
+     * A constructor for an executor which receives the program of commands to execute, and the stream to
+     * which it prints the errors it encounters.
+     * @param program - the program to execute.
+     * @param errorStream - the stream to print errors to.
+     */
+    public Executor(Program program, PrintStream errorStream){
+        this(Collections.singletonList(program), errorStream);
+    }
+
+    /**
+     * A constructor for an executor which receives the programs of commands to execute one after the other,
+     * such as the segments of a pipeline, and the stream to which it prints the errors it encounters.
+     * @param programs - the programs to execute.
+     * @param errorStream - the stream to print errors to.
+     */
+    public Executor(Iterable<Program> programs, PrintStream errorStream){
+        this(programs, errorStream, new GlobalScope());
+    }
+
+    /**
+     * A constructor for an executor which recovers from logical errors: each error is added to the given list,
+     * the scopes are re-synchronised at the command which failed, and execution goes on from the next
+     * command, until the list is full.
+     * @param program - the program to execute.
+     * @param errorStream - the stream to print errors to; null if errors are only added to the list.
+     * @param diagnostics - the given list.
+     */
+    public Executor(Program program, PrintStream errorStream, DiagnosticList diagnostics){
+        this(Collections.singletonList(program), errorStream, new GlobalScope(), diagnostics);
+    }
+
+    /**
+     * A constructor for an executor which receives the programs of commands to execute one after the other,
+     * such as the segments of a pipeline, and recovers from logical errors, adding them to the given list.
+     * @param programs - the programs to execute.
+     * @param errorStream - the stream to print errors to; null if errors are only added to the list.
+     * @param diagnostics - the given list.
+     */
+    public Executor(Iterable<Program> programs, PrintStream errorStream, DiagnosticList diagnostics){
+        this(programs, errorStream, new GlobalScope(), diagnostics);
+    }
+
+    /**
+     * A constructor for an executor which receives the programs of commands to execute, the stream to which
+     * it prints the errors it encounters, and the global scope in which it starts.
+     * @param programs - the programs to execute.
+     * @param errorStream - the stream to print errors to; null if errors are only kept.
+     * @param globalScope - the given global scope.
+     */
+    Executor(Iterable<Program> programs, PrintStream errorStream, GlobalScope globalScope){
+        this(programs, errorStream, globalScope, null);
+    }
+
+    /**
+     * A constructor for an executor which receives the programs of commands to execute, the stream to which
+     * it prints the errors it encounters, the global scope in which it starts, and the list to which it adds
+     * them.
+     * @param programs - the programs to execute.
+     * @param errorStream - the stream to print errors to; null if errors are only kept.
+     * @param globalScope - the given global scope.
+     * @param diagnostics - the given list; null if the executor stops at the first error.
+     */
+    private Executor(Iterable<Program> programs, PrintStream errorStream, GlobalScope globalScope,
+                     DiagnosticList diagnostics){
+        this.programs = programs;
+        this.errorStream = errorStream;
+        this.globalScope = globalScope;
+        this.diagnostics = diagnostics;
+        this.currentScope = globalScope;
+    }
+
+    /*----=   Instance Methods: 1. Execution  =----*/
+
+    /**
+     * Execute this executor's commands. The global scope commands are executed consecutively; the method
+     * scopes are then verified in parallel, if that is expected to be at least twice as fast, and the error
+     * of the first method which failed is reported, as if they had been executed consecutively. An executor
+     * which recovers from errors executes every method scope consecutively, unless only one more error may be
+     * added to its diagnostics. An executor whose commands are profiled executes them consecutively.
+     * If the commands are recorded by the flight recorder, the events are committed once execution ends.
      * @return - 1 if executor encountered a logical error in the commands; 0 otherwise.
      */
     public int execute(){
-        ToIntFunction<Executor> command;
-        for (CodeLine codeLine: this.codeLines){
-            this.lineNumber = codeLine.getLineNumber();
-            command = codeLine.getCommand();
-            if (command.applyAsInt(this)==ILLEGAL_CODE){
+        this.recorder = ExecutionRecorder.begin();
+        try {
+            return this.executePrograms();
+        }
+        finally {
+            if (this.recorder != null){
+                this.recorder.commit();
+                this.recorder = null;
+            }
+        }
+    }
+
+    /**
+     * Execute this executor's programs, in parallel or consecutively, as described in execute().
+     * @return - 1 if executor encountered a logical error in the commands; 0 otherwise.
+     */
+    private int executePrograms(){
+        boolean stopsAtNextError = this.diagnostics == null || this.diagnostics.getRemaining() == 1;
+        boolean mayRunInParallel = stopsAtNextError && this.profile == null;
+        if (mayRunInParallel && this.programs instanceof List && ((List<Program>) this.programs).size() == 1){
+            Program program = ((List<Program>) this.programs).get(0);
+            int[] methodBounds = MethodScopesTask.findParallelMethodBounds(program);
+            if (methodBounds != null){
+                return this.executeInParallel(program, methodBounds);
+            }
+        }
+        for (Program program: this.programs){
+            if (this.executeCommands(program) == ILLEGAL_CODE){
                 return ILLEGAL_CODE;
             }
         }
+        if (this.endCode() == ILLEGAL_CODE || this.failure != null){
+            return ILLEGAL_CODE;
+        }
+        return LEGAL_CODE;
+    }
+
+    /**
+     * Execute the instructions of the given program consecutively, until one of them fails; or, if the
+     * executor recovers from errors, until its diagnostics are full. The executor also stops once its budget
+     * is exceeded, which is checked every so many instructions.
+     * @param program - the given program.
+     * @return - 1 if executor encountered a logical error in the commands; 0 otherwise.
+     */
+    int executeCommands(Program program){
+        int result;
+        long startTime = 0;
+        for (int instruction=program.getStart(); instruction<program.getEnd(); instruction++){
+            if (this.budget != null && (instruction & BUDGET_CHECK_MASK) == 0 && !this.budget.hasTimeLeft()){
+                return ILLEGAL_CODE;
+            }
+            if (this.recorder != null || this.profile != null){
+                startTime = System.nanoTime();
+            }
+            this.lineNumber = program.getLineNumber(instruction);
+            switch (program.getOpcode(instruction)){
+                case Program.DEFINE_VARIABLE:
+                    result = this.defineVariable(program.isFinal(instruction),
+                            program.getVariableType(instruction), program.getSymbol(instruction),
+                            program.getValue(instruction));
+                    break;
+                case Program.ASSIGN_VALUE:
+                    result = this.assignValue(program.getSymbol(instruction), program.getValue(instruction));
+                    break;
+                case Program.DECLARE_METHOD:
+                    result = this.declareMethod(program.getSymbol(instruction),
+                            program.getParameters(instruction));
+                    break;
+                case Program.OPEN_METHOD_SCOPE:
+                    result = this.openMethodScope(program.getSymbol(instruction));
+                    break;
+                case Program.OPEN_IF_WHILE_SCOPE:
+                    result = this.openIfWhileScope(program.getValues(instruction));
+                    break;
+                case Program.CALL_METHOD:
+                    result = this.callMethod(program.getSymbol(instruction), program.getValues(instruction));
+                    break;
+                case Program.RETURN_STATEMENT:
+                    result = this.sendReturnStatement();
+                    break;
+                default:
+                    result = this.closeScope();
+            }
+            if (this.recorder != null){
+                this.recorder.record(program, instruction, result == LEGAL_CODE, startTime);
+            }
+            if (this.profile != null){
+                this.profile.addCommand(this.lineNumber, ExecutionRecorder.getKind(program, instruction),
+                        startTime);
+            }
+            if (result == ILLEGAL_CODE && !this.recover(program, instruction)){
+                return ILLEGAL_CODE;
+            }
+        }
+        return LEGAL_CODE;
+    }
+
+    /**
+     * Re-synchronise the scopes after the given instruction failed, so that the following commands are
+     * executed in the scope they belong to, and do not fail because of it: a variable whose definition failed
+     * is defined with a value of its own type, a block whose opening failed is opened as an if/while scope
+     * without conditions, and a scope whose closing failed is closed without being verified.
+     * @param program - the program of the instruction.
+     * @param instruction - the index of the instruction which failed.
+     * @return true if the execution may go on; false if the executor does not recover from errors, or if its
+     * diagnostics are full.
+     */
+    private boolean recover(Program program, int instruction){
+        if (this.diagnostics == null || this.diagnostics.isFull()){
+            return false;
+        }
+        try {
+            switch (program.getOpcode(instruction)){
+                case Program.DEFINE_VARIABLE:
+                    this.currentScope.defineVariable(program.isFinal(instruction),
+                            program.getVariableType(instruction), program.getSymbol(instruction),
+                            Value.of(program.getVariableType(instruction)));
+                    break;
+                case Program.OPEN_METHOD_SCOPE:
+                case Program.OPEN_IF_WHILE_SCOPE:
+                    this.currentScope = this.currentScope.openIfWhileScope(NO_CONDITIONS);
+                    break;
+                case Program.CLOSE_SCOPE:
+                    this.currentScope = this.currentScope.abandonScope();
+                    break;
+                default:
+            }
+        }
+        catch (ExecutorException e){
+            // The command cannot be carried out at all, such as a block opened in the global scope, whose
+            // commands are then executed in the global scope.
+        }
+        return true;
+    }
+
+    /**
+     * Execute the global scope commands consecutively, and then verify each of the method scopes against a
+     * frozen snapshot of the global scope as a separate fork-join task.
+     * @param program - the program to execute.
+     * @param methodBounds - the indexes at which the method scopes begin, followed by the program's end.
+     * @return - 1 if executor encountered a logical error in the commands; 0 otherwise.
+     */
+    private int executeInParallel(Program program, int[] methodBounds){
+        if (this.executeCommands(program.slice(program.getStart(), methodBounds[0])) == ILLEGAL_CODE){
+            return ILLEGAL_CODE;
+        }
+        MethodScopesTask task = new MethodScopesTask(program, methodBounds, this.globalScope.freeze(),
+                this.budget);
+        task.invoke();
+        if (this.budget != null && this.budget.isExceeded()){
+            return ILLEGAL_CODE;
+        }
+        if (task.getFirstFailure() != null){
+            this.failure = task.getFirstFailure();
+            if (this.diagnostics != null){
+                this.diagnostics.add(this.failure);
+            }
+            if (this.errorStream != null){
+                this.errorStream.println(this.failure);
+            }
+            return ILLEGAL_CODE;
+        }
         return this.endCode();
     }
 
+    /**
+     * Keep and print the diagnostic which reports the given exception, at the line of the current command,
+     * and add it to the executor's diagnostics. The diagnostic's message is only formatted as it is printed.
+     * @param e - the given exception.
+     * @return 1 - the result of a command which encountered an error.
+     */
+    private int report(ExecutorException e){
+        this.failure = e.getDiagnostic(this.lineNumber, Diagnostic.NO_COLUMN);
+        if (this.diagnostics != null){
+            this.diagnostics.add(this.failure);
+        }
+        if (this.errorStream != null){
+            this.errorStream.println(this.failure);
+        }
+        return ILLEGAL_CODE;
+    }
+
+    /**
+     * Time each command this executor carries out, and add it to the given profile.
+     * @param profile - the given profile; null if the commands are not timed.
+     */
+    public void setProfile(LineProfile profile){
+        this.profile = profile;
+    }
+
+    /**
+     * Record the commands this executor carries out with the given recorder, such as that of the task which
+     * verifies a range of method scopes in parallel.
+     * @param recorder - the given recorder; null if the commands are not recorded.
+     */
+    void setRecorder(ExecutionRecorder recorder){
+        this.recorder = recorder;
+    }
+
+    /**
+     * Check the time left in the given budget every so many instructions, and stop executing once it is
+     * exceeded. An executor which stops this way fails without a diagnostic of its own; the budget keeps the
+     * diagnostic which reports it.
+     * @param budget - the given budget; null if execution is not limited.
+     */
+    public void setBudget(Budget budget){
+        this.budget = budget;
+    }
+
+    /**
+     * @return the diagnostic of the last error this executor encountered; null if it encountered none.
+     */
+    Diagnostic getFailure(){
+        return this.failure;
+    }
+
+    /*----=   Instance Methods: 2. Commands  =----*/
+
     /**
      * Define a new variable with the given parameters inside the current scope.
      * @param isFinal - the variable's final modifier.
      * @param variableType - the variable's type.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param value - the variable's input value.
      * @return - 1 if the executor encountered an error while performing the command; 0 otherwise.
      */
-    public int defineVariable(boolean isFinal, Variable.Type variableType, String variableName, Value value){
+    public int defineVariable(boolean isFinal, Variable.Type variableType, Symbol variableSymbol, Value value){
         try {
-            this.currentScope.defineVariable(isFinal, variableType, variableName, value);
+            this.currentScope.defineVariable(isFinal, variableType, variableSymbol, value);
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
 
     /**
      * Assign a new value to an existing variable.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param value - the new value.
      * @return - 1 if the executor encountered an error while performing the command; 0 otherwise.
      */
-    public int assignValue(String variableName, Value value){
+    public int assignValue(Symbol variableSymbol, Value value){
         try {
-            this.currentScope.assignValue(variableName, value);
+            this.currentScope.assignValue(variableSymbol, value);
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
 
     /**
      * Declare a new method..
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @param parameters - the method's parameters.
      * @return - 1 if the executor encountered an error while performing the command; 0 otherwise.
      */
-    public int declareMethod(String methodName, ArrayList<Parameter> parameters){
+    public int declareMethod(Symbol methodSymbol, ArrayList<Parameter> parameters){
         try {
-            this.currentScope.declareMethod(methodName, parameters);
+            this.currentScope.declareMethod(methodSymbol, parameters);
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
 
     /**
      * Open a new method scope. This method assumes that the method has already been declared.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @return - 1 if the executor encountered an error while performing the command; 0 otherwise.
      */
-    public int openMethodScope(String methodName){
+    public int openMethodScope(Symbol methodSymbol){
         try {
-            this.currentScope = this.currentScope.openMethodScope(methodName);
+            this.currentScope = this.currentScope.openMethodScope(methodSymbol);
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
@@ -130,25 +425,23 @@ public class Executor {
             this.currentScope = this.currentScope.openIfWhileScope(conditions);
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
 
     /**
      * Perform a method call to the given method, with the given values.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @param values - the given values.
      * @return - 1 if the executor encountered an error while performing the command; 0 otherwise.
      */
-    public int callMethod(String methodName, ArrayList<Value> values){
+    public int callMethod(Symbol methodSymbol, ArrayList<Value> values){
         try {
-            this.currentScope.callMethod(methodName, values);
+            this.currentScope.callMethod(methodSymbol, values);
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
@@ -162,8 +455,7 @@ public class Executor {
             this.currentScope.sendReturnStatement();
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
@@ -177,8 +469,7 @@ public class Executor {
             this.currentScope = this.currentScope.closeScope();
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
@@ -192,8 +483,7 @@ public class Executor {
             this.currentScope.endCode();
         }
         catch (ExecutorException e){
-            System.err.println(EXCEPTION_MESSAGE_SUFFIX+this.lineNumber+" - "+e.getMessage());
-            return ILLEGAL_CODE;
+            return this.report(e);
         }
         return LEGAL_CODE;
     }
@@ -1,12 +1,21 @@
 package oop.ex6.executer;
 
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticException;
+
 /**
  * This abstract class signals that an executor has encountered a logical error while executing its commands.
  */
-public abstract class ExecutorException extends Exception {
+public abstract class ExecutorException extends DiagnosticException {
+
+    /*----=   Constructor  =----*/
 
     /**
-     * @return this exception's header and detail message.
+     * A constructor which receives the code and arguments of this exception's message.
+     * @param code - the given code.
+     * @param arguments - the arguments of the code's message.
      */
-    public abstract String getMessage();
+    protected ExecutorException(DiagnosticCode code, Object[] arguments){
+        super(code, arguments);
+    }
 }
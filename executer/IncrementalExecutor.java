@@ -0,0 +1,318 @@
+package oop.ex6.executer;
+
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.members.Symbol;
+import oop.ex6.members.Value;
+import oop.ex6.parser.IncrementalCommands;
+import oop.ex6.parser.Program;
+import oop.ex6.scopes.GlobalScope;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * This class represents an executor which verifies the commands of an s-java file which is edited, executing
+ * again after each edit only the commands whose result the edit may have changed. The global scope commands of
+ * all the units are executed again only if they may have changed, and the global scope they declare is then
+ * compared with the one the method bodies were last verified against. A method body is verified again only if
+ * its unit was parsed again, or if it refers to a variable or a method whose declaration changed, which is
+ * found through a map from each symbol to the units of the method bodies which refer to it.
+ * Each method body is verified by an executor of its own which starts in a frozen snapshot of the global scope,
+ * as the method scopes of a large file are verified in parallel, so its result depends on nothing but its own
+ * commands and the declarations it refers to. The error reported is that of the global scope commands, if they
+ * failed, and otherwise that of the first method body which failed, as if they had been executed consecutively.
+ */
+public class IncrementalExecutor {
+
+    /*----=   Constants  =----*/
+
+    private final static int ILLEGAL_CODE = 1;
+    private final static int LEGAL_CODE = 0;
+    private final static int NO_UNIT = -1;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final IncrementalCommands commands;
+    private GlobalScope globalScope;
+    private boolean hasGlobalScopeChanged;
+    private Diagnostic globalScopeFailure;
+    private int globalScopeFailedUnit;
+    private final LinkedHashSet<Integer> pendingMethods;
+    private final HashMap<Integer, int[]> methodSymbols;
+    private final HashMap<Integer, Diagnostic> methodFailures;
+    private final HashMap<Integer, HashSet<Integer>> symbolUsers;
+    private Diagnostic failure;
+    private Budget budget;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor for an executor which receives the commands it verifies, none of which it has executed.
+     * @param commands - the given commands.
+     */
+    public IncrementalExecutor(IncrementalCommands commands){
+        this.commands = commands;
+        this.hasGlobalScopeChanged = true;
+        this.globalScopeFailedUnit = NO_UNIT;
+        this.pendingMethods = new LinkedHashSet<>();
+        this.methodSymbols = new HashMap<>();
+        this.methodFailures = new HashMap<>();
+        this.symbolUsers = new HashMap<>();
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @param program - the program of a method body.
+     * @return the ids of the symbols of the variables and methods the method body's commands refer to, once
+     * each.
+     */
+    private static int[] findSymbols(Program program){
+        HashSet<Integer> symbols = new HashSet<>();
+        for (int instruction=program.getStart(); instruction<program.getEnd(); instruction++){
+            switch (program.getOpcode(instruction)){
+                case Program.DEFINE_VARIABLE:
+                case Program.ASSIGN_VALUE:
+                    symbols.add(program.getSymbol(instruction).getId());
+                    addSymbol(symbols, program.getValue(instruction));
+                    break;
+                case Program.DECLARE_METHOD:
+                case Program.OPEN_METHOD_SCOPE:
+                    symbols.add(program.getSymbol(instruction).getId());
+                    break;
+                case Program.CALL_METHOD:
+                    symbols.add(program.getSymbol(instruction).getId());
+                    addSymbols(symbols, program.getValues(instruction));
+                    break;
+                case Program.OPEN_IF_WHILE_SCOPE:
+                    addSymbols(symbols, program.getValues(instruction));
+                    break;
+                default:
+            }
+        }
+        int[] ids = new int[symbols.size()];
+        int i = 0;
+        for (int id: symbols){
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Add the ids of the symbols of the variables the given values refer to to the given ids.
+     * @param symbols - the given ids.
+     * @param values - the given values.
+     */
+    private static void addSymbols(HashSet<Integer> symbols, ArrayList<Value> values){
+        for (Value value: values){
+            addSymbol(symbols, value);
+        }
+    }
+
+    /**
+     * Add the id of the symbol of the variable the given value refers to, if it refers to one, to the given
+     * ids.
+     * @param symbols - the given ids.
+     * @param value - the given value; null if there is none.
+     */
+    private static void addSymbol(HashSet<Integer> symbols, Value value){
+        Symbol valueSymbol = value == null ? null : value.getValueSymbol();
+        if (valueSymbol != null){
+            symbols.add(valueSymbol.getId());
+        }
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Check the time left in the given budget every so many commands, and stop executing once it is exceeded.
+     * The method bodies which were not verified yet are verified by the next execution.
+     * @param budget - the given budget; null if execution is not limited.
+     */
+    public void setBudget(Budget budget){
+        this.budget = budget;
+    }
+
+    /**
+     * Carry out the changes made to the commands since their last execution, and execute the commands whose
+     * result they may have changed. This method assumes the commands have no syntax error.
+     * @return - 1 if executor encountered a logical error in the commands, or its budget was exceeded; 0
+     * otherwise.
+     */
+    public int execute(){
+        this.failure = null;
+        this.takeChanges();
+        if (this.hasGlobalScopeChanged){
+            this.executeGlobalScope();
+        }
+        if (this.budget != null && this.budget.isExceeded()){
+            return ILLEGAL_CODE;
+        }
+        if (this.globalScopeFailure != null){
+            this.failure = this.globalScopeFailure.movedBy(
+                    this.commands.getFirstLine(this.globalScopeFailedUnit)-1);
+            return ILLEGAL_CODE;
+        }
+        if (!this.verifyPendingMethods()){
+            return ILLEGAL_CODE;
+        }
+        this.failure = this.findFirstMethodFailure();
+        return this.failure == null ? LEGAL_CODE : ILLEGAL_CODE;
+    }
+
+    /**
+     * @return the diagnostic of the error the last execution reported; null if it reported none.
+     */
+    public Diagnostic getFailure(){
+        return this.failure;
+    }
+
+    /**
+     * Take the changes made to the commands: forget the results of the removed units, and add the method bodies
+     * of the added units to those which are pending verification. The global scope commands are executed
+     * again if they may have changed, or if the unit whose global scope commands failed was removed.
+     */
+    private void takeChanges(){
+        for (int unit: this.commands.getRemovedUnits()){
+            this.pendingMethods.remove(unit);
+            this.forgetMethod(unit);
+            if (unit == this.globalScopeFailedUnit){
+                this.hasGlobalScopeChanged = true;
+            }
+        }
+        for (int unit: this.commands.getAddedUnits()){
+            if (this.commands.getMethodCommands(unit).size() > 0){
+                this.pendingMethods.add(unit);
+            }
+        }
+        if (this.commands.hasGlobalScopeChanged()){
+            this.hasGlobalScopeChanged = true;
+        }
+        this.commands.clearChanges();
+    }
+
+    /**
+     * Forget the result of verifying the given unit's method body, and remove it from the users of the symbols
+     * it referred to.
+     * @param unit - the id of the unit.
+     */
+    private void forgetMethod(int unit){
+        this.methodFailures.remove(unit);
+        int[] symbols = this.methodSymbols.remove(unit);
+        if (symbols == null){
+            return;
+        }
+        for (int symbol: symbols){
+            HashSet<Integer> users = this.symbolUsers.get(symbol);
+            users.remove(unit);
+            if (users.isEmpty()){
+                this.symbolUsers.remove(symbol);
+            }
+        }
+    }
+
+    /**
+     * Execute the global scope commands of all the units consecutively, in a new global scope. If they were
+     * executed, the method bodies which refer to a variable or a method whose declaration differs from the one
+     * in the global scope they were last verified against are pending verification again, and the new global
+     * scope replaces it; if they failed, the global scope the method bodies were verified against is kept, to
+     * be compared with the next one. If the budget is exceeded, they are executed again by the next execution.
+     */
+    private void executeGlobalScope(){
+        GlobalScope globalScope = new GlobalScope();
+        Executor executor = new Executor(Collections.emptyList(), null, globalScope);
+        executor.setBudget(this.budget);
+        this.globalScopeFailure = null;
+        this.globalScopeFailedUnit = NO_UNIT;
+        for (int i=0; i<this.commands.getUnitsCount(); i++){
+            int unit = this.commands.getUnitId(i);
+            if (executor.executeCommands(this.commands.getGlobalScopeCommands(unit)) == ILLEGAL_CODE){
+                if (this.budget == null || !this.budget.isExceeded()){
+                    this.globalScopeFailure = executor.getFailure();
+                    this.globalScopeFailedUnit = unit;
+                    this.hasGlobalScopeChanged = false;
+                }
+                return;
+            }
+        }
+        this.hasGlobalScopeChanged = false;
+        GlobalScope frozenScope = globalScope.freeze();
+        if (this.globalScope != null){
+            BitSet changedSymbols = new BitSet();
+            frozenScope.addChangedSymbols(this.globalScope, changedSymbols);
+            for (int symbol=changedSymbols.nextSetBit(0); symbol >= 0; symbol=changedSymbols.nextSetBit(symbol+1)){
+                HashSet<Integer> users = this.symbolUsers.get(symbol);
+                if (users != null){
+                    this.pendingMethods.addAll(users);
+                }
+            }
+        }
+        this.globalScope = frozenScope;
+    }
+
+    /**
+     * Verify the method bodies which are pending verification, until the budget is exceeded.
+     * @return true if all of them were verified; false if the budget was exceeded.
+     */
+    private boolean verifyPendingMethods(){
+        Iterator<Integer> pending = this.pendingMethods.iterator();
+        while (pending.hasNext()){
+            if (!this.verifyMethod(pending.next())){
+                return false;
+            }
+            pending.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Execute the commands of the given unit's method body with a new executor which starts in the frozen
+     * global scope, followed by the end of the code, as a method body which is still open at the file's
+     * last line fails it. Its result and the symbols it refers to replace those of its last verification.
+     * @param unit - the id of the unit.
+     * @return true if the method body was verified; false if the budget was exceeded.
+     */
+    private boolean verifyMethod(int unit){
+        Program program = this.commands.getMethodCommands(unit);
+        Executor executor = new Executor(Collections.singletonList(program), null, this.globalScope);
+        executor.setBudget(this.budget);
+        boolean hasFailed = executor.executeCommands(program) == ILLEGAL_CODE || executor.endCode() == ILLEGAL_CODE;
+        if (this.budget != null && this.budget.isExceeded()){
+            return false;
+        }
+        this.forgetMethod(unit);
+        int[] symbols = findSymbols(program);
+        for (int symbol: symbols){
+            this.symbolUsers.computeIfAbsent(symbol, key -> new HashSet<>()).add(unit);
+        }
+        this.methodSymbols.put(unit, symbols);
+        if (hasFailed){
+            this.methodFailures.put(unit, executor.getFailure());
+        }
+        return true;
+    }
+
+    /**
+     * @return the diagnostic of the error of the first method body which failed, at its line in the file; null
+     * if none of them failed.
+     */
+    private Diagnostic findFirstMethodFailure(){
+        int firstLine = 0;
+        Diagnostic firstFailure = null;
+        for (Map.Entry<Integer, Diagnostic> methodFailure: this.methodFailures.entrySet()){
+            int line = this.commands.getFirstLine(methodFailure.getKey());
+            if (firstFailure == null || line < firstLine){
+                firstLine = line;
+                firstFailure = methodFailure.getValue();
+            }
+        }
+        return firstFailure == null ? null : firstFailure.movedBy(firstLine-1);
+    }
+}
@@ -0,0 +1,226 @@
+package oop.ex6.executer;
+
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.parser.Program;
+import oop.ex6.scopes.GlobalScope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class represents the verification of a range of method scopes against a frozen global scope, as a
+ * fork-join task. A range with many commands is split in two, so the number of tasks adapts to the size of
+ * the methods. Each method scope is executed by its own executor, and the diagnostics of the errors are kept,
+ * unprinted, so that only the error of the first method which failed - the one with the lowest line number -
+ * is reported. The frozen global scope is passed to every task as it is; since the method scopes opened in a
+ * global scope share its table of local variables, each thread opens them in a view of the snapshot of its
+ * own, which the tasks it runs share.
+ */
+class MethodScopesTask extends RecursiveAction {
+
+    /*----=   Constants  =----*/
+
+    private final static int ILLEGAL_CODE = 1;
+    private final static int COMMANDS_PER_TASK = 1024;
+    private final static int MIN_SPEEDUP = 2;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Program program;
+    private final int[] methodBounds;
+    private final GlobalScope globalScope;
+    private final ConcurrentHashMap<Thread, GlobalScope> threadScopes;
+    private final Budget budget;
+    private final int firstMethod;
+    private final int lastMethod;
+    private final AtomicInteger firstFailedMethod;
+    private final Diagnostic[] failures;
+
+    /*----=   Constructors  =----*/
+
+    /**
+     * A constructor for a task which verifies all of the given method scopes.
+     * @param program - the program of the s-java file.
+     * @param methodBounds - the indexes at which the method scopes begin, followed by the program's end.
+     * @param globalScope - the frozen global scope.
+     * @param budget - the budget of the verification; null if it is not limited.
+     */
+    MethodScopesTask(Program program, int[] methodBounds, GlobalScope globalScope, Budget budget){
+        this.program = program;
+        this.methodBounds = methodBounds;
+        this.globalScope = globalScope;
+        this.threadScopes = new ConcurrentHashMap<>();
+        this.budget = budget;
+        this.firstMethod = 0;
+        this.lastMethod = methodBounds.length-1;
+        this.firstFailedMethod = new AtomicInteger(this.lastMethod);
+        this.failures = new Diagnostic[this.lastMethod];
+    }
+
+    /**
+     * A constructor for a task which verifies a part of its parent's method scopes.
+     * @param parent - the parent task.
+     * @param firstMethod - the index of the first method scope to verify.
+     * @param lastMethod - the index after the last method scope to verify.
+     */
+    private MethodScopesTask(MethodScopesTask parent, int firstMethod, int lastMethod){
+        this.program = parent.program;
+        this.methodBounds = parent.methodBounds;
+        this.globalScope = parent.globalScope;
+        this.threadScopes = parent.threadScopes;
+        this.budget = parent.budget;
+        this.firstMethod = firstMethod;
+        this.lastMethod = lastMethod;
+        this.firstFailedMethod = parent.firstFailedMethod;
+        this.failures = parent.failures;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Find the method scopes in the given program, if verifying them in parallel is expected to pay for the
+     * cost of forking: the speedup is bounded by the number of threads, and by the number of times the largest
+     * method scope - or the commands of a single task, if it is smaller - fits in the method scopes' commands,
+     * as a method scope is never split. A small file, or one whose commands are mostly in a single method, is
+     * verified consecutively, as is every file when only a single thread would verify it.
+     * @param program - the program of an s-java file, global scope commands first.
+     * @return the indexes at which the method scopes begin, followed by the program's end; null if there are
+     * no method scopes, if they are not a sequence of complete method scopes, or if verifying them in parallel
+     * is not expected to be at least twice as fast.
+     */
+    static int[] findParallelMethodBounds(Program program){
+        int parallelism = getParallelism();
+        if (parallelism < MIN_SPEEDUP || program.getEnd()-program.getStart() < MIN_SPEEDUP*COMMANDS_PER_TASK){
+            return null;
+        }
+        int[] methodBounds = findMethodBounds(program);
+        if (methodBounds == null){
+            return null;
+        }
+        int largestMethod = COMMANDS_PER_TASK;
+        for (int method=0; method<methodBounds.length-1; method++){
+            largestMethod = Math.max(largestMethod, methodBounds[method+1]-methodBounds[method]);
+        }
+        int commands = program.getEnd()-methodBounds[0];
+        return Math.min(parallelism, commands/largestMethod) >= MIN_SPEEDUP ? methodBounds : null;
+    }
+
+    /**
+     * @return the number of threads which would verify method scopes in parallel: those of the fork-join pool
+     * the current thread runs in, or else those of the common pool along with the current thread, which takes
+     * part in the task it invokes - but no more than the number of processors.
+     */
+    private static int getParallelism(){
+        int parallelism = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism() :
+                ForkJoinPool.getCommonPoolParallelism()+1;
+        return Math.min(parallelism, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Find the method scopes in the given program.
+     * @param program - the program of an s-java file, global scope commands first.
+     * @return the indexes at which the method scopes begin, followed by the program's end; null if there are
+     * no method scopes, or if the commands after the global scope commands are not a sequence of complete
+     * method scopes.
+     */
+    static int[] findMethodBounds(Program program){
+        int localStart = program.getStart();
+        while (localStart < program.getEnd() && program.getOpcode(localStart) != Program.OPEN_METHOD_SCOPE){
+            localStart++;
+        }
+        if (localStart == program.getEnd()){
+            return null;
+        }
+        ArrayList<Integer> bounds = new ArrayList<>();
+        int depth = 0;
+        for (int i=localStart; i<program.getEnd(); i++){
+            int opcode = program.getOpcode(i);
+            if (depth == 0){
+                if (opcode != Program.OPEN_METHOD_SCOPE){
+                    return null;
+                }
+                bounds.add(i);
+            }
+            if (opcode == Program.OPEN_METHOD_SCOPE || opcode == Program.OPEN_IF_WHILE_SCOPE){
+                depth++;
+            }
+            else if (opcode == Program.CLOSE_SCOPE){
+                depth--;
+            }
+        }
+        if (depth != 0){
+            return null;
+        }
+        bounds.add(program.getEnd());
+        int[] methodBounds = new int[bounds.size()];
+        for (int i=0; i<methodBounds.length; i++){
+            methodBounds[i] = bounds.get(i);
+        }
+        return methodBounds;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Verify this task's method scopes, splitting them between two sub-tasks if they have many commands.
+     * Method scopes which come after a method scope that has already failed are skipped, as are all of them
+     * once the budget is exceeded. The commands of a task which is not split are recorded by the flight
+     * recorder as those of a single executor. A task which is not split opens its method scopes in its
+     * thread's view of the frozen global scope, which is not used by another task while it runs, as a task
+     * which is not split does not wait for other tasks.
+     */
+    protected void compute(){
+        int size = this.methodBounds[this.lastMethod]-this.methodBounds[this.firstMethod];
+        if (size > COMMANDS_PER_TASK && this.lastMethod-this.firstMethod > 1){
+            int middle = (this.firstMethod+this.lastMethod) >>> 1;
+            invokeAll(new MethodScopesTask(this, this.firstMethod, middle),
+                    new MethodScopesTask(this, middle, this.lastMethod));
+            return;
+        }
+        GlobalScope globalScope = this.threadScopes.computeIfAbsent(Thread.currentThread(),
+                thread -> this.globalScope.freeze());
+        ExecutionRecorder recorder = ExecutionRecorder.begin();
+        for (int method=this.firstMethod; method<this.lastMethod; method++){
+            if (method > this.firstFailedMethod.get() || this.budget != null && this.budget.isExceeded()){
+                break;
+            }
+            this.verifyMethod(method, globalScope, recorder);
+        }
+        if (recorder != null){
+            recorder.commit();
+        }
+    }
+
+    /**
+     * Execute the commands of the given method scope with a new executor which starts in the given frozen
+     * global scope, and keep the diagnostic of its error if it failed.
+     * @param method - the index of the method scope.
+     * @param globalScope - this thread's view of the frozen global scope.
+     * @param recorder - the recorder of this task's commands; null if they are not recorded.
+     */
+    private void verifyMethod(int method, GlobalScope globalScope, ExecutionRecorder recorder){
+        Program methodProgram = this.program.slice(this.methodBounds[method], this.methodBounds[method+1]);
+        Executor executor = new Executor(Collections.singletonList(methodProgram), null, globalScope);
+        executor.setRecorder(recorder);
+        executor.setBudget(this.budget);
+        if (executor.executeCommands(methodProgram) == ILLEGAL_CODE){
+            this.failures[method] = executor.getFailure();
+            this.firstFailedMethod.accumulateAndGet(method, Math::min);
+        }
+    }
+
+    /**
+     * This method assumes the task has completed.
+     * @return the diagnostic of the first method scope which failed; null if all of them were verified.
+     */
+    Diagnostic getFirstFailure(){
+        int method = this.firstFailedMethod.get();
+        return method < this.failures.length ? this.failures[method] : null;
+    }
+}
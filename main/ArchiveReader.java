@@ -0,0 +1,435 @@
+package oop.ex6.main;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * This class represents a reader of the files in a zip, jar or tar archive, which may be compressed with gzip.
+ * The archive is read as a single stream, from its beginning to its end, and decompressed as it is read: each
+ * file's contents are read into memory when the reader reaches it, so no file is ever extracted to disk.
+ * A tar archive is read in the ustar format, with the long names of the GNU and pax formats.
+ */
+class ArchiveReader implements Closeable {
+
+    /*----=   Constants  =----*/
+
+    private final static String[] ZIP_SUFFIXES = {".zip", ".jar"};
+    private final static String[] TAR_SUFFIXES = {".tar"};
+    private final static String[] GZIP_TAR_SUFFIXES = {".tar.gz", ".tgz"};
+    private final static int INITIAL_ENTRY_CAPACITY = 8192;
+    private final static int MAX_ENTRY_SIZE = Integer.MAX_VALUE-16;
+    private final static int MAX_HEADER_DATA_SIZE = 1 << 20;
+
+    // The signatures a zip archive may begin with: of a file's header, or of the end of an empty archive.
+    private final static int ZIP_SIGNATURE_LENGTH = 4;
+    private final static byte[] ZIP_FILE_SIGNATURE = {'P', 'K', 3, 4};
+    private final static byte[] ZIP_END_SIGNATURE = {'P', 'K', 5, 6};
+
+    // The layout of a tar header block.
+    private final static int BLOCK_SIZE = 512;
+    private final static int NAME_OFFSET = 0;
+    private final static int NAME_LENGTH = 100;
+    private final static int SIZE_OFFSET = 124;
+    private final static int SIZE_LENGTH = 12;
+    private final static int TYPE_OFFSET = 156;
+    private final static int MAGIC_OFFSET = 257;
+    private final static int PREFIX_OFFSET = 345;
+    private final static int PREFIX_LENGTH = 155;
+    private final static String USTAR_MAGIC = "ustar";
+    private final static int BINARY_SIZE_FLAG = 0x80;
+    private final static int OCTAL_RADIX = 8;
+
+    // The types of tar entries.
+    private final static byte OLD_FILE_TYPE = 0;
+    private final static byte FILE_TYPE = '0';
+    private final static byte CONTIGUOUS_FILE_TYPE = '7';
+    private final static byte LONG_NAME_TYPE = 'L';
+    private final static byte EXTENDED_HEADER_TYPE = 'x';
+
+    private final static String PATH_SEPARATOR = "/";
+    private final static String PATH_RECORD_KEY = "path=";
+    private final static char RECORD_END = '\n';
+    private final static char LENGTH_END = ' ';
+
+    // Formats for IO messages that are generated by this class.
+    private final static String ENTRY_TOO_LARGE = "IO exception: archive entry too large ";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final InputStream input;
+    private final ZipInputStream zipInput;
+    private String entryName;
+    private long entrySize;
+    private long remaining;
+    private long padding;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which opens the given archive.
+     * @param fileName - the path of the archive, which is an archive according to isArchive().
+     * @throws IOException - if the archive could not be opened.
+     */
+    ArchiveReader(String fileName) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(Paths.get(fileName)));
+        try {
+            if (endsWith(fileName, ZIP_SUFFIXES)){
+                verifyZipSignature(input);
+                this.zipInput = new ZipInputStream(input);
+                this.input = this.zipInput;
+            }
+            else {
+                this.zipInput = null;
+                this.input = endsWith(fileName, GZIP_TAR_SUFFIXES) ? new GZIPInputStream(input) : input;
+            }
+        }
+        catch (IOException e){
+            input.close();
+            throw e;
+        }
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @param fileName - the path of a file.
+     * @return true if the file is a zip, jar or tar archive, by its suffix; false otherwise.
+     */
+    static boolean isArchive(String fileName){
+        return endsWith(fileName, ZIP_SUFFIXES) || endsWith(fileName, TAR_SUFFIXES) ||
+                endsWith(fileName, GZIP_TAR_SUFFIXES);
+    }
+
+    /**
+     * Verify that the given stream begins as a zip archive does, as a zip input stream would read any other
+     * stream as an empty archive.
+     * @param input - the given stream, which supports marks.
+     * @throws IOException - if the stream could not be read, or does not begin with a zip signature.
+     */
+    private static void verifyZipSignature(InputStream input) throws IOException {
+        byte[] signature = new byte[ZIP_SIGNATURE_LENGTH];
+        input.mark(ZIP_SIGNATURE_LENGTH);
+        int size = 0;
+        int read;
+        while (size < signature.length && (read = input.read(signature, size, signature.length-size)) > 0){
+            size += read;
+        }
+        input.reset();
+        if (!Arrays.equals(signature, ZIP_FILE_SIGNATURE) && !Arrays.equals(signature, ZIP_END_SIGNATURE)){
+            throw new IOException();
+        }
+    }
+
+    /**
+     * @param fileName - the path of a file.
+     * @param suffixes - the given suffixes.
+     * @return true if the path ends with one of the given suffixes, ignoring case; false otherwise.
+     */
+    private static boolean endsWith(String fileName, String[] suffixes){
+        for (String suffix: suffixes){
+            if (fileName.regionMatches(true, fileName.length()-suffix.length(), suffix, 0, suffix.length())){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*----=   Instance Methods: 1. Entries  =----*/
+
+    /**
+     * Move on to the next file in the archive, skipping the rest of the current one, and directories, links
+     * and other entries which are not files.
+     * @return true if there is a next file; false if the end of the archive has been reached.
+     * @throws IOException - if the archive could not be read, or is malformed.
+     */
+    boolean nextEntry() throws IOException {
+        if (this.zipInput != null){
+            ZipEntry entry;
+            while ((entry = this.zipInput.getNextEntry()) != null){
+                if (!entry.isDirectory()){
+                    this.entryName = entry.getName();
+                    return true;
+                }
+            }
+            return false;
+        }
+        this.skip(this.remaining+this.padding);
+        String longName = null;
+        byte[] header = new byte[BLOCK_SIZE];
+        while (this.readBlock(header)){
+            long size = getSize(header);
+            this.remaining = size;
+            this.padding = (BLOCK_SIZE-size%BLOCK_SIZE)%BLOCK_SIZE;
+            byte type = header[TYPE_OFFSET];
+            if (type == LONG_NAME_TYPE){
+                longName = getString(this.readData(), 0, (int) size);
+            }
+            else if (type == EXTENDED_HEADER_TYPE){
+                String path = getPath(this.readData());
+                longName = path == null ? longName : path;
+            }
+            else if (type == FILE_TYPE || type == OLD_FILE_TYPE || type == CONTIGUOUS_FILE_TYPE){
+                this.entryName = longName == null ? getName(header) : longName;
+                return true;
+            }
+            else {
+                this.skip(this.remaining+this.padding);
+                longName = null;
+            }
+        }
+        this.remaining = 0;
+        this.padding = 0;
+        return false;
+    }
+
+    /**
+     * @return the name of the current file, its path inside the archive.
+     */
+    String getEntryName(){
+        return this.entryName;
+    }
+
+    /**
+     * This method assumes the current file was read with readEntry().
+     * @return the size of the current file, in bytes.
+     */
+    long getEntrySize(){
+        return this.entrySize;
+    }
+
+    /**
+     * Read the contents of the current file into memory. A file which is larger than the given size is not
+     * kept: its contents are skipped, and only counted.
+     * @param maxSize - the given size, in bytes.
+     * @return the contents of the current file; null if it is larger than the given size.
+     * @throws IOException - if the archive could not be read, or the file is too large to be held in memory.
+     */
+    ByteBuffer readEntry(long maxSize) throws IOException {
+        int limit = (int) Math.min(maxSize, MAX_ENTRY_SIZE);
+        byte[] contents = new byte[Math.min(INITIAL_ENTRY_CAPACITY, limit+1)];
+        int size = 0;
+        int read;
+        while ((read = this.read(contents, size, contents.length-size)) > 0){
+            size += read;
+            if (size > limit){
+                this.entrySize = size+this.skip(Long.MAX_VALUE);
+                if (limit < maxSize){
+                    throw new IOException(ENTRY_TOO_LARGE+this.entryName);
+                }
+                return null;
+            }
+            if (size == contents.length){
+                contents = Arrays.copyOf(contents, (int) Math.min((long) size*2, limit+1));
+            }
+        }
+        this.entrySize = size;
+        return ByteBuffer.wrap(contents, 0, size);
+    }
+
+    /**
+     * Close the archive.
+     * @throws IOException - if the archive could not be closed.
+     */
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    /*----=   Instance Methods: 2. Reading  =----*/
+
+    /**
+     * Read bytes of the current file.
+     * @param bytes - the array to read into.
+     * @param offset - the index of the first byte to read into.
+     * @param length - the maximal number of bytes to read, which is positive.
+     * @return the number of bytes read; -1 if the current file has ended.
+     * @throws IOException - if the archive could not be read, or ended in the middle of the file.
+     */
+    private int read(byte[] bytes, int offset, int length) throws IOException {
+        if (this.zipInput != null){
+            return this.zipInput.read(bytes, offset, length);
+        }
+        if (this.remaining == 0){
+            return -1;
+        }
+        int read = this.input.read(bytes, offset, (int) Math.min(length, this.remaining));
+        if (read < 0){
+            throw new EOFException();
+        }
+        this.remaining -= read;
+        return read;
+    }
+
+    /**
+     * Skip up to the given number of bytes of the current file, or of a tar archive's padding.
+     * @param count - the given number.
+     * @return the number of bytes of the current file skipped.
+     * @throws IOException - if the archive could not be read, or ended too soon.
+     */
+    private long skip(long count) throws IOException {
+        byte[] buffer = new byte[INITIAL_ENTRY_CAPACITY];
+        long skipped = 0;
+        if (this.zipInput != null){
+            int read;
+            while (skipped < count && (read = this.zipInput.read(buffer, 0, buffer.length)) > 0){
+                skipped += read;
+            }
+            return skipped;
+        }
+        long fileBytes = Math.min(count, this.remaining);
+        long total = Math.min(count, this.remaining+this.padding);
+        while (skipped < total){
+            int read = this.input.read(buffer, 0, (int) Math.min(buffer.length, total-skipped));
+            if (read < 0){
+                throw new EOFException();
+            }
+            skipped += read;
+        }
+        this.remaining -= fileBytes;
+        this.padding -= total-fileBytes;
+        return fileBytes;
+    }
+
+    /**
+     * Read the next block of a tar archive.
+     * @param block - the array to read the block into.
+     * @return true if a block was read; false if the archive has ended, at its end-of-archive block or at the
+     * end of its stream.
+     * @throws IOException - if the archive could not be read, or ended in the middle of a block.
+     */
+    private boolean readBlock(byte[] block) throws IOException {
+        int size = 0;
+        while (size < block.length){
+            int read = this.input.read(block, size, block.length-size);
+            if (read < 0){
+                if (size == 0){
+                    return false;
+                }
+                throw new EOFException();
+            }
+            size += read;
+        }
+        for (byte b: block){
+            if (b != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the data of the current tar entry, such as a long name, and the padding after it.
+     * @return the data.
+     * @throws IOException - if the archive could not be read, or the data is too large.
+     */
+    private byte[] readData() throws IOException {
+        if (this.remaining > MAX_HEADER_DATA_SIZE){
+            throw new IOException(ENTRY_TOO_LARGE+this.entryName);
+        }
+        byte[] data = new byte[(int) this.remaining];
+        int size = 0;
+        while (size < data.length){
+            size += this.read(data, size, data.length-size);
+        }
+        this.skip(this.padding);
+        return data;
+    }
+
+    /*----=   Static Methods: Tar Headers  =----*/
+
+    /**
+     * @param header - a tar header block.
+     * @return the size of the entry's data, in octal or in the binary encoding of large sizes.
+     * @throws IOException - if the size is malformed.
+     */
+    private static long getSize(byte[] header) throws IOException {
+        long size = 0;
+        if ((header[SIZE_OFFSET] & BINARY_SIZE_FLAG) != 0){
+            for (int i=SIZE_OFFSET+1; i<SIZE_OFFSET+SIZE_LENGTH; i++){
+                size = (size << Byte.SIZE) | (header[i] & 0xff);
+            }
+        }
+        else {
+            String octal = getString(header, SIZE_OFFSET, SIZE_LENGTH).trim();
+            try {
+                size = octal.isEmpty() ? 0 : Long.parseLong(octal, OCTAL_RADIX);
+            }
+            catch (NumberFormatException e){
+                throw new IOException(e);
+            }
+        }
+        if (size < 0){
+            throw new IOException();
+        }
+        return size;
+    }
+
+    /**
+     * @param header - a tar header block.
+     * @return the entry's name, with its ustar prefix.
+     */
+    private static String getName(byte[] header){
+        String name = getString(header, NAME_OFFSET, NAME_LENGTH);
+        if (!getString(header, MAGIC_OFFSET, USTAR_MAGIC.length()).equals(USTAR_MAGIC)){
+            return name;
+        }
+        String prefix = getString(header, PREFIX_OFFSET, PREFIX_LENGTH);
+        return prefix.isEmpty() ? name : prefix+PATH_SEPARATOR+name;
+    }
+
+    /**
+     * @param data - the data of a pax extended header: records of the form "length key=value\n".
+     * @return the value of its path record; null if it has none.
+     * @throws IOException - if the data is malformed.
+     */
+    private static String getPath(byte[] data) throws IOException {
+        String path = null;
+        int offset = 0;
+        while (offset < data.length){
+            int lengthEnd = offset;
+            while (lengthEnd < data.length && data[lengthEnd] != LENGTH_END){
+                lengthEnd++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(data, offset, lengthEnd-offset, StandardCharsets.UTF_8));
+            }
+            catch (NumberFormatException e){
+                throw new IOException(e);
+            }
+            if (length <= lengthEnd-offset || offset+length > data.length || data[offset+length-1] != RECORD_END){
+                throw new IOException();
+            }
+            String record = new String(data, lengthEnd+1, offset+length-lengthEnd-2, StandardCharsets.UTF_8);
+            if (record.startsWith(PATH_RECORD_KEY)){
+                path = record.substring(PATH_RECORD_KEY.length());
+            }
+            offset += length;
+        }
+        return path;
+    }
+
+    /**
+     * @param bytes - the given bytes.
+     * @param offset - the index of the first byte of a field.
+     * @param length - the length of the field.
+     * @return the field's text, in UTF-8, up to its first NUL byte.
+     */
+    private static String getString(byte[] bytes, int offset, int length){
+        int end = offset;
+        while (end < offset+length && bytes[end] != 0){
+            end++;
+        }
+        return new String(bytes, offset, end-offset, StandardCharsets.UTF_8);
+    }
+}
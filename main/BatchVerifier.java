@@ -0,0 +1,249 @@
+package oop.ex6.main;
+
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class represents a verifier of many s-java files in a single run.
+ * The files are verified in parallel on a work-stealing pool, largest files first, and their results are
+ * printed in the order in which they were given. The s-java files in an archive are verified as the archive
+ * is read, while the files after them are still being decompressed, and their results are printed in the
+ * order of the archive.
+ */
+class BatchVerifier {
+
+    /*----=   Constants  =----*/
+
+    private final static int IO_EXCEPTION = 2;
+    private final static int LEGAL_CODE = 0;
+    private final static String LIST_FILE_PREFIX = "@";
+    private final static String SOURCE_FILE_SUFFIX = ".sjava";
+    private final static String RESULT_SEPARATOR = " ";
+    private final static String MESSAGE_SEPARATOR = ": ";
+    private final static String ENTRY_SEPARATOR = "!/";
+    private final static int PENDING_ENTRIES_PER_THREAD = 4;
+
+    // Formats for IO messages that are generated by this class.
+    private final static String BAD_LIST_FILE = "IO exception: bad list file ";
+    private final static String BAD_DIRECTORY = "IO exception: bad directory ";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Options options;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the command line options, whose paths are paths of s-java files,
+     * directories, and list files.
+     * @param options - the given options.
+     */
+    BatchVerifier(Options options){
+        this.options = options;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @param args - the command line arguments.
+     * @return true if the arguments refer to more than a single s-java file; false otherwise.
+     */
+    static boolean isBatch(String[] args){
+        if (args.length > 1){
+            return true;
+        }
+        return args.length == 1 && (args[0].startsWith(LIST_FILE_PREFIX) || ArchiveReader.isArchive(args[0]) ||
+                Files.isDirectory(Paths.get(args[0])));
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Verify every s-java file the arguments refer to, and print each file's path and result to the given
+     * output stream, and its informative messages to the given error stream: as text, after the file's path,
+     * or with the given writer.
+     * @param outputStream - the stream to print results to.
+     * @param errorStream - the stream to print informative messages to.
+     * @param writer - the writer of a machine-readable format; null if messages are printed as text.
+     * @return the highest result of all the files.
+     */
+    int run(PrintStream outputStream, PrintStream errorStream, DiagnosticWriter writer){
+        int combinedResult = LEGAL_CODE;
+        ArrayList<String> fileNames = new ArrayList<>();
+        for (String arg: this.options.getPaths()){
+            try {
+                this.expand(arg, fileNames);
+            }
+            catch (IOException e){
+                Sjavac.reportError(e.getMessage(), errorStream, writer);
+                combinedResult = IO_EXCEPTION;
+            }
+        }
+
+        ResultCache cache = ResultCache.open(this.options, errorStream, writer);
+        ArrayList<VerificationTask> fileTasks = new ArrayList<>();
+        ArrayList<List<VerificationTask>> tasks = new ArrayList<>();
+        for (String fileName: fileNames){
+            if (ArchiveReader.isArchive(fileName)){
+                tasks.add(new ArrayList<>());
+            }
+            else {
+                VerificationTask task = new VerificationTask(fileName, this.options, cache);
+                fileTasks.add(task);
+                tasks.add(Collections.singletonList(task));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            this.verifyAll(fileTasks, pool);
+            for (int i=0; i<fileNames.size(); i++){
+                if (!ArchiveReader.isArchive(fileNames.get(i))){
+                    continue;
+                }
+                try {
+                    this.verifyArchive(fileNames.get(i), tasks.get(i), pool, cache);
+                }
+                catch (IOException e){
+                    VerificationTask failure = new VerificationTask(fileNames.get(i),
+                            DiagnosticCode.ARCHIVE_CONTENTS, this.options);
+                    tasks.get(i).add(failure);
+                    pool.execute(failure);
+                }
+            }
+            for (List<VerificationTask> group: tasks){
+                for (VerificationTask task: group){
+                    task.join();
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        if (cache != null){
+            cache.close();
+        }
+
+        for (List<VerificationTask> group: tasks){
+            for (VerificationTask task: group){
+                if (writer != null){
+                    Sjavac.report(task.getFileName(), task.getDiagnostics(), errorStream, writer);
+                }
+                else if (!task.getDiagnostics().isEmpty()){
+                    errorStream.print(task.getFileName()+MESSAGE_SEPARATOR);
+                    Sjavac.report(task.getFileName(), task.getDiagnostics(), errorStream, null);
+                }
+                outputStream.println(task.getFileName()+RESULT_SEPARATOR+task.getResult());
+                combinedResult = Math.max(combinedResult, task.getResult());
+            }
+        }
+        return combinedResult;
+    }
+
+    /**
+     * Run the given tasks on the given work-stealing pool, largest files first so that the pool does not idle
+     * while a single large file is verified at the end.
+     * @param tasks - the given tasks.
+     * @param pool - the given pool.
+     */
+    private void verifyAll(List<VerificationTask> tasks, ForkJoinPool pool){
+        List<VerificationTask> schedule = new ArrayList<>(tasks);
+        schedule.sort(Comparator.comparingLong(VerificationTask::getSize).reversed());
+        for (VerificationTask task: schedule){
+            pool.execute(task);
+        }
+    }
+
+    /**
+     * Read the given archive, and run a task on the given pool for each s-java file in it, as soon as the file
+     * has been read, so the files are verified while the archive is still being decompressed. Only a few
+     * files for each of the pool's threads are read ahead of their verification, so the memory used does not
+     * grow with the archive. The contents of a file larger than the size budget are skipped, and its task
+     * reports that the budget was exceeded.
+     * @param fileName - the path of the archive.
+     * @param tasks - the list to add the archive's tasks to, in the order of the archive.
+     * @param pool - the given pool.
+     * @param cache - the cache of results to look the files up in; null if results are not cached.
+     * @throws IOException - if the archive could not be read, or is malformed; the tasks of the files read
+     * before the error are kept, and the archive's failure is reported after them.
+     */
+    private void verifyArchive(String fileName, List<VerificationTask> tasks, ForkJoinPool pool,
+                               ResultCache cache) throws IOException {
+        long maxSize = Sjavac.getMaxSize(this.options);
+        ArrayDeque<VerificationTask> pending = new ArrayDeque<>();
+        try (ArchiveReader reader = new ArchiveReader(fileName)){
+            while (reader.nextEntry()){
+                if (!reader.getEntryName().endsWith(SOURCE_FILE_SUFFIX)){
+                    continue;
+                }
+                ByteBuffer contents = reader.readEntry(maxSize);
+                VerificationTask task = new VerificationTask(fileName+ENTRY_SEPARATOR+reader.getEntryName(),
+                        contents == null ? ByteBuffer.allocate(0) : contents, reader.getEntrySize(),
+                        this.options, cache);
+                tasks.add(task);
+                pool.execute(task);
+                pending.add(task);
+                if (pending.size() > pool.getParallelism()*PENDING_ENTRIES_PER_THREAD){
+                    pending.remove().join();
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the paths of the s-java files the given argument refers to. A list file lists one argument in each
+     * line; a directory refers to each s-java file under it, in sorted order.
+     * @param arg - the given argument.
+     * @param fileNames - the list of paths to add to.
+     * @throws IOException - if a list file or directory could not be read.
+     */
+    private void expand(String arg, List<String> fileNames) throws IOException {
+        if (arg.startsWith(LIST_FILE_PREFIX)){
+            String listFileName = arg.substring(LIST_FILE_PREFIX.length());
+            List<String> lines;
+            try {
+                lines = Files.readAllLines(Paths.get(listFileName), Charset.defaultCharset());
+            }
+            catch (IOException e){
+                throw new IOException(BAD_LIST_FILE+listFileName, e);
+            }
+            for (String line: lines){
+                if (!line.trim().isEmpty()){
+                    this.expand(line.trim(), fileNames);
+                }
+            }
+            return;
+        }
+        Path path = Paths.get(arg);
+        if (!Files.isDirectory(path)){
+            fileNames.add(arg);
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)){
+            fileNames.addAll(paths
+                    .filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(fileName -> fileName.endsWith(SOURCE_FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        catch (IOException e){
+            throw new IOException(BAD_DIRECTORY+arg, e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package oop.ex6.main;
+
+/**
+ * This class signals that the command line arguments contain an illegal option.
+ */
+public class OptionException extends Exception {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final String detail_message;
+    private final static String detail_message_header = "IO exception: ";
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives a detail message.
+     * @param message - the given detail message.
+     */
+    public OptionException(String message){
+        this.detail_message = message+"\n";
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return this exception's header and detail messages.
+     */
+    public String getMessage(){
+        return detail_message_header+this.detail_message;
+    }
+}
@@ -0,0 +1,150 @@
+package oop.ex6.main;
+
+import oop.ex6.diagnostics.DiagnosticWriter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class represents the command line arguments of the verifier: options, which are prefixed with '--'
+ * and may have a value after an '=' sign, followed by the paths to verify.
+ */
+class Options {
+
+    /*----=   Constants  =----*/
+
+    // Names of the legal options.
+    static final String SERVER = "server";
+    static final String PIPELINE = "pipeline";
+    static final String CACHE = "cache";
+    static final String ALL_ERRORS = "all-errors";
+    static final String FORMAT = "format";
+    static final String BOUNDED_MEMORY = "bounded-memory";
+    static final String PROFILE = "profile";
+    static final String MAX_SIZE = "max-size";
+    static final String TIME_LIMIT = "time-limit";
+    static final String LAZY = "lazy";
+
+    private static final List<String> OPTIONS = Arrays.asList(SERVER, PIPELINE, CACHE, ALL_ERRORS, FORMAT,
+            BOUNDED_MEMORY, PROFILE, MAX_SIZE, TIME_LIMIT, LAZY);
+
+    // Names of the options whose value, if given, is a positive number.
+    private static final List<String> NUMBER_OPTIONS = Arrays.asList(ALL_ERRORS, PROFILE, MAX_SIZE, TIME_LIMIT);
+
+    // Names of the formats of informative messages.
+    static final String TEXT_FORMAT = "text";
+    private static final List<String> FORMATS =
+            Arrays.asList(TEXT_FORMAT, DiagnosticWriter.JSON_LINES, DiagnosticWriter.SARIF);
+
+    private static final String OPTION_PREFIX = "--";
+    private static final String VALUE_SEPARATOR = "=";
+
+    // Formats for option exceptions that are generated by this class.
+    private static final String UNKNOWN_OPTION = "unknown option ";
+    private static final String BAD_NUMBER = "positive number expected in option ";
+    private static final String UNKNOWN_FORMAT = "unknown format in option ";
+    private static final String TEXT_ONLY = "option may only be given with the text format: ";
+    private static final String SINGLE_FILE_ONLY = "option may only be given with a single s-java file: ";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final HashMap<String, String> values;
+    private final String[] paths;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the command line arguments. Options are only recognized before the first
+     * path.
+     * @param args - the given arguments.
+     * @throws OptionException - if an option is not one of the legal options; if the value of a number option
+     * is not a positive number; if the format option's value is not one of the legal formats; or if the
+     * profile option is given with a machine-readable format, or with paths which refer to more than a single
+     * s-java file.
+     */
+    Options(String[] args) throws OptionException {
+        this.values = new HashMap<>();
+        int index = 0;
+        while (index < args.length && args[index].startsWith(OPTION_PREFIX)){
+            String option = args[index].substring(OPTION_PREFIX.length());
+            String value = "";
+            int separator = option.indexOf(VALUE_SEPARATOR);
+            if (separator != -1){
+                value = option.substring(separator+VALUE_SEPARATOR.length());
+                option = option.substring(0, separator);
+            }
+            if (!OPTIONS.contains(option)){
+                throw new OptionException(UNKNOWN_OPTION+args[index]);
+            }
+            if (NUMBER_OPTIONS.contains(option) && !value.isEmpty() && !isPositiveNumber(value)){
+                throw new OptionException(BAD_NUMBER+args[index]);
+            }
+            if (option.equals(FORMAT) && !FORMATS.contains(value)){
+                throw new OptionException(UNKNOWN_FORMAT+args[index]);
+            }
+            this.values.put(option, value);
+            index++;
+        }
+        if (this.has(PROFILE) && !this.get(FORMAT, TEXT_FORMAT).equals(TEXT_FORMAT)){
+            throw new OptionException(TEXT_ONLY+OPTION_PREFIX+PROFILE);
+        }
+        this.paths = Arrays.copyOfRange(args, index, args.length);
+        if (this.has(PROFILE) && BatchVerifier.isBatch(this.paths)){
+            throw new OptionException(SINGLE_FILE_ONLY+OPTION_PREFIX+PROFILE);
+        }
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * @param value - the given value.
+     * @return true if the given value is a positive decimal number of an int; false otherwise.
+     */
+    private static boolean isPositiveNumber(String value){
+        try {
+            return Integer.parseInt(value) > 0;
+        }
+        catch (NumberFormatException e){
+            return false;
+        }
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @param option - the option's name.
+     * @return true if the given option was given; false otherwise.
+     */
+    boolean has(String option){
+        return this.values.containsKey(option);
+    }
+
+    /**
+     * @param option - the option's name.
+     * @param defaultValue - the value to return if the option was not given, or was given without a value.
+     * @return the value of the given option.
+     */
+    String get(String option, String defaultValue){
+        String value = this.values.get(option);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    /**
+     * This method assumes the option is a number option.
+     * @param option - the option's name.
+     * @param defaultValue - the value to return if the option was not given, or was given without a value.
+     * @return the value of the given option, as a number.
+     */
+    int getNumber(String option, int defaultValue){
+        String value = this.values.get(option);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * @return the paths given after the options.
+     */
+    String[] getPaths(){
+        return this.paths;
+    }
+}
@@ -0,0 +1,648 @@
+package oop.ex6.main;
+
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticList;
+import oop.ex6.diagnostics.DiagnosticWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+
+/**
+ * This class represents an on-disk cache of verification results, keyed by a hash of the verified file's
+ * contents and of the verifier's version.
+ * The cache is a single append-only log: each record holds a key, the time it was last used, a result and
+ * the diagnostics found with it, which are encoded by their codes and arguments rather than as text, so a
+ * cached result can be printed in any format. Using a cached result appends a record which only updates that
+ * time, so the log is never written in place. When the log passes its size limit, it is rewritten with the
+ * most recently used results only. The log may be shared by several processes: each record is appended, and
+ * the log is rewritten, while the log is locked, and the log is rewritten with the records other processes
+ * appended since it was read as well. A process whose log was replaced by another's rewrite opens it again
+ * before appending to it, so no record is appended to a log which is no longer the cache's.
+ */
+class ResultCache implements Closeable {
+
+    /*----=   Constants  =----*/
+
+    // The version of the verifier's results: it must change whenever a file's result or messages may change.
+    private final static String VERIFIER_VERSION = "sjavac-4";
+
+    private final static String LOG_FILE_NAME = "results";
+    private final static String COMPACTED_FILE_SUFFIX = ".tmp";
+    private final static String DIGEST_ALGORITHM = "SHA-256";
+    private final static int MAGIC = 0x534a4331;
+    private final static int HEADER_SIZE = 4;
+    private final static int KEY_SIZE = 32;
+    private final static int RECORD_HEADER_SIZE = KEY_SIZE+8+4+4;
+    private final static int USED_RECORD = -1;
+    private final static long SIZE_LIMIT = 64L << 20;
+    private final static int BUDGET_EXCEEDED = 3;
+    private final static int IO_EXCEPTION = 2;
+    private final static String DEFAULT_DIRECTORY = ".sjavac-cache";
+
+    // Formats for IO exceptions that are generated by this class.
+    private final static String BAD_CACHE = "IO exception: bad cache directory ";
+
+    /*----=   Nested Classes  =----*/
+
+    /**
+     * This class represents a cached verification result.
+     */
+    private static class Entry {
+
+        private final int result;
+        private final int diagnosticsOffset;
+        private final int diagnosticsLength;
+        private byte[] diagnostics;
+        private long lastUsed;
+
+        /**
+         * A constructor for a result whose diagnostics are in the mapped log.
+         * @param result - the verification result.
+         * @param diagnosticsOffset - the offset of the diagnostics in the mapped log.
+         * @param diagnosticsLength - the length of the encoded diagnostics.
+         * @param lastUsed - the time the result was last used.
+         */
+        Entry(int result, int diagnosticsOffset, int diagnosticsLength, long lastUsed){
+            this.result = result;
+            this.diagnosticsOffset = diagnosticsOffset;
+            this.diagnosticsLength = diagnosticsLength;
+            this.lastUsed = lastUsed;
+        }
+
+        /**
+         * A constructor for a result which was verified in this run.
+         * @param result - the verification result.
+         * @param diagnostics - the encoded diagnostics found while verifying.
+         * @param lastUsed - the time the result was stored.
+         */
+        Entry(int result, byte[] diagnostics, long lastUsed){
+            this(result, 0, 0, lastUsed);
+            this.diagnostics = diagnostics;
+        }
+    }
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Path logPath;
+    private FileChannel log;
+    private Object logKey;
+    private final MappedByteBuffer mappedLog;
+    private final HashMap<ByteBuffer, Entry> entries;
+    private long logSize;
+    private long scannedSize;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which opens the cache in the given directory, creating it if it does not exist.
+     * @param directory - the given directory.
+     * @throws IOException - if the cache could not be opened.
+     */
+    ResultCache(String directory) throws IOException {
+        try {
+            Files.createDirectories(Paths.get(directory));
+            this.logPath = Paths.get(directory, LOG_FILE_NAME);
+            this.entries = new HashMap<>();
+            this.openLog();
+            FileLock lock = this.lockLog();
+            try {
+                this.logSize = this.log.size();
+                this.mappedLog = this.log.map(FileChannel.MapMode.READ_ONLY, 0, this.logSize);
+                if (!this.load()){
+                    this.entries.clear();
+                    this.log.truncate(0);
+                    this.log.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC), 0);
+                    this.logSize = HEADER_SIZE;
+                }
+                this.scannedSize = this.logSize;
+            }
+            finally {
+                lock.release();
+            }
+        }
+        catch (IOException | RuntimeException e){
+            throw new IOException(BAD_CACHE+directory, e);
+        }
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Open the cache given in the --cache[=directory] option, in .sjavac-cache by default.
+     * @param options - the command line options.
+     * @param errorStream - the stream to print informative messages to.
+     * @param writer - the writer of a machine-readable format; null if messages are printed as text.
+     * @return the cache; null if results are not cached, or if the cache could not be opened.
+     */
+    static ResultCache open(Options options, PrintStream errorStream, DiagnosticWriter writer){
+        if (!options.has(Options.CACHE)){
+            return null;
+        }
+        try {
+            return new ResultCache(options.get(Options.CACHE, DEFAULT_DIRECTORY));
+        }
+        catch (IOException e){
+            Sjavac.reportError(e.getMessage(), errorStream, writer);
+            return null;
+        }
+    }
+
+    /**
+     * @param diagnostics - the given diagnostics.
+     * @return the given diagnostics, encoded by their codes, lines, columns and arguments.
+     */
+    private static byte[] encode(DiagnosticList diagnostics){
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        try {
+            output.writeInt(diagnostics.size());
+            for (Diagnostic diagnostic: diagnostics){
+                output.writeInt(diagnostic.getCode().ordinal());
+                output.writeInt(diagnostic.getLine());
+                output.writeInt(diagnostic.getColumn());
+                Object[] arguments = diagnostic.getArguments();
+                output.writeInt(arguments.length);
+                for (Object argument: arguments){
+                    byte[] encoded = String.valueOf(argument).getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(encoded.length);
+                    output.write(encoded);
+                }
+            }
+        }
+        catch (IOException e){
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decode the given diagnostics, and add them to the given list. Their arguments are decoded as the text
+     * they are printed as, so their messages are the same.
+     * @param encoded - the encoded diagnostics.
+     * @param diagnostics - the list to add them to.
+     * @throws IOException - if the diagnostics could not be decoded.
+     */
+    private static void decode(byte[] encoded, DiagnosticList diagnostics) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded));
+        DiagnosticCode[] codes = DiagnosticCode.values();
+        int count = input.readInt();
+        for (int i=0; i<count; i++){
+            int code = input.readInt();
+            if (code < 0 || code >= codes.length){
+                throw new IOException();
+            }
+            int line = input.readInt();
+            int column = input.readInt();
+            Object[] arguments = new Object[input.readInt()];
+            for (int j=0; j<arguments.length; j++){
+                byte[] argument = new byte[input.readInt()];
+                input.readFully(argument);
+                arguments[j] = new String(argument, StandardCharsets.UTF_8);
+            }
+            diagnostics.add(new Diagnostic(codes[code], line, column, arguments));
+        }
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Verify the s-java file at the given path and add the errors found to the given list, or add its cached
+     * result's diagnostics if its contents have already been verified. A file which is larger than the
+     * verification's size budget is not looked up, and the result of a verification which exceeded its budget
+     * is not cached, as it depends on the budget rather than on the contents. A file which is not in the cache
+     * is verified from its path in the mode the options give, as it is without the cache, so only its hash is
+     * taken from its mapped contents.
+     * @param fileName - the given path.
+     * @param options - the verification options.
+     * @param diagnostics - the list to add the errors to, which is empty.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    int collect(String fileName, Options options, DiagnosticList diagnostics){
+        Path path = Paths.get(fileName);
+        String[] args = {fileName};
+        ByteBuffer contents;
+        try {
+            if (!Files.isRegularFile(path)){
+                return Sjavac.collect(args, options, diagnostics);
+            }
+            contents = this.map(path);
+        }
+        catch (IOException e){
+            return Sjavac.collect(args, options, diagnostics);
+        }
+        Budget budget = Sjavac.newBudget(options);
+        if (budget != null && !budget.checkSize(contents.remaining())){
+            return Sjavac.collectFailure(budget, diagnostics);
+        }
+        return this.collect(contents, options, diagnostics, () -> Sjavac.collect(args, options, diagnostics));
+    }
+
+    /**
+     * Verify the given s-java code and add the errors found to the given list, or add its cached result's
+     * diagnostics if the same contents have already been verified, as collect() does for a file.
+     * @param contents - the s-java code, encoded with the default charset.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @param options - the verification options.
+     * @param diagnostics - the list to add the errors to, which is empty.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    int collect(ByteBuffer contents, Budget budget, Options options, DiagnosticList diagnostics){
+        if (budget != null && !budget.checkSize(contents.remaining())){
+            return Sjavac.collectFailure(budget, diagnostics);
+        }
+        return this.collect(contents, options, diagnostics,
+                () -> Sjavac.collect(contents, options, budget, diagnostics));
+    }
+
+    /**
+     * Add the cached result's diagnostics of the given contents to the given list, or verify them with the
+     * given verification and cache its result.
+     * @param contents - the s-java code, encoded with the default charset.
+     * @param options - the verification options.
+     * @param diagnostics - the list to add the errors to, which is empty.
+     * @param verification - the verification of the contents, which adds the errors found to the list.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    private int collect(ByteBuffer contents, Options options, DiagnosticList diagnostics,
+                        IntSupplier verification){
+        ByteBuffer key = this.hash(contents.duplicate(), options);
+        Entry entry = this.use(key);
+        if (entry != null){
+            try {
+                decode(entry.diagnostics, diagnostics);
+                return entry.result;
+            }
+            catch (IOException e){
+                diagnostics.clear();
+            }
+        }
+        int result = verification.getAsInt();
+        if (result != IO_EXCEPTION && result != BUDGET_EXCEEDED){
+            this.store(key, result, encode(diagnostics));
+        }
+        return result;
+    }
+
+    /**
+     * Rewrite the log with the most recently used results if it has passed its size limit, and close it. A log
+     * which could not be rewritten is kept as it is, and rewritten the next time the cache is closed.
+     */
+    public synchronized void close(){
+        try {
+            if (this.logSize > SIZE_LIMIT){
+                this.compact();
+            }
+        }
+        catch (IOException e){
+            // The log is still a valid cache log.
+        }
+        try {
+            this.log.close();
+        }
+        catch (IOException e){
+            // Every record has already been written.
+        }
+    }
+
+    /**
+     * Open the log at the cache's path, creating it if it does not exist, and keep the key of the file it
+     * opened. If the path was replaced while it was opened, it is opened again, so the key is that of the file
+     * which was opened.
+     * @throws IOException - if the log could not be opened.
+     */
+    private void openLog() throws IOException {
+        while (true){
+            Object logKey = this.getLogKey();
+            FileChannel log = FileChannel.open(this.logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (logKey != null && logKey.equals(this.getLogKey())){
+                this.log = log;
+                this.logKey = logKey;
+                return;
+            }
+            log.close();
+        }
+    }
+
+    /**
+     * @return the key of the file at the log's path; null if there is none, or if the file system does not
+     * give files keys, in which case a replaced log is not detected.
+     */
+    private Object getLogKey(){
+        try {
+            return Files.readAttributes(this.logPath, BasicFileAttributes.class).fileKey();
+        }
+        catch (IOException e){
+            return null;
+        }
+    }
+
+    /**
+     * Lock the log against the other processes which share the cache. If another process has replaced the
+     * log since it was opened, the log at the cache's path is opened again and locked instead, and the records
+     * in it are read when the log is next rewritten.
+     * @return the lock of the log.
+     * @throws IOException - if the log could not be opened or locked.
+     */
+    private FileLock lockLog() throws IOException {
+        FileLock lock = this.log.lock();
+        while (!Objects.equals(this.logKey, this.getLogKey())){
+            lock.release();
+            this.log.close();
+            this.openLog();
+            this.scannedSize = HEADER_SIZE;
+            lock = this.log.lock();
+        }
+        if (this.log.size() == 0){
+            this.log.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC), 0);
+        }
+        this.logSize = this.log.size();
+        return lock;
+    }
+
+    /**
+     * Read the results in the mapped log. A record which was cut short by an interrupted write ends the log.
+     * @return true if the log is a cache log; false if it is empty, or is not a cache log.
+     */
+    private boolean load(){
+        ByteBuffer buffer = this.mappedLog.duplicate();
+        if (buffer.remaining() == 0){
+            return false;
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC){
+            return false;
+        }
+        this.loadRecords(buffer, true);
+        return true;
+    }
+
+    /**
+     * Read the records appended to the log since it was last read, by this process or by another, so the
+     * results in them are kept when the log is rewritten. This method assumes the log is locked.
+     * @throws IOException - if the log could not be read.
+     */
+    private void loadTail() throws IOException {
+        long size = this.log.size();
+        if (size <= this.scannedSize){
+            return;
+        }
+        if (size-this.scannedSize > Integer.MAX_VALUE){
+            throw new IOException(BAD_CACHE+this.logPath);
+        }
+        this.loadRecords(this.log.map(FileChannel.MapMode.READ_ONLY, this.scannedSize, size-this.scannedSize),
+                false);
+        this.scannedSize = size;
+    }
+
+    /**
+     * Read the records in the given buffer, from its position. A record which was cut short by an interrupted
+     * write ends the records. A result which is already known keeps the latest time it was used.
+     * @param buffer - the given buffer.
+     * @param isMappedLog - true if the buffer is the mapped log, whose diagnostics are read from it when they
+     * are needed; false if the diagnostics are copied from it.
+     */
+    private void loadRecords(ByteBuffer buffer, boolean isMappedLog){
+        while (buffer.remaining() >= RECORD_HEADER_SIZE){
+            byte[] key = new byte[KEY_SIZE];
+            buffer.get(key);
+            long lastUsed = buffer.getLong();
+            int result = buffer.getInt();
+            int length = buffer.getInt();
+            if (length == USED_RECORD){
+                Entry entry = this.entries.get(ByteBuffer.wrap(key));
+                if (entry != null){
+                    entry.lastUsed = Math.max(entry.lastUsed, lastUsed);
+                }
+                continue;
+            }
+            if (length < 0 || length > buffer.remaining()){
+                break;
+            }
+            Entry entry;
+            if (isMappedLog){
+                entry = new Entry(result, buffer.position(), length, lastUsed);
+                buffer.position(buffer.position()+length);
+            }
+            else {
+                byte[] diagnostics = new byte[length];
+                buffer.get(diagnostics);
+                entry = new Entry(result, diagnostics, lastUsed);
+            }
+            Entry previous = this.entries.put(ByteBuffer.wrap(key), entry);
+            if (previous != null){
+                entry.lastUsed = Math.max(entry.lastUsed, previous.lastUsed);
+            }
+        }
+    }
+
+    /**
+     * Find the cached result of the given key, and record that it was used.
+     * @param key - the given key.
+     * @return the cached result, with its diagnostics; null if there is none.
+     */
+    private synchronized Entry use(ByteBuffer key){
+        Entry entry = this.entries.get(key);
+        if (entry == null){
+            return null;
+        }
+        this.readDiagnostics(entry);
+        entry.lastUsed = System.currentTimeMillis();
+        this.append(key, entry.lastUsed, entry.result, null);
+        return entry;
+    }
+
+    /**
+     * Read the encoded diagnostics of the given result from the mapped log, if they have not been read yet.
+     * @param entry - the given result.
+     */
+    private void readDiagnostics(Entry entry){
+        if (entry.diagnostics == null){
+            ByteBuffer diagnostics = this.mappedLog.duplicate();
+            diagnostics.position(entry.diagnosticsOffset);
+            entry.diagnostics = new byte[entry.diagnosticsLength];
+            diagnostics.get(entry.diagnostics);
+        }
+    }
+
+    /**
+     * Cache the given result of the given key.
+     * @param key - the given key.
+     * @param result - the verification result.
+     * @param diagnostics - the encoded diagnostics found while verifying.
+     */
+    private synchronized void store(ByteBuffer key, int result, byte[] diagnostics){
+        Entry entry = new Entry(result, diagnostics, System.currentTimeMillis());
+        this.entries.put(key, entry);
+        this.append(key, entry.lastUsed, result, diagnostics);
+    }
+
+    /**
+     * Append a record to the end of the log. A record which could not be written is only missing from the
+     * cache, so the verification does not fail because of it.
+     * @param key - the record's key.
+     * @param lastUsed - the time the result was last used.
+     * @param result - the verification result.
+     * @param diagnostics - the encoded diagnostics found while verifying; null for a record which only
+     * updates the time the result was last used.
+     */
+    private void append(ByteBuffer key, long lastUsed, int result, byte[] diagnostics){
+        byte[] encoded = diagnostics == null ? new byte[0] : diagnostics;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE+encoded.length);
+        record.put(key.duplicate());
+        record.putLong(lastUsed);
+        record.putInt(result);
+        record.putInt(diagnostics == null ? USED_RECORD : encoded.length);
+        record.put(encoded);
+        record.flip();
+        try {
+            FileLock lock = this.lockLog();
+            try {
+                long position = this.log.size();
+                boolean isScanned = position == this.scannedSize;
+                while (record.hasRemaining()){
+                    position += this.log.write(record, position);
+                }
+                if (isScanned){
+                    this.scannedSize = position;
+                }
+                this.logSize = position;
+            }
+            finally {
+                lock.release();
+            }
+        }
+        catch (IOException e){
+            // The result is verified again the next time it is needed.
+        }
+    }
+
+    /**
+     * Rewrite the log with the most recently used results, keeping them within half of the size limit, and
+     * replace the log with it at once. The log is locked while it is rewritten, and the records appended to it
+     * since it was read are read first, so the results other processes cached are kept. A log which another
+     * process has already rewritten is not rewritten again.
+     * @throws IOException - if the log could not be rewritten.
+     */
+    private void compact() throws IOException {
+        FileLock lock = this.lockLog();
+        try {
+            this.loadTail();
+            if (this.logSize > SIZE_LIMIT){
+                this.rewrite();
+            }
+        }
+        finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Rewrite the log with the most recently used results, keeping them within half of the size limit, and
+     * replace the log with it at once. This method assumes the log is locked.
+     * @throws IOException - if the log could not be rewritten.
+     */
+    private void rewrite() throws IOException {
+        List<ByteBuffer> keys = new ArrayList<>(this.entries.keySet());
+        keys.sort(Comparator.comparingLong((ByteBuffer key) -> this.entries.get(key).lastUsed).reversed());
+        Path compactedPath = Paths.get(this.logPath+COMPACTED_FILE_SUFFIX);
+        try (FileChannel compacted = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            compacted.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC));
+            long size = HEADER_SIZE;
+            for (ByteBuffer key: keys){
+                Entry entry = this.entries.get(key);
+                this.readDiagnostics(entry);
+                byte[] encoded = entry.diagnostics;
+                size += RECORD_HEADER_SIZE+encoded.length;
+                if (size > SIZE_LIMIT/2){
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE+encoded.length);
+                record.put(key.duplicate()).putLong(entry.lastUsed).putInt(entry.result)
+                        .putInt(encoded.length).put(encoded).flip();
+                while (record.hasRemaining()){
+                    compacted.write(record);
+                }
+            }
+        }
+        Files.move(compactedPath, this.logPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-map the file at the given path.
+     * @param path - the given path.
+     * @return the file's contents.
+     * @throws IOException - if the file could not be mapped.
+     */
+    private ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE){
+                throw new IOException(path.toString());
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * The key depends on the options which change the informative messages, so results verified with them are
+     * cached apart: the number of errors reported, and the modes in which the messages may be others. A result
+     * verified in bounded memory is kept apart in every mode, as it comes from another parser pass.
+     * @param contents - the contents of an s-java file.
+     * @param options - the verification options.
+     * @return the key of the given contents' result.
+     */
+    private ByteBuffer hash(ByteBuffer contents, Options options){
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(VERIFIER_VERSION.getBytes(StandardCharsets.UTF_8));
+            if (options.has(Options.BOUNDED_MEMORY)){
+                digest.update(Options.BOUNDED_MEMORY.getBytes(StandardCharsets.UTF_8));
+            }
+            if (options.has(Options.ALL_ERRORS)){
+                digest.update((Options.ALL_ERRORS+Sjavac.getMaxErrors(options)).getBytes(StandardCharsets.UTF_8));
+            }
+            else if (options.has(Options.LAZY)){
+                digest.update(Options.LAZY.getBytes(StandardCharsets.UTF_8));
+            }
+            else if (options.has(Options.PIPELINE)){
+                digest.update(Options.PIPELINE.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(contents);
+            return ByteBuffer.wrap(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }
+    }
+}
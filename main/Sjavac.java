@@ -1,9 +1,31 @@
 package oop.ex6.main;
 
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticList;
+import oop.ex6.diagnostics.DiagnosticWriter;
+import oop.ex6.events.LineProfile;
 import oop.ex6.executer.Executor;
+import oop.ex6.executer.IncrementalExecutor;
+import oop.ex6.parser.BoundedCommands;
+import oop.ex6.parser.CommandPipeline;
+import oop.ex6.parser.LazyCommands;
 import oop.ex6.parser.Parser;
 import oop.ex6.parser.ParserIOException;
 import oop.ex6.parser.ParserSyntaxException;
+import oop.ex6.parser.Program;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 
 /**
  * This class represents an s-java compiler and contains the main method.
@@ -12,29 +34,578 @@ public class Sjavac {
 
     /*----=   Constants  =----*/
 
+    private final static int BUDGET_EXCEEDED = 3;
     private final static int IO_EXCEPTION = 2;
     private final static int ILLEGAL_CODE = 1;
+    private final static int LEGAL_CODE = 0;
+    private final static String DEFAULT_SERVER_ADDRESS = "7070";
+    private final static int ERROR_BUFFER_SIZE = 8192;
+    private final static int DEFAULT_MAX_ERRORS = 100;
+    private final static int DEFAULT_PROFILE_LINES = 10;
+    private final static int DEFAULT_MAX_SIZE = 16*1024*1024;
+    private final static int DEFAULT_TIME_LIMIT = 10000;
+
+    /*----=   Nested Interfaces  =----*/
+
+    /**
+     * This interface represents a way of getting a parser's commands for an s-java source.
+     * @param <T> - the type of the commands: a program, or commands which are parsed as they are executed.
+     */
+    interface CommandsReader<T> {
+
+        /**
+         * @param parser - the parser which parses the s-java source.
+         * @return - the commands.
+         * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java source.
+         * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java source.
+         */
+        T read(Parser parser) throws ParserSyntaxException, ParserIOException;
+    }
+
+    /*----=   Static Methods  =----*/
 
     /**
      * The main method: receives a path to an s-java source file and prints:
      * 0 - if the code is legal.
      * 1 - if the code is illegal. In this case it also prints out an informative message.
      * 2 - if the method catches an IO exception.
+     * 3 - if the verification exceeds its budget. In this case it also prints out an informative message.
+     * If the method receives several paths, a directory or a list file (a path prefixed with '@'), it verifies
+     * every s-java file they refer to, prints each file's path and result, and exits with the highest result.
+     * A zip, jar or tar archive, which may be compressed with gzip, refers to each s-java file in it, which is
+     * verified as it is read from the archive, without extracting it.
+     * If the method receives the option --server[=address], it serves verification requests on the given
+     * port of the local host, or unix domain socket path, until it is stopped.
+     * If the method receives the option --pipeline, each file's global scope commands are executed while the
+     * rest of the file is still being parsed.
+     * If the method receives the option --cache[=directory], the result of a file whose contents have already
+     * been verified is taken from the cache in the given directory, without parsing the file again.
+     * If the method receives the option --all-errors[=max], every error in a file, up to the given number of
+     * errors, is found in a single pass and printed, instead of the first one only.
+     * If the method receives the option --format=jsonl or --format=sarif, the informative messages are printed
+     * in the given machine-readable format instead of as text.
+     * If the method receives the option --bounded-memory, each file is read through a reader, and its method
+     * bodies are parsed again from the file one at a time, so the memory used does not grow with the file.
+     * If the method receives the option --profile[=lines], a single file is verified without the cache or the
+     * pipeline, each of its lines is timed, and the most expensive lines and the time spent on each kind of
+     * line and command are printed after the informative messages.
+     * If the method receives the option --max-size[=bytes] or --time-limit[=milliseconds], a file which is
+     * larger than the given size is not read, and the verification of a file stops once it has taken longer
+     * than the given time, so a single pathological file cannot hold a batch or the server.
+     * If the method receives the option --lazy, each file's method bodies are parsed only once its global scope
+     * commands were executed, and only as they are executed, so a file whose global scope is illegal is not
+     * parsed further.
      * @param args - the given argument.
      */
     public static void main(String[] args){
+        Options options;
+        try {
+            options = new Options(args);
+        }
+        catch (OptionException e){
+            System.err.println(e.getMessage());
+            System.out.println(IO_EXCEPTION);
+            return;
+        }
+        if (options.has(Options.SERVER)){
+            try {
+                new VerifierServer(options.get(Options.SERVER, DEFAULT_SERVER_ADDRESS), options).run();
+            }
+            catch (IOException e){
+                System.err.println(e.getMessage());
+                System.exit(IO_EXCEPTION);
+            }
+            return;
+        }
+        PrintStream errorStream = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.err), ERROR_BUFFER_SIZE), false);
+        DiagnosticWriter writer = DiagnosticWriter.create(options.get(Options.FORMAT, Options.TEXT_FORMAT),
+                errorStream);
+        if (BatchVerifier.isBatch(options.getPaths())){
+            int result = new BatchVerifier(options).run(System.out, errorStream, writer);
+            finish(errorStream, writer);
+            System.exit(result);
+        }
+        LineProfile profile = options.has(Options.PROFILE) ? new LineProfile() : null;
+        ResultCache cache = profile == null ? ResultCache.open(options, errorStream, writer) : null;
+        DiagnosticList diagnostics = newDiagnosticList(options);
+        String[] paths = options.getPaths();
+        int result;
+        if (cache == null || paths.length != 1){
+            result = collect(paths, options, diagnostics, profile);
+        }
+        else {
+            result = cache.collect(paths[0], options, diagnostics);
+            cache.close();
+        }
+        report(paths.length == 1 ? paths[0] : null, diagnostics, errorStream, writer);
+        if (profile != null && result != IO_EXCEPTION){
+            printProfile(paths[0], profile, options.getNumber(Options.PROFILE, DEFAULT_PROFILE_LINES),
+                    errorStream);
+        }
+        finish(errorStream, writer);
+        System.out.println(result);
+    }
+
+    /**
+     * Verify the s-java source file given in the command line arguments, and print its informative messages
+     * as text.
+     * @param args - the given arguments.
+     * @param options - the verification options.
+     * @param errorStream - the stream to print informative messages to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    static int verify(String[] args, Options options, PrintStream errorStream){
+        DiagnosticList diagnostics = newDiagnosticList(options);
+        int result = collect(args, options, diagnostics);
+        report(null, diagnostics, errorStream, null);
+        return result;
+    }
+
+    /**
+     * Verify the given s-java code, and print its informative messages as text.
+     * @param contents - the s-java code, encoded with the default charset.
+     * @param options - the verification options.
+     * @param errorStream - the stream to print informative messages to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    static int verify(ByteBuffer contents, Options options, PrintStream errorStream){
+        DiagnosticList diagnostics = newDiagnosticList(options);
+        int result = collect(contents, options, newBudget(options), diagnostics);
+        report(null, diagnostics, errorStream, null);
+        return result;
+    }
+
+    /**
+     * Verify the s-java source file given in the command line arguments, and add the errors found to the
+     * given list.
+     * @param args - the given arguments.
+     * @param options - the verification options.
+     * @param diagnostics - the list to add the errors to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    static int collect(String[] args, Options options, DiagnosticList diagnostics){
+        return collect(args, options, diagnostics, null);
+    }
+
+    /**
+     * Verify the s-java source file given in the command line arguments, add the errors found to the given
+     * list, and time each of its lines into the given profile. A file which is profiled is not pipelined.
+     * If the options give the verification a budget, a file which is larger than its size is not read, and
+     * the errors found are replaced with the budget's diagnostic once it is exceeded.
+     * @param args - the given arguments.
+     * @param options - the verification options.
+     * @param diagnostics - the list to add the errors to.
+     * @param profile - the given profile; null if the lines are not timed.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    private static int collect(String[] args, Options options, DiagnosticList diagnostics, LineProfile profile){
+        Budget budget = newBudget(options);
+        if (budget != null && args.length == 1 && !budget.checkSize(getSize(args[0]))){
+            return collectFailure(budget, diagnostics);
+        }
+        int result;
+        if (options.has(Options.BOUNDED_MEMORY)){
+            result = collectBounded(parser -> parser.getBoundedCommands(args), diagnostics, profile, budget);
+        }
+        else if (options.has(Options.LAZY) && !options.has(Options.ALL_ERRORS) && profile == null){
+            result = collectLazy(parser -> parser.getLazyCommands(args), diagnostics, budget);
+        }
+        else if (options.has(Options.PIPELINE) && !options.has(Options.ALL_ERRORS) && profile == null){
+            result = collectPipelined(parser -> parser.pipeCommands(args), diagnostics, budget);
+        }
+        else {
+            result = collect(parser -> parser.getCommands(args), diagnostics, profile, budget);
+        }
+        return budget != null && budget.isExceeded() ? collectFailure(budget, diagnostics) : result;
+    }
+
+    /**
+     * Verify the given s-java code in the mode the options give, as collect() verifies a file, and add the
+     * errors found to the given list. If the code is larger than the given budget's size it is not parsed, and
+     * the errors found are replaced with the budget's diagnostic once it is exceeded.
+     * @param contents - the s-java code, encoded with the default charset.
+     * @param options - the verification options.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @param diagnostics - the list to add the errors to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    static int collect(ByteBuffer contents, Options options, Budget budget, DiagnosticList diagnostics){
+        if (budget != null && !budget.checkSize(contents.remaining())){
+            return collectFailure(budget, diagnostics);
+        }
+        int result;
+        if (options.has(Options.BOUNDED_MEMORY)){
+            result = collectBounded(parser -> parser.getBoundedCommands(contents), diagnostics, null, budget);
+        }
+        else if (options.has(Options.LAZY) && !options.has(Options.ALL_ERRORS)){
+            result = collectLazy(parser -> parser.getLazyCommands(contents), diagnostics, budget);
+        }
+        else if (options.has(Options.PIPELINE) && !options.has(Options.ALL_ERRORS)){
+            result = collectPipelined(parser -> parser.pipeCommands(contents), diagnostics, budget);
+        }
+        else {
+            result = collect(parser -> parser.getCommands(contents), diagnostics, null, budget);
+        }
+        return budget != null && budget.isExceeded() ? collectFailure(budget, diagnostics) : result;
+    }
+
+    /**
+     * Verify the given s-java code, and add the errors found to the given list. If the code is larger than
+     * the given budget's size it is not parsed, and the errors found are replaced with the budget's diagnostic
+     * once it is exceeded.
+     * @param contents - the s-java code, encoded with the default charset.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @param diagnostics - the list to add the errors to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    static int collect(ByteBuffer contents, Budget budget, DiagnosticList diagnostics){
+        return collect(parser -> parser.getCommands(contents), contents.remaining(), budget, diagnostics);
+    }
+
+    /**
+     * Verify the s-java source read by the given commands reader, whose size is given, and add the errors found
+     * to the given list. If the source is larger than the given budget's size it is not read, and the errors
+     * found are replaced with the budget's diagnostic once it is exceeded.
+     * @param commandsReader - the given commands reader.
+     * @param size - the size of the source; 0 if it is not known before it is read.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @param diagnostics - the list to add the errors to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    static int collect(CommandsReader<Program> commandsReader, long size, Budget budget,
+                       DiagnosticList diagnostics){
+        if (budget != null && !budget.checkSize(size)){
+            return collectFailure(budget, diagnostics);
+        }
+        int result = collect(commandsReader, diagnostics, null, budget);
+        return budget != null && budget.isExceeded() ? collectFailure(budget, diagnostics) : result;
+    }
+
+    /**
+     * Verify the edited code of the given state again, and add the errors found to the given list: the first
+     * syntax error of its units, or else the first error of executing the commands the edit may have changed
+     * the result of, along with those whose result was kept. If the code is larger than the given budget's size
+     * it is not verified, and the errors found are replaced with the budget's diagnostic once it is exceeded.
+     * @param state - the given state.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @param diagnostics - the list to add the errors to.
+     * @return 0 if the code is legal; 1 if the code is illegal; 3 if the verification exceeded its budget.
+     */
+    static int collect(VerificationState state, Budget budget, DiagnosticList diagnostics){
+        if (budget != null && !budget.checkSize(state.getCommands().getLength())){
+            return collectFailure(budget, diagnostics);
+        }
+        Diagnostic failure = state.getCommands().getFailure();
+        if (failure == null){
+            IncrementalExecutor executor = state.getExecutor();
+            executor.setBudget(budget);
+            executor.execute();
+            failure = executor.getFailure();
+        }
+        if (budget != null && budget.isExceeded()){
+            return collectFailure(budget, diagnostics);
+        }
+        if (failure != null){
+            diagnostics.add(failure);
+        }
+        return diagnostics.isEmpty() ? LEGAL_CODE : ILLEGAL_CODE;
+    }
+
+    /**
+     * @param options - the verification options.
+     * @return a new budget for the verification of a file, whose time starts now; null if the options give
+     * the verification neither a size nor a time limit.
+     */
+    static Budget newBudget(Options options){
+        if (!options.has(Options.MAX_SIZE) && !options.has(Options.TIME_LIMIT)){
+            return null;
+        }
+        long timeLimit = options.has(Options.TIME_LIMIT) ?
+                options.getNumber(Options.TIME_LIMIT, DEFAULT_TIME_LIMIT) : Budget.UNLIMITED;
+        return new Budget(getMaxSize(options), timeLimit);
+    }
+
+    /**
+     * @param options - the verification options.
+     * @return the maximal size of a file, in bytes, given in the --max-size option; Budget.UNLIMITED if its size
+     * is not limited.
+     */
+    static long getMaxSize(Options options){
+        return options.has(Options.MAX_SIZE) ? options.getNumber(Options.MAX_SIZE, DEFAULT_MAX_SIZE) : Budget.UNLIMITED;
+    }
+
+    /**
+     * @param fileName - the path of a file.
+     * @return the size of the given file, in bytes; 0 if it is not a regular file, or its size is unknown, in
+     * which case the parser reports it when it fails to read the file.
+     */
+    private static long getSize(String fileName){
+        try {
+            return Files.size(Paths.get(fileName));
+        }
+        catch (IOException | InvalidPathException e){
+            return 0;
+        }
+    }
+
+    /**
+     * @param options - the verification options.
+     * @return an empty list for the errors of a file: the first error only, or, with the --all-errors option,
+     * up to its maximal number of errors.
+     */
+    static DiagnosticList newDiagnosticList(Options options){
+        return new DiagnosticList(options.has(Options.ALL_ERRORS) ? getMaxErrors(options) : 1);
+    }
+
+    /**
+     * @param options - the verification options.
+     * @return the maximal number of errors to report in a file, given in the --all-errors option.
+     */
+    static int getMaxErrors(Options options){
+        return options.getNumber(Options.ALL_ERRORS, DEFAULT_MAX_ERRORS);
+    }
+
+    /**
+     * Print the errors found in the given file: as text, or with the given writer.
+     * @param fileName - the path of the file; null if the errors do not refer to a single file.
+     * @param diagnostics - the errors.
+     * @param errorStream - the stream to print text to.
+     * @param writer - the writer of a machine-readable format; null if the errors are printed as text.
+     */
+    static void report(String fileName, DiagnosticList diagnostics, PrintStream errorStream,
+                       DiagnosticWriter writer){
+        if (writer != null){
+            writer.write(fileName, diagnostics);
+            return;
+        }
+        for (Diagnostic diagnostic: diagnostics){
+            errorStream.println(diagnostic);
+        }
+    }
+
+    /**
+     * Print an error of the run itself, which is not found in a file: as text, or with the given writer.
+     * @param message - the error's informative message.
+     * @param errorStream - the stream to print text to.
+     * @param writer - the writer of a machine-readable format; null if the error is printed as text.
+     */
+    static void reportError(String message, PrintStream errorStream, DiagnosticWriter writer){
+        if (writer != null){
+            writer.writeError(message);
+            return;
+        }
+        errorStream.println(message);
+    }
+
+    /**
+     * Print the given profile of the given file, with the texts of its most expensive lines, which are read
+     * again from the file; if it cannot be read, they are printed without their texts.
+     * @param fileName - the path of the file.
+     * @param profile - the given profile.
+     * @param lines - the number of the most expensive lines to print.
+     * @param errorStream - the stream to print to.
+     */
+    private static void printProfile(String fileName, LineProfile profile, int lines, PrintStream errorStream){
+        int[] slowestLines = profile.getSlowestLines(lines);
+        String[] texts = new String[slowestLines.length];
+        int lastLine = 0;
+        for (int lineNumber: slowestLines){
+            lastLine = Math.max(lastLine, lineNumber);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName), Charset.defaultCharset())){
+            int lineNumber = 0;
+            String line;
+            while (lineNumber < lastLine && (line = reader.readLine()) != null){
+                lineNumber++;
+                for (int i=0; i<slowestLines.length; i++){
+                    if (slowestLines[i] == lineNumber){
+                        texts[i] = line;
+                    }
+                }
+            }
+        }
+        catch (IOException e){
+            texts = null;
+        }
+        profile.print(errorStream, slowestLines, texts);
+    }
+
+    /**
+     * End the output of the run's informative messages, and flush it.
+     * @param errorStream - the stream the messages are printed to.
+     * @param writer - the writer of a machine-readable format; null if the messages are printed as text.
+     */
+    private static void finish(PrintStream errorStream, DiagnosticWriter writer){
+        if (writer != null){
+            writer.finish();
+        }
+        errorStream.flush();
+    }
+
+    /**
+     * Verify the s-java source read by the given commands reader, executing its global scope commands while
+     * the rest of the source is still being parsed. The first error found is added to the given list: either a
+     * logical error in the commands parsed so far, or the syntax error which stopped the parser.
+     * @param commandsReader - the commands reader which starts piping the source's commands.
+     * @param diagnostics - the list to add the error to.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught.
+     */
+    private static int collectPipelined(CommandsReader<CommandPipeline> commandsReader, DiagnosticList diagnostics,
+                                        Budget budget){
         try {
             Parser parser = new Parser();
-            Executor executor = new Executor(parser.getCommands(args));
-            System.out.println(executor.execute());
+            parser.setBudget(budget);
+            CommandPipeline pipeline = commandsReader.read(parser);
+            Executor executor = new Executor(pipeline, null, diagnostics);
+            executor.setBudget(budget);
+            int result = executor.execute();
+            if (result == ILLEGAL_CODE){
+                pipeline.cancel();
+                return result;
+            }
+            pipeline.rethrowFailure();
+            return result;
         }
         catch (ParserSyntaxException e){
-            System.err.println(e.getMessage());
-            System.out.println(ILLEGAL_CODE);
+            diagnostics.add(e.getDiagnostic());
+            return ILLEGAL_CODE;
         }
         catch (ParserIOException e){
-            System.err.println(e.getMessage());
-            System.out.println(IO_EXCEPTION);
+            return collectFailure(e, diagnostics);
+        }
+    }
+
+    /**
+     * Verify the s-java source read by the given commands reader in bounded memory: the global scope commands
+     * are kept as the source is parsed, and each method body is parsed again from the source as it is
+     * executed. The errors found are the same as those found by collect(), in the same order.
+     * @param commandsReader - the commands reader which parses the source in bounded memory.
+     * @param diagnostics - the list to add the errors to.
+     * @param profile - the profile to time each line into; null if the lines are not timed.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught.
+     */
+    private static int collectBounded(CommandsReader<BoundedCommands> commandsReader, DiagnosticList diagnostics,
+                                      LineProfile profile, Budget budget){
+        try {
+            Parser parser = new Parser(diagnostics);
+            parser.setProfile(profile);
+            parser.setBudget(budget);
+            BoundedCommands commands = commandsReader.read(parser);
+            if (!diagnostics.isFull()){
+                Executor executor = new Executor(commands, null, diagnostics);
+                executor.setProfile(profile);
+                executor.setBudget(budget);
+                executor.execute();
+            }
+            commands.rethrowFailure();
+        }
+        catch (ParserSyntaxException e){
+            diagnostics.add(e.getDiagnostic());
+        }
+        catch (ParserIOException e){
+            return collectFailure(e, diagnostics);
+        }
+        return diagnostics.isEmpty() ? LEGAL_CODE : ILLEGAL_CODE;
+    }
+
+    /**
+     * Verify the s-java source read by the given commands reader lazily: its global scope commands are parsed
+     * and executed first, and each method body is parsed only as it is executed. The first error found is
+     * added to the given list, in the order in which the commands are executed: a syntax error in a method
+     * body is found only if the commands executed before it are legal.
+     * @param commandsReader - the commands reader which parses the source lazily.
+     * @param diagnostics - the list to add the error to, which holds a single error.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught.
+     */
+    private static int collectLazy(CommandsReader<LazyCommands> commandsReader, DiagnosticList diagnostics,
+                                   Budget budget){
+        try {
+            Parser parser = new Parser(diagnostics);
+            parser.setBudget(budget);
+            LazyCommands commands = commandsReader.read(parser);
+            if (!diagnostics.isFull()){
+                Executor executor = new Executor(commands, null, diagnostics);
+                executor.setBudget(budget);
+                executor.execute();
+            }
+            commands.rethrowFailure();
         }
+        catch (ParserSyntaxException e){
+            diagnostics.add(e.getDiagnostic());
+        }
+        catch (ParserIOException e){
+            return collectFailure(e, diagnostics);
+        }
+        return diagnostics.isEmpty() ? LEGAL_CODE : ILLEGAL_CODE;
+    }
+
+    /**
+     * Verify the s-java source read by the given commands reader, and add the errors found to the given list.
+     * If the list may hold more than one error, the parser and the executor recover from the errors they find,
+     * and every error is found in a single pass, up to the list's maximal number of errors: the syntax errors
+     * in the order of their lines, followed by the logical errors in the order in which the commands were
+     * executed. Otherwise the first error is found, as if they did not recover.
+     * @param commandsReader - the given commands reader.
+     * @param diagnostics - the list to add the errors to.
+     * @param profile - the profile to time each line into; null if the lines are not timed.
+     * @param budget - the budget of the verification; null if it is not limited.
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught.
+     */
+    private static int collect(CommandsReader<Program> commandsReader, DiagnosticList diagnostics,
+                               LineProfile profile, Budget budget){
+        try {
+            Parser parser = new Parser(diagnostics);
+            parser.setProfile(profile);
+            parser.setBudget(budget);
+            Program program = commandsReader.read(parser);
+            if (!diagnostics.isFull()){
+                Executor executor = new Executor(program, null, diagnostics);
+                executor.setProfile(profile);
+                executor.setBudget(budget);
+                executor.execute();
+            }
+        }
+        catch (ParserSyntaxException e){
+            diagnostics.add(e.getDiagnostic());
+        }
+        catch (ParserIOException e){
+            return collectFailure(e, diagnostics);
+        }
+        return diagnostics.isEmpty() ? LEGAL_CODE : ILLEGAL_CODE;
+    }
+
+    /**
+     * Replace the errors in the given list with the given IO exception, which stopped the verification.
+     * @param e - the given exception.
+     * @param diagnostics - the given list.
+     * @return 2 - the result of a verification which caught an IO exception.
+     */
+    private static int collectFailure(ParserIOException e, DiagnosticList diagnostics){
+        diagnostics.clear();
+        diagnostics.add(e.getDiagnostic(Diagnostic.NO_LINE, Diagnostic.NO_COLUMN));
+        return IO_EXCEPTION;
+    }
+
+    /**
+     * Replace the errors in the given list with the diagnostic of the given budget, which was exceeded.
+     * @param budget - the given budget.
+     * @param diagnostics - the given list.
+     * @return 3 - the result of a verification which exceeded its budget.
+     */
+    static int collectFailure(Budget budget, DiagnosticList diagnostics){
+        diagnostics.clear();
+        diagnostics.add(budget.getFailure());
+        return BUDGET_EXCEEDED;
     }
 }
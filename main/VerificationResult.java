@@ -0,0 +1,80 @@
+package oop.ex6.main;
+
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents the result of verifying s-java code with a verifier: its code, as the verifier prints
+ * it, and the diagnostics found, in the order in which they were found. A result is immutable.
+ */
+public class VerificationResult {
+
+    /*----=   Constants  =----*/
+
+    public static final int LEGAL_CODE = 0;
+    public static final int ILLEGAL_CODE = 1;
+    public static final int IO_EXCEPTION = 2;
+    public static final int BUDGET_EXCEEDED = 3;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final int code;
+    private final List<Diagnostic> diagnostics;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the code of the result and the diagnostics found.
+     * @param code - the given code.
+     * @param diagnostics - the given diagnostics.
+     */
+    VerificationResult(int code, DiagnosticList diagnostics){
+        this.code = code;
+        ArrayList<Diagnostic> found = new ArrayList<>(diagnostics.size());
+        for (Diagnostic diagnostic: diagnostics){
+            found.add(diagnostic);
+        }
+        this.diagnostics = Collections.unmodifiableList(found);
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return 0 if the code is legal; 1 if the code is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    public int getCode(){
+        return this.code;
+    }
+
+    /**
+     * @return true if the code is legal; false otherwise.
+     */
+    public boolean isLegal(){
+        return this.code == LEGAL_CODE;
+    }
+
+    /**
+     * @return the diagnostics found, which may not be modified; an empty list if the code is legal.
+     */
+    public List<Diagnostic> getDiagnostics(){
+        return this.diagnostics;
+    }
+
+    /**
+     * @return the informative messages of the diagnostics found, each ending with a line break, followed by the
+     * code.
+     */
+    @Override
+    public String toString(){
+        StringBuilder text = new StringBuilder();
+        for (Diagnostic diagnostic: this.diagnostics){
+            text.append(diagnostic);
+        }
+        return text.append(this.code).toString();
+    }
+}
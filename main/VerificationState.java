@@ -0,0 +1,69 @@
+package oop.ex6.main;
+
+import oop.ex6.executer.IncrementalExecutor;
+import oop.ex6.parser.IncrementalCommands;
+
+/**
+ * This class represents the state of verifying s-java code which is edited, such as in an editor: the code's
+ * lines, the commands parsed from them and the results of executing them, kept so that a verifier verifies the
+ * code again after an edit by parsing and executing only what the edit may have changed, along with the result
+ * of the last verification. A state is updated in place by each verification, so it may only be verified by a
+ * single thread at a time.
+ */
+public class VerificationState {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final IncrementalCommands commands;
+    private final IncrementalExecutor executor;
+    private VerificationResult result;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor for the state of verifying the given commands, none of which were executed yet.
+     * @param commands - the given commands.
+     */
+    VerificationState(IncrementalCommands commands){
+        this.commands = commands;
+        this.executor = new IncrementalExecutor(commands);
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return the result of the last verification of the code.
+     */
+    public VerificationResult getResult(){
+        return this.result;
+    }
+
+    /**
+     * @return the number of the code's lines.
+     */
+    public int getLinesCount(){
+        return this.commands.getLinesCount();
+    }
+
+    /**
+     * @return the commands of the code.
+     */
+    IncrementalCommands getCommands(){
+        return this.commands;
+    }
+
+    /**
+     * @return the executor of the code's commands.
+     */
+    IncrementalExecutor getExecutor(){
+        return this.executor;
+    }
+
+    /**
+     * Keep the result of the last verification of the code.
+     * @param result - the given result.
+     */
+    void setResult(VerificationResult result){
+        this.result = result;
+    }
+}
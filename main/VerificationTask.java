@@ -0,0 +1,159 @@
+package oop.ex6.main;
+
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticList;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class represents the verification of a single s-java file, as a task of a fork-join pool.
+ * Each task verifies its file with its own parser and executor, and keeps the file's diagnostics until they
+ * are printed. The file may be an entry of an archive, whose contents were read into memory; they are
+ * released once the file is verified. A task may also stand for an input which could not be read, such as a
+ * malformed archive, so its failure is printed in the order of the inputs, as any other file's result.
+ */
+class VerificationTask extends RecursiveAction {
+
+    /*----=   Constants  =----*/
+
+    private final static int IO_EXCEPTION = 2;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final String fileName;
+    private final Options options;
+    private final ResultCache cache;
+    private final long size;
+    private ByteBuffer contents;
+    private int result;
+    private final DiagnosticList diagnostics;
+    private final DiagnosticCode failure;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the path of the file to verify, the verification options, and the cache
+     * of results to look the file up in.
+     * @param fileName - the given path.
+     * @param options - the given options.
+     * @param cache - the given cache; null if results are not cached.
+     */
+    VerificationTask(String fileName, Options options, ResultCache cache){
+        this.fileName = fileName;
+        this.options = options;
+        this.cache = cache;
+        this.size = new File(fileName).length();
+        this.diagnostics = Sjavac.newDiagnosticList(options);
+        this.failure = null;
+    }
+
+    /**
+     * A constructor which receives the name and contents of an archive entry to verify, the verification
+     * options, and the cache of results to look the entry up in.
+     * @param fileName - the name of the entry, following the path of its archive.
+     * @param contents - the contents of the entry; an empty buffer if they were not read, as the entry is
+     * larger than the verification's size budget.
+     * @param size - the size of the entry in bytes.
+     * @param options - the given options.
+     * @param cache - the given cache; null if results are not cached.
+     */
+    VerificationTask(String fileName, ByteBuffer contents, long size, Options options, ResultCache cache){
+        this.fileName = fileName;
+        this.options = options;
+        this.cache = cache;
+        this.size = size;
+        this.contents = contents;
+        this.diagnostics = Sjavac.newDiagnosticList(options);
+        this.failure = null;
+    }
+
+    /**
+     * A constructor which receives the path of an input which could not be read, and the code of its
+     * failure, which the task reports as the input's only diagnostic.
+     * @param fileName - the given path.
+     * @param failure - the given code.
+     * @param options - the given options.
+     */
+    VerificationTask(String fileName, DiagnosticCode failure, Options options){
+        this.fileName = fileName;
+        this.options = options;
+        this.cache = null;
+        this.size = 0;
+        this.diagnostics = Sjavac.newDiagnosticList(options);
+        this.failure = failure;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Verify this task's file, or report the failure of its input.
+     */
+    protected void compute(){
+        if (this.failure != null){
+            this.diagnostics.add(new Diagnostic(this.failure, Diagnostic.NO_LINE, Diagnostic.NO_COLUMN,
+                    new Object[0]));
+            this.result = IO_EXCEPTION;
+        }
+        else if (this.contents != null){
+            this.result = this.collectEntry();
+        }
+        else if (this.cache != null){
+            this.result = this.cache.collect(this.fileName, this.options, this.diagnostics);
+        }
+        else {
+            this.result = Sjavac.collect(new String[]{this.fileName}, this.options, this.diagnostics);
+        }
+    }
+
+    /**
+     * Verify this task's archive entry, and release its contents.
+     * @return 0 if the entry's code is legal; 1 if it is illegal; 2 if an IO exception was caught; 3 if the
+     * verification exceeded its budget.
+     */
+    private int collectEntry(){
+        ByteBuffer contents = this.contents;
+        this.contents = null;
+        Budget budget = Sjavac.newBudget(this.options);
+        if (budget != null && !budget.checkSize(this.size)){
+            return Sjavac.collectFailure(budget, this.diagnostics);
+        }
+        if (this.cache != null){
+            return this.cache.collect(contents, budget, this.options, this.diagnostics);
+        }
+        return Sjavac.collect(contents, this.options, budget, this.diagnostics);
+    }
+
+    /**
+     * @return the path of this task's file.
+     */
+    String getFileName(){
+        return this.fileName;
+    }
+
+    /**
+     * @return the size of this task's file in bytes; 0 if it does not exist.
+     */
+    long getSize(){
+        return this.size;
+    }
+
+    /**
+     * This method assumes the task has completed.
+     * @return 0 if the file's code is legal; 1 if it is illegal; 2 if an IO exception was caught.
+     */
+    int getResult(){
+        return this.result;
+    }
+
+    /**
+     * This method assumes the task has completed.
+     * @return the diagnostics found while verifying the file.
+     */
+    DiagnosticList getDiagnostics(){
+        return this.diagnostics;
+    }
+}
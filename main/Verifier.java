@@ -0,0 +1,156 @@
+package oop.ex6.main;
+
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.DiagnosticList;
+import oop.ex6.parser.Parser;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * This class represents a verifier of s-java code held in memory, for programs which embed the verifier, such
+ * as build plugins which check generated code. The code is given as text, through a reader or as bytes, and
+ * is verified without a file, without printing anything, and without reading the command line options: the
+ * errors found are returned in a result instead. A verifier keeps no state between verifications, so a single
+ * verifier may be shared by any number of threads, and reused for every verification of a run.
+ * Code which is edited, such as in an editor, may also be verified incrementally: the first verification keeps
+ * a state of the code, and each edit is then verified with the state, parsing and executing only what the edit
+ * may have changed.
+ */
+public class Verifier {
+
+    /*----=   Constants  =----*/
+
+    private static final int DEFAULT_MAX_ERRORS = 1;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final int maxErrors;
+    private final long maxSize;
+    private final long timeLimit;
+
+    /*----=   Constructors  =----*/
+
+    /**
+     * The default constructor, for a verifier which finds the first error in the code, with no budget.
+     */
+    public Verifier(){
+        this(DEFAULT_MAX_ERRORS, Budget.UNLIMITED, Budget.UNLIMITED);
+    }
+
+    /**
+     * A constructor which receives the maximal number of errors to find in the code, as the --all-errors
+     * option does, and the budget of each verification, as the --max-size and --time-limit options do.
+     * @param maxErrors - the given number; 1 if only the first error is found.
+     * @param maxSize - the maximal size of the code, in bytes, or in characters if it is given as text;
+     * Budget.UNLIMITED if its size is not limited.
+     * @param timeLimit - the maximal time of each verification, in milliseconds; Budget.UNLIMITED if it is not
+     * limited.
+     * @throws IllegalArgumentException - if any of the given numbers is not positive.
+     */
+    public Verifier(int maxErrors, long maxSize, long timeLimit){
+        if (maxErrors <= 0 || maxSize <= 0 || timeLimit <= 0){
+            throw new IllegalArgumentException();
+        }
+        this.maxErrors = maxErrors;
+        this.maxSize = maxSize;
+        this.timeLimit = timeLimit;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Verify the given s-java code.
+     * @param code - the s-java code.
+     * @return the result of the verification.
+     */
+    public VerificationResult verify(CharSequence code){
+        DiagnosticList diagnostics = new DiagnosticList(this.maxErrors);
+        int result = Sjavac.collect(parser -> parser.getCommands(code), code.length(), this.newBudget(),
+                diagnostics);
+        return new VerificationResult(result, diagnostics);
+    }
+
+    /**
+     * Verify the s-java code read through the given reader. The reader is read to its end, but it is not
+     * closed. The size of the code is not known before it is read, so only the time of its verification is
+     * limited.
+     * @param reader - the given reader.
+     * @return the result of the verification.
+     */
+    public VerificationResult verify(Reader reader){
+        DiagnosticList diagnostics = new DiagnosticList(this.maxErrors);
+        int result = Sjavac.collect(parser -> parser.getCommands(reader), 0, this.newBudget(), diagnostics);
+        return new VerificationResult(result, diagnostics);
+    }
+
+    /**
+     * Verify the given s-java code, encoded with the default charset. The buffer's position is not changed.
+     * @param contents - the s-java code, between the buffer's position and limit.
+     * @return the result of the verification.
+     */
+    public VerificationResult verify(ByteBuffer contents){
+        DiagnosticList diagnostics = new DiagnosticList(this.maxErrors);
+        int result = Sjavac.collect(contents.duplicate(), this.newBudget(), diagnostics);
+        return new VerificationResult(result, diagnostics);
+    }
+
+    /**
+     * Verify the given s-java code, and keep a state of it, from which the code is verified again after each
+     * edit with verify(VerificationState, int, int, CharSequence). The result is that of verify(CharSequence).
+     * @param code - the s-java code.
+     * @return the state of the code, with the result of the verification.
+     */
+    public VerificationState verifyIncrementally(CharSequence code){
+        VerificationState state = new VerificationState(new Parser().getIncrementalCommands(code));
+        this.verifyEdited(state);
+        return state;
+    }
+
+    /**
+     * Replace the given lines of the code of the given state with the lines of the given text, and verify the
+     * edited code again. Only the lines of the units of code the edit changed are parsed again - a method, or a
+     * run of lines in the global scope - and only the method bodies which were parsed again, or which refer to a
+     * global variable or method whose declaration changed, are executed again; the time the verification takes
+     * therefore grows with the methods the edit changed, rather than with the code. The result is that of
+     * verify(CharSequence) for the edited code. A verifier which finds more than the first error verifies the
+     * whole edited code again, and a verification which exceeds its time limit leaves the method bodies it did
+     * not execute to the next one.
+     * @param state - the state of the code's last verification, which is updated.
+     * @param firstLine - the line number of the first line to replace.
+     * @param lastLine - the line number of the last line to replace; firstLine-1 if the text is inserted before
+     * the first line.
+     * @param lines - the text whose lines replace the given lines; an empty text if they are removed.
+     * @return the given state, with the result of the verification.
+     * @throws IllegalArgumentException - if the given lines are not lines of the code.
+     */
+    public VerificationState verify(VerificationState state, int firstLine, int lastLine, CharSequence lines){
+        state.getCommands().edit(firstLine, lastLine, lines);
+        this.verifyEdited(state);
+        return state;
+    }
+
+    /**
+     * Verify the edited code of the given state, and keep the result in the state.
+     * @param state - the given state.
+     */
+    private void verifyEdited(VerificationState state){
+        if (this.maxErrors > DEFAULT_MAX_ERRORS){
+            state.setResult(this.verify(state.getCommands().getText()));
+            return;
+        }
+        DiagnosticList diagnostics = new DiagnosticList(this.maxErrors);
+        int result = Sjavac.collect(state, this.newBudget(), diagnostics);
+        state.setResult(new VerificationResult(result, diagnostics));
+    }
+
+    /**
+     * @return a new budget for a verification, whose time starts now; null if the verification is not limited.
+     */
+    private Budget newBudget(){
+        if (this.maxSize == Budget.UNLIMITED && this.timeLimit == Budget.UNLIMITED){
+            return null;
+        }
+        return new Budget(this.maxSize, this.timeLimit);
+    }
+}
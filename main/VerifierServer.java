@@ -0,0 +1,369 @@
+package oop.ex6.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class represents a long-running verifier which serves verification requests over a local socket:
+ * a port of the local host, or a unix domain socket.
+ * Each connection may send any number of requests, one after the other:
+ *     verify PATH            - verify the s-java file at the given path.
+ *     contents LENGTH        - verify the s-java code in the LENGTH bytes which follow this line.
+ * The server answers each request with a 'message TEXT' line for each line of the informative messages,
+ * followed by a 'result CODE' line, where CODE is the result main would have printed for the same source.
+ * A contents request whose length is illegal is answered with a result of 2, and its connection is closed, as
+ * the bytes which follow it cannot be told apart from the next request.
+ * Verification runs on a fixed number of worker threads behind a bounded queue. When the queue is full,
+ * connections wait until there is room in it before their request is submitted. The bytes of contents
+ * requests are read only once the total size of the contents buffered across all connections, until they are
+ * verified, leaves room for them, and the number of open connections is bounded as well, so a burst of
+ * requests cannot exhaust the heap.
+ */
+class VerifierServer {
+
+    /*----=   Constants  =----*/
+
+    private final static int IO_EXCEPTION = 2;
+    private final static int QUEUE_CAPACITY = 64;
+    private final static int MAX_CONNECTIONS = 256;
+    private final static int MAX_CONTENTS_LENGTH = 64 << 20;
+    private final static int MAX_BUFFERED_CONTENTS = 256 << 20;
+    private final static long ACCEPT_RETRY_DELAY = 100;
+    private final static int MAX_REQUEST_LINE_LENGTH = 8192;
+    private final static char LINE_FEED = '\n';
+    private final static char CARRIAGE_RETURN = '\r';
+
+    // Request and response keywords.
+    private final static String VERIFY = "verify ";
+    private final static String CONTENTS = "contents ";
+    private final static String MESSAGE = "message ";
+    private final static String RESULT = "result ";
+
+    // Formats for IO messages that are generated by this class.
+    private final static String BAD_REQUEST = "IO exception: bad request.";
+    private final static String INTERRUPTED = "IO exception: verification interrupted.";
+    private final static String INTERNAL_ERROR = "Internal error: verification failed with ";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final String address;
+    private final Options options;
+    private final ThreadPoolExecutor verificationPool;
+    private final ExecutorService connectionPool;
+    private final Semaphore connectionPermits;
+    private final Semaphore contentsPermits;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the address to listen on, and the verification options.
+     * @param address - a port of the local host, or the path of a unix domain socket.
+     * @param options - the given options.
+     */
+    VerifierServer(String address, Options options){
+        int workers = Runtime.getRuntime().availableProcessors();
+        this.address = address;
+        this.options = options;
+        this.verificationPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), VerifierServer::waitForQueue);
+        this.connectionPool = Executors.newCachedThreadPool();
+        this.connectionPermits = new Semaphore(MAX_CONNECTIONS);
+        this.contentsPermits = new Semaphore(MAX_BUFFERED_CONTENTS, true);
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Block the submitting thread until the given task fits in the given pool's queue.
+     * @param task - the given task.
+     * @param pool - the given pool.
+     */
+    private static void waitForQueue(Runnable task, ThreadPoolExecutor pool){
+        try {
+            pool.getQueue().put(task);
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Listen on this server's address and serve connections until the thread is interrupted. A connection
+     * which could not be accepted, such as when the process has run out of file descriptors, is given up, and
+     * the next one is accepted after a short delay.
+     * @throws IOException - if the address could not be bound, or the server channel was closed.
+     */
+    void run() throws IOException {
+        try (ServerSocketChannel serverChannel = this.bind()){
+            while (!Thread.currentThread().isInterrupted()){
+                this.connectionPermits.acquireUninterruptibly();
+                SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                }
+                catch (ClosedChannelException e){
+                    this.connectionPermits.release();
+                    throw e;
+                }
+                catch (IOException e){
+                    this.connectionPermits.release();
+                    this.waitBeforeAccepting();
+                    continue;
+                }
+                this.connectionPool.execute(() -> this.serve(channel));
+            }
+        }
+        finally {
+            this.connectionPool.shutdownNow();
+            this.verificationPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait a short while before accepting the next connection, so a failure which lasts does not keep the
+     * thread busy. An interrupt ends the wait, and is kept for run() to stop on.
+     */
+    private void waitBeforeAccepting(){
+        try {
+            Thread.sleep(ACCEPT_RETRY_DELAY);
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Open a server channel bound to this server's address.
+     * @return the bound server channel.
+     * @throws IOException - if the address could not be bound.
+     */
+    private ServerSocketChannel bind() throws IOException {
+        SocketAddress socketAddress;
+        ServerSocketChannel serverChannel;
+        if (this.address.chars().allMatch(Character::isDigit)){
+            int port = Integer.parseInt(this.address);
+            socketAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.INET);
+        }
+        else {
+            Path socketPath = Path.of(this.address);
+            Files.deleteIfExists(socketPath);
+            socketAddress = UnixDomainSocketAddress.of(socketPath);
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        }
+        serverChannel.bind(socketAddress);
+        return serverChannel;
+    }
+
+    /**
+     * Serve the requests of the given connection until it is closed by the client, or a request ends it.
+     * @param channel - the given connection.
+     */
+    private void serve(SocketChannel channel){
+        try (SocketChannel connection = channel){
+            InputStream input = new BufferedInputStream(Channels.newInputStream(connection));
+            Writer output = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(connection),
+                    StandardCharsets.UTF_8));
+            String request = this.readRequestLine(input);
+            while (request != null){
+                Response response = this.handle(request, input);
+                this.respond(response, output);
+                if (response.endsConnection){
+                    break;
+                }
+                request = this.readRequestLine(input);
+            }
+        }
+        catch (IOException e){
+            // The client has gone away; there is no one left to report to.
+        }
+        finally {
+            this.connectionPermits.release();
+        }
+    }
+
+    /**
+     * Verify the source of the given request on the verification pool.
+     * @param request - the given request line.
+     * @param input - the stream the rest of the request is read from.
+     * @return the response: the informative messages followed by the result.
+     * @throws IOException - if the request could not be read.
+     */
+    private Response handle(String request, InputStream input) throws IOException {
+        if (request.startsWith(VERIFY)){
+            String[] args = {request.substring(VERIFY.length())};
+            return this.await(this.verificationPool.submit(() ->
+                    verify(errorStream -> Sjavac.verify(args, this.options, errorStream))));
+        }
+        if (!request.startsWith(CONTENTS)){
+            return new Response(IO_EXCEPTION, BAD_REQUEST, false);
+        }
+        int length = this.parseLength(request.substring(CONTENTS.length()));
+        if (length < 0){
+            return new Response(IO_EXCEPTION, BAD_REQUEST, true);
+        }
+        try {
+            this.contentsPermits.acquire(length);
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(INTERRUPTED);
+        }
+        try {
+            byte[] contents = input.readNBytes(length);
+            if (contents.length != length){
+                throw new IOException(BAD_REQUEST);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(contents);
+            return this.await(this.verificationPool.submit(() ->
+                    verify(errorStream -> Sjavac.verify(buffer, this.options, errorStream))));
+        }
+        finally {
+            this.contentsPermits.release(length);
+        }
+    }
+
+    /**
+     * Wait for the given verification to complete. A verification which failed with an exception, rather than
+     * with a result, is reported as an internal error.
+     * @param future - the given verification.
+     * @return the response: the informative messages followed by the result.
+     */
+    private Response await(Future<Response> future){
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            return new Response(IO_EXCEPTION, INTERRUPTED, true);
+        }
+        catch (ExecutionException e){
+            return new Response(IO_EXCEPTION, INTERNAL_ERROR+e.getCause(), false);
+        }
+    }
+
+    /**
+     * Run the given verification, collecting the informative messages it prints.
+     * @param verification - the given verification, which prints to the given stream and returns a result.
+     * @return the response: the informative messages followed by the result.
+     */
+    private static Response verify(ToIntFunction<PrintStream> verification){
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream errorStream = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        int result = verification.applyAsInt(errorStream);
+        errorStream.flush();
+        return new Response(result, buffer.toString(StandardCharsets.UTF_8), false);
+    }
+
+    /**
+     * @param length - the given length text.
+     * @return the length as a number, if it is a legal contents length; -1 otherwise.
+     */
+    private int parseLength(String length){
+        try {
+            int value = Integer.parseInt(length.trim());
+            return value <= MAX_CONTENTS_LENGTH ? value : -1;
+        }
+        catch (NumberFormatException e){
+            return -1;
+        }
+    }
+
+    /**
+     * Read the next request line from the given stream.
+     * @param input - the given stream.
+     * @return the request line without its line terminator; null if the stream has ended.
+     * @throws IOException - if the stream could not be read, or the line is too long.
+     */
+    private String readRequestLine(InputStream input) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b = input.read();
+        if (b == -1){
+            return null;
+        }
+        while (b != -1 && b != LINE_FEED){
+            if (line.size() >= MAX_REQUEST_LINE_LENGTH){
+                throw new IOException(BAD_REQUEST);
+            }
+            if (b != CARRIAGE_RETURN){
+                line.write(b);
+            }
+            b = input.read();
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the given response to the given writer.
+     * @param response - the given response.
+     * @param output - the given writer.
+     * @throws IOException - if the response could not be written.
+     */
+    private void respond(Response response, Writer output) throws IOException {
+        for (String message: response.messages.split("\n")){
+            if (!message.trim().isEmpty()){
+                output.write(MESSAGE+message+LINE_FEED);
+            }
+        }
+        output.write(RESULT+response.result+LINE_FEED);
+        output.flush();
+    }
+
+    /*----=   Nested Classes  =----*/
+
+    /**
+     * This class represents the response to a single request.
+     */
+    private static class Response {
+
+        private final int result;
+        private final String messages;
+        private final boolean endsConnection;
+
+        /**
+         * A constructor which receives the result and informative messages of a verification.
+         * @param result - the given result.
+         * @param messages - the given informative messages.
+         * @param endsConnection - true if the connection is closed once the response is written, as the rest
+         * of the request could not be read; false otherwise.
+         */
+        Response(int result, String messages, boolean endsConnection){
+            this.result = result;
+            this.messages = messages;
+            this.endsConnection = endsConnection;
+        }
+    }
+}
@@ -9,17 +9,17 @@ public class Parameter {
 
     private final boolean isFinal;
     private final Variable.Type parameterType;
-    private final String parameterName;
+    private final Symbol parameterSymbol;
 
     /*----=   Constructor  =----*/
 
     /**
-     * A constructor which receives this parameter's final modifier, type, and name.
+     * A constructor which receives this parameter's final modifier, type, and symbol.
      */
-    public Parameter(boolean isFinal, Variable.Type parameterType, String parameterName){
+    public Parameter(boolean isFinal, Variable.Type parameterType, Symbol parameterSymbol){
         this.isFinal = isFinal;
         this.parameterType = parameterType;
-        this.parameterName = parameterName;
+        this.parameterSymbol = parameterSymbol;
     }
 
     /*----=   Instance Methods  =----*/
@@ -38,10 +38,17 @@ public class Parameter {
         return this.parameterType;
     }
 
+    /**
+     * @return this parameter's symbol;
+     */
+    public Symbol getParameterSymbol(){
+        return this.parameterSymbol;
+    }
+
     /**
      * @return this parameter's name;
      */
     public String getParameterName(){
-        return this.parameterName;
+        return this.parameterSymbol.getName();
     }
 }
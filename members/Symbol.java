@@ -0,0 +1,50 @@
+package oop.ex6.members;
+
+/**
+ * This class represents a variable or method name in an s-java file, interned by the parser into a dense int
+ * id. Equal names in a single file are represented by a single symbol, so scopes look names up by their id
+ * and never hash or compare their characters.
+ */
+public final class Symbol {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final int symbolId;
+    private final String symbolName;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives this symbol's id and name.
+     * @param symbolId - the given id.
+     * @param symbolName - the given name.
+     */
+    public Symbol(int symbolId, String symbolName){
+        this.symbolId = symbolId;
+        this.symbolName = symbolName;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return this symbol's id.
+     */
+    public int getId(){
+        return this.symbolId;
+    }
+
+    /**
+     * @return this symbol's name.
+     */
+    public String getName(){
+        return this.symbolName;
+    }
+
+    /**
+     * @return this symbol's name.
+     */
+    @Override
+    public String toString(){
+        return this.symbolName;
+    }
+}
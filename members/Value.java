@@ -6,10 +6,21 @@ package oop.ex6.members;
  */
 public class Value {
 
+    /*----=   Constants  =----*/
+
+    // The single value of each s-java type, indexed by the type's ordinal.
+    private static final Value[] typeValues = new Value[Variable.Type.values().length];
+
+    static {
+        for (Variable.Type valueType: Variable.Type.values()){
+            typeValues[valueType.ordinal()] = new Value(valueType);
+        }
+    }
+
     /*----=   Instance Data Members  =----*/
 
     private final Variable.Type valueType;
-    private final String valueName;
+    private final Symbol valueSymbol;
 
     /*----=   Constructor  =----*/
 
@@ -17,18 +28,30 @@ public class Value {
      * A constructor for a value which is a legal input for an s-java type.
      * @param valueType - the s-java type corresponding to this value.
      */
-    public Value(Variable.Type valueType){
+    private Value(Variable.Type valueType){
         this.valueType = valueType;
-        this.valueName = null;
+        this.valueSymbol = null;
     }
 
     /**
      * A constructor for a value which is a reference to an initialized variable.
-     * @param valueName - the variable's name.
+     * @param valueSymbol - the variable's symbol.
      */
-    public Value(String valueName){
+    public Value(Symbol valueSymbol){
         this.valueType = null;
-        this.valueName = valueName;
+        this.valueSymbol = valueSymbol;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Values which are legal inputs for the same s-java type are equal, so a single value of each type is
+     * shared by all of them.
+     * @param valueType - the given s-java type.
+     * @return the value which is a legal input for the given s-java type.
+     */
+    public static Value of(Variable.Type valueType){
+        return typeValues[valueType.ordinal()];
     }
 
     /*----=   Instance Methods  =----*/
@@ -40,10 +63,17 @@ public class Value {
         return this.valueType;
     }
 
+    /**
+     * @return the symbol of this value if it is a reference to a variable; null otherwise.
+     */
+    public Symbol getValueSymbol(){
+        return this.valueSymbol;
+    }
+
     /**
      * @return the name of this value if it is a reference to a variable; null otherwise.
      */
     public String getValueName(){
-        return this.valueName;
+        return this.valueSymbol == null ? null : this.valueSymbol.getName();
     }
 }
@@ -1,5 +1,7 @@
 package oop.ex6.members;
 
+import oop.ex6.diagnostics.DiagnosticCode;
+
 /**
  * This class represents a variable in an s-java file.
  */
@@ -7,16 +9,6 @@ public class Variable {
 
     /*----=   Constants  =----*/
 
-    // Formats for variable exceptions that are generated by this class.
-    private final static String UNINITIALIZED_FINAL =
-            "final variable must be initialized during construction.";
-    private final static String ILLEGAL_ASSIGNMENT_1 =
-            "variables of type ";
-    private final static String ILLEGAL_ASSIGNMENT_2 =
-            " cannot be assigned values of type ";
-    private final static String FINAL_ASSIGNMENT =
-            "cannot assign a value to final variable";
-
     // Constants matching the toString() output of each variable type.
     private final static String TYPE_INT = "INT";
     private final static String TYPE_STRING = "STRING";
@@ -43,6 +35,17 @@ public class Variable {
         CHAR(charAssignableTypes),
         DOUBLE(doubleAssignableTypes);
 
+        // For each variable type, a bitmask of the ordinals of the variable types which may be assigned to it.
+        private static final int[] assignableTypeMasks = new int[values().length];
+
+        static {
+            for (Type type: values()){
+                for (String assignableType: type.assignableTypes){
+                    assignableTypeMasks[type.ordinal()] |= 1 << valueOf(assignableType).ordinal();
+                }
+            }
+        }
+
         private final String[] assignableTypes;
 
         /**
@@ -58,12 +61,7 @@ public class Variable {
          * @return true if the given variable type may be assigned to this variable type; false otherwise.
          */
         public boolean accepts(Variable.Type type){
-            for (String assignableType: this.assignableTypes){
-                if (assignableType.equals(type.toString())){
-                    return true;
-                }
-            }
-            return false;
+            return (assignableTypeMasks[this.ordinal()] & 1 << type.ordinal()) != 0;
         }
     }
 
@@ -103,7 +101,7 @@ public class Variable {
      */
     private void assignNullValue() throws VariableException {
         if (this.isFinal){
-            throw new VariableException(UNINITIALIZED_FINAL);
+            throw new VariableException(DiagnosticCode.UNINITIALIZED_FINAL);
         }
         this.valueType = null;
     }
@@ -117,9 +115,7 @@ public class Variable {
         if (this.variableType.accepts(valueType)) {
             this.valueType = valueType;
         } else {
-            throw new VariableException
-                    (ILLEGAL_ASSIGNMENT_1+this.variableType.toString()+ILLEGAL_ASSIGNMENT_2+
-                            valueType.toString()+".");
+            throw new VariableException(DiagnosticCode.ILLEGAL_ASSIGNMENT, this.variableType, valueType);
         }
     }
 
@@ -130,10 +126,24 @@ public class Variable {
      * if this variable's input value cannot be assigned to the variable's type.
      */
     public void assignVariable(Variable.Type valueType) throws VariableException { //variableTypes != null
+        this.verifyAssignment(valueType);
+        this.valueType = valueType;
+    }
+
+    /**
+     * Verifies that a new input value may be assigned to this variable, without assigning it. This method
+     * assumes the new input is not null.
+     * @param valueType - the given input value.
+     * @throws VariableException - if this variable final and cannot be modified; or
+     * if this variable's input value cannot be assigned to the variable's type.
+     */
+    public void verifyAssignment(Variable.Type valueType) throws VariableException {
         if (this.isFinal){
-            throw new VariableException(FINAL_ASSIGNMENT);
+            throw new VariableException(DiagnosticCode.FINAL_ASSIGNMENT);
+        }
+        if (!this.variableType.accepts(valueType)){
+            throw new VariableException(DiagnosticCode.ILLEGAL_ASSIGNMENT, this.variableType, valueType);
         }
-        this.assignNewValue(valueType);
     }
 
     /**
@@ -144,11 +154,12 @@ public class Variable {
     }
 
     /**
-     * @return a deep copy of this variable.
-     * @throws VariableException - if construction of the deep copy fails; this exception should not be
-     * reachable.
+     * @param variable - the given variable.
+     * @return true if the given variable has the same modifier, type and value type as this variable; false
+     * otherwise.
      */
-    public Variable copy() throws VariableException {
-        return new Variable(this.isFinal, this.variableType, this.valueType);
+    public boolean isSameAs(Variable variable){
+        return this.isFinal == variable.isFinal && this.variableType == variable.variableType &&
+                this.valueType == variable.valueType;
     }
 }
@@ -1,5 +1,6 @@
 package oop.ex6.members;
 
+import oop.ex6.diagnostics.DiagnosticCode;
 import oop.ex6.executer.ExecutorException;
 
 /**
@@ -7,29 +8,14 @@ import oop.ex6.executer.ExecutorException;
  */
 public class VariableException extends ExecutorException {
 
-    /*----=   Instance Data Members  =----*/
-
-    private final String detail_message;
-    private final static String detail_message_header = "Variable exception: ";
-
     /*----=   Constructor  =----*/
 
     /**
-     * A constructor which receives a detail message.
-     * @param message - the given detail message.
+     * A constructor which receives the code and arguments of this exception's message.
+     * @param code - the given code.
+     * @param arguments - the arguments of the code's message.
      */
-    public VariableException(String message){
-        this.detail_message = message+"\n";
+    public VariableException(DiagnosticCode code, Object... arguments){
+        super(code, arguments);
     }
-
-    /*----=   Instance Methods  =----*/
-
-    /**
-     * @return this exception's header and detail message.
-     */
-    public String getMessage(){
-        return detail_message_header+this.detail_message;
-    }
-
-
 }
@@ -0,0 +1,113 @@
+package oop.ex6.parser;
+
+import oop.ex6.diagnostics.DiagnosticCode;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents the commands of an s-java file which was parsed in bounded memory: the program of its
+ * global scope commands, followed by a program for each of its method bodies, which is parsed again from the
+ * file only when the executor reaches it. The file is read again once, from its beginning to its last method
+ * body, so only one method body's commands are held at a time. If the file cannot be read again, or no
+ * longer holds the method bodies it held when it was first parsed, the failure is kept until the executor
+ * has received the commands parsed before it.
+ */
+public class BoundedCommands implements Iterable<Program> {
+
+    /*----=   Constants  =----*/
+
+    private static final Program EMPTY = new ProgramBuilder().build();
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Parser parser;
+    private final Source.Opener opener;
+    private final Program globalScopeCommands;
+    private final int[] methodLines;
+    private Source source;
+    private ParserIOException failure;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the parser which parsed the file, and what it kept of the file's commands.
+     * @param parser - the given parser.
+     * @param opener - the way of opening the file again, from its beginning.
+     * @param globalScopeCommands - the program of the file's global scope commands.
+     * @param methodLines - the line numbers of each method's declaration and closing brace, one after the
+     * other, in the order of the methods in the file.
+     */
+    BoundedCommands(Parser parser, Source.Opener opener, Program globalScopeCommands, int[] methodLines){
+        this.parser = parser;
+        this.opener = opener;
+        this.globalScopeCommands = globalScopeCommands;
+        this.methodLines = methodLines;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * The returned iterator parses each method body as it is reached, and may only be used once.
+     * @return an iterator over the global scope commands, followed by each method body's commands.
+     */
+    public Iterator<Program> iterator(){
+        return new Iterator<Program>() {
+
+            private int index = -1;
+
+            public boolean hasNext(){
+                return this.index < methodLines.length/2 && failure == null;
+            }
+
+            public Program next(){
+                if (!this.hasNext()){
+                    throw new NoSuchElementException();
+                }
+                Program program = this.index == -1 ? globalScopeCommands : reparse(this.index);
+                this.index++;
+                return program;
+            }
+        };
+    }
+
+    /**
+     * Parse the given method body again from the file, opening the file on the first method body.
+     * @param method - the index of the method in the file.
+     * @return the program of the method body's commands; an empty program if the method body could not be
+     * parsed again, in which case the failure is kept.
+     */
+    private Program reparse(int method){
+        try {
+            if (this.source == null){
+                this.source = this.opener.open();
+            }
+            return this.parser.reparseMethodBody(this.source, this.methodLines[method*2],
+                    this.methodLines[method*2+1]);
+        }
+        catch (IOException e){
+            this.failure = new ParserIOException(DiagnosticCode.SOURCE_CHANGED);
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Close the file, if it was read again, and throw the exception its method bodies failed with, if any.
+     * @throws ParserIOException - if the file could not be read again, or no longer holds its method bodies.
+     */
+    public void rethrowFailure() throws ParserIOException {
+        if (this.source != null){
+            try {
+                this.source.close();
+            }
+            catch (IOException e){
+                // The method bodies were already read.
+            }
+            this.source = null;
+        }
+        if (this.failure != null){
+            throw this.failure;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package oop.ex6.parser;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * This class represents a bounded hand-off of program segments from a parser thread to an executor.
+ * The parser puts the global scope commands in small segments as soon as they are parsed, and the commands
+ * of the local scopes once the whole file has been parsed, so the executor receives the commands in the same
+ * order as getCommands() returns them. If the parser fails, the failure is kept until the executor has
+ * received all the commands parsed before it.
+ */
+public class CommandPipeline implements Iterable<Program> {
+
+    /*----=   Constants  =----*/
+
+    private static final int CAPACITY = 16;
+    private static final Program END = new ProgramBuilder().build();
+
+    /*----=   Instance Data Members  =----*/
+
+    private final ArrayBlockingQueue<Program> queue;
+    private volatile boolean cancelled;
+    private volatile Exception failure;
+    private Thread parserThread;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * The default constructor.
+     */
+    CommandPipeline(){
+        this.queue = new ArrayBlockingQueue<>(CAPACITY);
+        this.cancelled = false;
+    }
+
+    /*----=   Instance Methods: 1. Parser Side  =----*/
+
+    /**
+     * Start the given parsing on a new thread.
+     * @param parsing - the parsing, which puts its commands in this pipeline.
+     */
+    void start(Runnable parsing){
+        this.parserThread = new Thread(parsing);
+        this.parserThread.setDaemon(true);
+        this.parserThread.start();
+    }
+
+    /**
+     * Hand off the given segment, waiting while the pipeline is full. Segments are dropped once the pipeline
+     * has been cancelled.
+     * @param segment - the given segment.
+     */
+    void put(Program segment){
+        if (this.cancelled){
+            return;
+        }
+        try {
+            this.queue.put(segment);
+        }
+        catch (InterruptedException e){
+            this.cancelled = true;
+        }
+    }
+
+    /**
+     * Signal that the parser has handed off all of its commands.
+     */
+    void close(){
+        this.put(END);
+    }
+
+    /**
+     * Signal that the parser has failed, after handing off the given commands parsed before the failure.
+     * @param failure - the parser's syntax or IO exception.
+     */
+    void fail(Exception failure){
+        this.failure = failure;
+        this.put(END);
+    }
+
+    /**
+     * @return true if the executor has stopped receiving commands; false otherwise.
+     */
+    boolean isCancelled(){
+        return this.cancelled;
+    }
+
+    /*----=   Instance Methods: 2. Executor Side  =----*/
+
+    /**
+     * The returned iterator waits for each segment to be handed off, and may only be used once.
+     * @return an iterator over the handed off segments.
+     */
+    public Iterator<Program> iterator(){
+        return new Iterator<Program>() {
+
+            private Program next;
+
+            public boolean hasNext(){
+                if (this.next == null){
+                    this.next = take();
+                }
+                return this.next != END;
+            }
+
+            public Program next(){
+                if (!this.hasNext()){
+                    throw new NoSuchElementException();
+                }
+                Program segment = this.next;
+                this.next = null;
+                return segment;
+            }
+        };
+    }
+
+    /**
+     * Wait for the next handed off segment.
+     * @return the next segment; END if the parser has finished, or the waiting thread was interrupted.
+     */
+    private Program take(){
+        try {
+            return this.queue.take();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            this.cancel();
+            return END;
+        }
+    }
+
+    /**
+     * Stop receiving commands, and stop the parser as soon as possible.
+     */
+    public void cancel(){
+        this.cancelled = true;
+        this.queue.clear();
+        if (this.parserThread != null){
+            this.parserThread.interrupt();
+        }
+    }
+
+    /**
+     * Wait for the parser to finish, and throw the exception it failed with, if any.
+     * @throws ParserSyntaxException - if the parser encountered a syntax error.
+     * @throws ParserIOException - if the parser encountered an IO exception.
+     */
+    public void rethrowFailure() throws ParserSyntaxException, ParserIOException {
+        try {
+            this.parserThread.join();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        if (this.failure instanceof ParserSyntaxException){
+            throw (ParserSyntaxException) this.failure;
+        }
+        if (this.failure instanceof ParserIOException){
+            throw (ParserIOException) this.failure;
+        }
+    }
+}
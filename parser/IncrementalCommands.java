@@ -0,0 +1,459 @@
+package oop.ex6.parser;
+
+import oop.ex6.diagnostics.Diagnostic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * This class represents the commands of an s-java file which is edited, such as in an editor, kept in units of
+ * lines which are parsed again only when an edit changes them. A unit is either a block opened in the global
+ * scope, such as a method, from the line which opens it to the line which closes it, or a run of consecutive
+ * lines in the global scope. The units are found by the scan of the blocks each line opens and closes which
+ * the parallel parser cuts a file with, so each unit begins in the global scope with no block open, and its
+ * commands are those a parser of the whole file adds for its lines.
+ * An edit scans the lines again from the beginning of the unit it begins in, until the scan reaches, after the
+ * edited lines, the beginning of a unit from before the edit; only the units in between are parsed again, and
+ * the units after them are kept. The line numbers of a unit's commands are counted from its first line, so a
+ * unit which an edit moves is not changed. Each unit has an id of its own, and the ids of the units added and
+ * removed since the executor last carried out the changes are kept for it, along with whether the global scope
+ * commands may have changed.
+ */
+public class IncrementalCommands {
+
+    /*----=   Constants  =----*/
+
+    private static final Program EMPTY = new ProgramBuilder().build();
+    private static final int GLOBAL_LINES_PER_UNIT = 64;
+    private static final char LINE_FEED = '\n';
+    private static final char LEFT_BRACE_CHAR = '{';
+    private static final char RIGHT_BRACE_CHAR = '}';
+
+    // The prefixes of the keys of a unit's global scope commands: those parsed from its first line alone, those
+    // parsed from all of its lines, and those of a unit with a syntax error.
+    private static final char FIRST_LINE_KEY = 'L';
+    private static final char TEXT_KEY = 'T';
+    private static final char FAILURE_KEY = 'F';
+    private static final String NO_KEY = "";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Parser parser;
+    private final Lexer lexer;
+    private final ArrayList<String> lines;
+    private final ArrayList<Unit> units;
+    private final HashMap<Integer, Unit> unitsById;
+    private final HashSet<Unit> failedUnits;
+    private final LinkedHashSet<Integer> addedUnits;
+    private final ArrayList<Integer> removedUnits;
+    private boolean hasGlobalScopeChanged;
+    private long length;
+    private int nextId;
+
+    /*----=   Nested Classes  =----*/
+
+    /**
+     * This class represents a unit of the file's lines, and the commands parsed from them.
+     */
+    private static class Unit {
+
+        private final int id;
+        private int firstLine;
+        private final int linesCount;
+        private final boolean isOpen;
+        private Program globalScopeCommands = EMPTY;
+        private Program methodCommands = EMPTY;
+        private ParserSyntaxException failure;
+        private String globalKey;
+
+        /**
+         * A constructor which receives the unit's id and lines.
+         * @param id - the given id.
+         * @param firstLine - the line number of the unit's first line.
+         * @param linesCount - the number of the unit's lines.
+         * @param isOpen - true if the unit is a block which is still open at the file's last line; false
+         * otherwise.
+         */
+        Unit(int id, int firstLine, int linesCount, boolean isOpen){
+            this.id = id;
+            this.firstLine = firstLine;
+            this.linesCount = linesCount;
+            this.isOpen = isOpen;
+        }
+    }
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor for the commands of an empty file, which receives the parser which parses its units.
+     * @param parser - the given parser.
+     */
+    IncrementalCommands(Parser parser){
+        this.parser = parser;
+        this.lexer = new Lexer();
+        this.lines = new ArrayList<>();
+        this.units = new ArrayList<>();
+        this.unitsById = new HashMap<>();
+        this.failedUnits = new HashSet<>();
+        this.addedUnits = new LinkedHashSet<>();
+        this.removedUnits = new ArrayList<>();
+    }
+
+    /*----=   Instance Methods: 1. Editing  =----*/
+
+    /**
+     * Replace the given lines of the file with the lines of the given text, and parse the units the edit
+     * changed again.
+     * @param firstLine - the line number of the first line to replace.
+     * @param lastLine - the line number of the last line to replace; firstLine-1 if the text is inserted before
+     * the first line.
+     * @param text - the text whose lines replace the given lines; an empty text if they are removed.
+     * @throws IllegalArgumentException - if the given lines are not lines of the file.
+     */
+    public void edit(int firstLine, int lastLine, CharSequence text){
+        if (firstLine < 1 || lastLine < firstLine-1 || lastLine > this.lines.size()){
+            throw new IllegalArgumentException();
+        }
+        ArrayList<String> newLines = new ArrayList<>();
+        TextSource source = new TextSource(text);
+        while (source.nextLine()){
+            newLines.add(source.getLine().toString());
+        }
+        List<String> replacedLines = this.lines.subList(firstLine-1, lastLine);
+        for (String line: replacedLines){
+            this.length -= line.length()+1;
+        }
+        replacedLines.clear();
+        this.lines.addAll(firstLine-1, newLines);
+        for (String line: newLines){
+            this.length += line.length()+1;
+        }
+        this.scan(firstLine, lastLine, newLines.size());
+    }
+
+    /**
+     * Scan the lines of the units the given edit changed, replace these units with the units found, and parse
+     * them. The scan begins at the beginning of the unit the edit begins in - or, if the edit adds lines after
+     * the file's last line, after the last unit unless it is still open - and ends at the file's end, or at
+     * the first line after the edited lines which begins a unit from before the edit. A run of global scope
+     * lines also ends at such a line.
+     * @param firstLine - the line number of the first line the edit replaced.
+     * @param lastLine - the line number of the last line the edit replaced, before the edit.
+     * @param addedLines - the number of lines which replaced them.
+     */
+    private void scan(int firstLine, int lastLine, int addedLines){
+        int moved = addedLines-(lastLine-firstLine+1);
+        int editEnd = firstLine+addedLines;
+        int first = this.findUnit(firstLine);
+        int next = first;
+        int line = first < this.units.size() ? this.units.get(first).firstLine : firstLine;
+        ArrayList<Unit> scannedUnits = new ArrayList<>();
+        while (line <= this.lines.size()){
+            if (line >= editEnd){
+                while (next < this.units.size() && this.units.get(next).firstLine+moved < line){
+                    next++;
+                }
+                if (next < this.units.size() && this.units.get(next).firstLine+moved == line){
+                    break;
+                }
+            }
+            Unit unit = this.scanUnit(line, editEnd, next, moved);
+            scannedUnits.add(unit);
+            line += unit.linesCount;
+        }
+        if (line > this.lines.size()){
+            next = this.units.size();
+        }
+        this.replaceUnits(first, next, scannedUnits, moved);
+    }
+
+    /**
+     * @param line - the line number of the first line an edit replaced.
+     * @return the index of the unit the scan of the edit begins at: the unit which holds the given line; or, if
+     * the given line is after the file's last line, the last unit if it is still open, and the number of units
+     * otherwise.
+     */
+    private int findUnit(int line){
+        int low = 0;
+        int high = this.units.size()-1;
+        while (low <= high){
+            int middle = (low+high) >>> 1;
+            if (this.units.get(middle).firstLine <= line){
+                low = middle+1;
+            }
+            else {
+                high = middle-1;
+            }
+        }
+        if (high < 0){
+            return 0;
+        }
+        Unit unit = this.units.get(high);
+        return unit.firstLine+unit.linesCount > line || unit.isOpen ? high : high+1;
+    }
+
+    /**
+     * Scan the unit which begins at the given line: a block, if the line opens one, up to the line which
+     * closes it; or a run of global scope lines, up to the next line which opens a block, the first line after
+     * the edit which begins a unit from before the edit, or as many lines as a run may hold.
+     * @param line - the line number of the unit's first line.
+     * @param editEnd - the line number of the first line after the edited lines.
+     * @param next - the index of the first unit from before the edit which the scan has not passed.
+     * @param moved - the number of lines the edit added, or minus the number it removed.
+     * @return the unit, which is not parsed yet.
+     */
+    private Unit scanUnit(int line, int editEnd, int next, int moved){
+        int end = line+1;
+        if (this.getBraces(line) > 0){
+            int depth = 1;
+            while (depth > 0 && end <= this.lines.size()){
+                depth += this.getBraces(end);
+                end++;
+            }
+            return new Unit(this.nextId++, line, end-line, depth > 0);
+        }
+        while (end <= this.lines.size() && end-line < GLOBAL_LINES_PER_UNIT && this.getBraces(end) <= 0){
+            while (next < this.units.size() && this.units.get(next).firstLine+moved < end){
+                next++;
+            }
+            if (end >= editEnd && next < this.units.size() && this.units.get(next).firstLine+moved == end){
+                break;
+            }
+            end++;
+        }
+        return new Unit(this.nextId++, line, end-line, false);
+    }
+
+    /**
+     * A block is opened by each line which ends with '{' and closed by each line which ends with '}', unless it
+     * is a comment, whatever the rest of the line is, just as the parser opens and closes blocks.
+     * @param line - the line number of a line.
+     * @return 1 if the line opens a block; -1 if it closes one; 0 otherwise.
+     */
+    private int getBraces(int line){
+        this.lexer.reset(this.lines.get(line-1));
+        if (this.lexer.isComment() || this.lexer.isBlank()){
+            return 0;
+        }
+        if (this.lexer.endsWith(LEFT_BRACE_CHAR)){
+            return 1;
+        }
+        return this.lexer.endsWith(RIGHT_BRACE_CHAR) ? -1 : 0;
+    }
+
+    /**
+     * Replace the given units with the given scanned units, move the units after them by the number of lines
+     * the edit added or removed, and parse the scanned units. The global scope commands may have changed if the
+     * keys of the replaced units' global scope commands differ from those of the scanned units.
+     * @param first - the index of the first unit to replace.
+     * @param next - the index after the last unit to replace.
+     * @param scannedUnits - the scanned units.
+     * @param moved - the number of lines the edit added, or minus the number it removed.
+     */
+    private void replaceUnits(int first, int next, ArrayList<Unit> scannedUnits, int moved){
+        List<Unit> replacedUnits = this.units.subList(first, next);
+        StringBuilder replacedKeys = new StringBuilder();
+        for (Unit unit: replacedUnits){
+            appendKey(replacedKeys, unit);
+            this.unitsById.remove(unit.id);
+            this.failedUnits.remove(unit);
+            if (!this.addedUnits.remove(unit.id)){
+                this.removedUnits.add(unit.id);
+            }
+        }
+        replacedUnits.clear();
+        for (int i=first; i<this.units.size(); i++){
+            this.units.get(i).firstLine += moved;
+        }
+        StringBuilder scannedKeys = new StringBuilder();
+        for (Unit unit: scannedUnits){
+            this.parse(unit);
+            appendKey(scannedKeys, unit);
+            this.unitsById.put(unit.id, unit);
+            this.addedUnits.add(unit.id);
+        }
+        this.units.addAll(first, scannedUnits);
+        if (!replacedKeys.toString().contentEquals(scannedKeys)){
+            this.hasGlobalScopeChanged = true;
+        }
+    }
+
+    /**
+     * Append the key of the given unit's global scope commands to the given keys, followed by a line feed. A
+     * unit without global scope commands, such as a run of comments, has no key.
+     * @param keys - the given keys.
+     * @param unit - the given unit.
+     */
+    private static void appendKey(StringBuilder keys, Unit unit){
+        if (!unit.globalKey.isEmpty()){
+            keys.append(unit.globalKey).append(LINE_FEED);
+        }
+    }
+
+    /**
+     * Parse the given unit, and key its global scope commands by the text they were parsed from: the first
+     * line alone if they were all parsed from it, such as a method's declaration, and all of the unit's lines
+     * otherwise. A unit with a syntax error has a key of its own.
+     * @param unit - the given unit.
+     */
+    private void parse(Unit unit){
+        StringBuilder text = new StringBuilder();
+        for (int line=unit.firstLine; line<unit.firstLine+unit.linesCount; line++){
+            text.append(this.lines.get(line-1)).append(LINE_FEED);
+        }
+        try {
+            Program[] programs = this.parser.parseUnit(text);
+            unit.globalScopeCommands = programs[0];
+            unit.methodCommands = programs[1];
+            Program globalScopeCommands = unit.globalScopeCommands;
+            if (globalScopeCommands.size() == 0){
+                unit.globalKey = NO_KEY;
+            }
+            else if (globalScopeCommands.getLineNumber(globalScopeCommands.getEnd()-1) == 1){
+                unit.globalKey = FIRST_LINE_KEY+this.lines.get(unit.firstLine-1);
+            }
+            else {
+                unit.globalKey = TEXT_KEY+text.toString();
+            }
+        }
+        catch (ParserSyntaxException e){
+            unit.failure = e;
+            unit.globalKey = FAILURE_KEY+Integer.toString(unit.id);
+            this.failedUnits.add(unit);
+        }
+    }
+
+    /*----=   Instance Methods: 2. Access  =----*/
+
+    /**
+     * @return the number of the file's lines.
+     */
+    public int getLinesCount(){
+        return this.lines.size();
+    }
+
+    /**
+     * @return the length of the file's text, in characters, counting a single line terminator after each line.
+     */
+    public long getLength(){
+        return this.length;
+    }
+
+    /**
+     * @return the file's text, with a line feed after each line.
+     */
+    public CharSequence getText(){
+        StringBuilder text = new StringBuilder();
+        for (String line: this.lines){
+            text.append(line).append(LINE_FEED);
+        }
+        return text;
+    }
+
+    /**
+     * The parser stops at the first syntax error of each unit, and the lines of the units before it are parsed
+     * in the same scopes as a parser of the whole file parses them, so the first of these syntax errors is the
+     * one a parser of the whole file stops at.
+     * @return the diagnostic of the file's first syntax error; null if it has none.
+     */
+    public Diagnostic getFailure(){
+        Unit firstFailedUnit = null;
+        for (Unit unit: this.failedUnits){
+            if (firstFailedUnit == null || unit.firstLine < firstFailedUnit.firstLine){
+                firstFailedUnit = unit;
+            }
+        }
+        if (firstFailedUnit == null){
+            return null;
+        }
+        return firstFailedUnit.failure.getDiagnostic().movedBy(firstFailedUnit.firstLine-1);
+    }
+
+    /**
+     * @return the number of units.
+     */
+    public int getUnitsCount(){
+        return this.units.size();
+    }
+
+    /**
+     * @param index - the index of a unit, in the order of the file.
+     * @return the unit's id.
+     */
+    public int getUnitId(int index){
+        return this.units.get(index).id;
+    }
+
+    /**
+     * @param unit - the id of a unit.
+     * @return the line number of the unit's first line.
+     */
+    public int getFirstLine(int unit){
+        return this.unitsById.get(unit).firstLine;
+    }
+
+    /**
+     * @param unit - the id of a unit.
+     * @return the program of the unit's global scope commands, whose line numbers are counted from the unit's
+     * first line; an empty program if the unit has a syntax error.
+     */
+    public Program getGlobalScopeCommands(int unit){
+        return this.unitsById.get(unit).globalScopeCommands;
+    }
+
+    /**
+     * @param unit - the id of a unit.
+     * @return the program of the commands of the unit's method body, whose line numbers are counted from the
+     * unit's first line; an empty program if the unit is not a method, or if it has a syntax error.
+     */
+    public Program getMethodCommands(int unit){
+        return this.unitsById.get(unit).methodCommands;
+    }
+
+    /*----=   Instance Methods: 3. Changes  =----*/
+
+    /**
+     * @return the ids of the units added since the changes were last cleared, which are still units of the
+     * file, in the order they were added.
+     */
+    public int[] getAddedUnits(){
+        int[] added = new int[this.addedUnits.size()];
+        int i = 0;
+        for (int unit: this.addedUnits){
+            added[i++] = unit;
+        }
+        return added;
+    }
+
+    /**
+     * @return the ids of the units removed since the changes were last cleared, which were units of the file
+     * when they were last cleared.
+     */
+    public int[] getRemovedUnits(){
+        int[] removed = new int[this.removedUnits.size()];
+        for (int i=0; i<removed.length; i++){
+            removed[i] = this.removedUnits.get(i);
+        }
+        return removed;
+    }
+
+    /**
+     * @return true if the global scope commands may have changed since the changes were last cleared; false
+     * if they have not.
+     */
+    public boolean hasGlobalScopeChanged(){
+        return this.hasGlobalScopeChanged;
+    }
+
+    /**
+     * Clear the changes, once the executor has carried them out.
+     */
+    public void clearChanges(){
+        this.addedUnits.clear();
+        this.removedUnits.clear();
+        this.hasGlobalScopeChanged = false;
+    }
+}
@@ -0,0 +1,104 @@
+package oop.ex6.parser;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents the commands of an s-java file whose method bodies were deferred: the program of its
+ * global scope commands, followed by a program for each of its method bodies, which is parsed from the file's
+ * text only when the executor reaches it. Once a method body's parser stops, at a syntax error or once its
+ * diagnostics are full, no more method bodies are parsed; a syntax error which the parser does not recover
+ * from is kept until the executor has received the commands parsed before it.
+ */
+public class LazyCommands implements Iterable<Program> {
+
+    /*----=   Constants  =----*/
+
+    private static final Program EMPTY = new ProgramBuilder().build();
+    private static final int METHOD_SIZE = 4;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Parser parser;
+    private final CharSequence text;
+    private final Program globalScopeCommands;
+    private final int[] methods;
+    private boolean hasStopped;
+    private ParserSyntaxException failure;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the parser which parsed the file, and what it kept of the file's commands.
+     * @param parser - the given parser.
+     * @param text - the text of the file; null if it has no deferred method bodies.
+     * @param globalScopeCommands - the program of the file's global scope commands.
+     * @param methods - the offsets of each method's declaration and of the line after its closing brace, the
+     * line number of its declaration and the number of blocks open before it, one after the other, in the
+     * order of the methods in the file.
+     */
+    LazyCommands(Parser parser, CharSequence text, Program globalScopeCommands, int[] methods){
+        this.parser = parser;
+        this.text = text;
+        this.globalScopeCommands = globalScopeCommands;
+        this.methods = methods;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * The returned iterator parses each method body as it is reached, and may only be used once.
+     * @return an iterator over the global scope commands, followed by each method body's commands.
+     */
+    public Iterator<Program> iterator(){
+        return new Iterator<Program>() {
+
+            private int index = -1;
+
+            public boolean hasNext(){
+                return this.index < methods.length/METHOD_SIZE && !hasStopped;
+            }
+
+            public Program next(){
+                if (!this.hasNext()){
+                    throw new NoSuchElementException();
+                }
+                Program program = this.index == -1 ? globalScopeCommands : parse(this.index);
+                this.index++;
+                return program;
+            }
+        };
+    }
+
+    /**
+     * Parse the given method body.
+     * @param method - the index of the method in the file.
+     * @return the program of the method body's commands; an empty program if its parser stopped, in which
+     * case no more method bodies are parsed.
+     */
+    private Program parse(int method){
+        try {
+            Program program = this.parser.parseMethodBody(this.text,
+                    Arrays.copyOfRange(this.methods, method*METHOD_SIZE, (method+1)*METHOD_SIZE));
+            if (!this.parser.hasStopped()){
+                return program;
+            }
+        }
+        catch (ParserSyntaxException e){
+            this.failure = e;
+        }
+        this.hasStopped = true;
+        return EMPTY;
+    }
+
+    /**
+     * Throw the syntax error a method body's parser stopped at, if it does not recover from syntax errors.
+     * @throws ParserSyntaxException - if a method body has a syntax error, which was reached.
+     */
+    public void rethrowFailure() throws ParserSyntaxException {
+        if (this.failure != null){
+            throw this.failure;
+        }
+    }
+}
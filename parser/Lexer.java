@@ -0,0 +1,424 @@
+package oop.ex6.parser;
+
+import oop.ex6.members.Symbol;
+import oop.ex6.members.Variable;
+
+/**
+ * This class represents a lexer which scans a single line of an s-java file with a character cursor.
+ * Tokens are reported as offsets into the scanned line, so no intermediate strings are created while the
+ * parser walks the line. Every scan looks at each character of the line a bounded number of times, so scanning
+ * a line takes time linear in its length, however hostile the line is.
+ */
+class Lexer {
+
+    /*----=   Constants  =----*/
+
+    private static final int falseResult = -1;
+    private static final int UNKNOWN = -2;
+
+    private static final char QUOTE = '"';
+    private static final char APOSTROPHE = '\'';
+    private static final char MINUS = '-';
+    private static final char DOT = '.';
+    private static final char UNDERSCORE = '_';
+    private static final char SPACE = ' ';
+    private static final char SLASH = '/';
+
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
+
+    /*----=   Instance Data Members  =----*/
+
+    private CharSequence line;
+    private int cursor;
+    private int end;
+    private int lastQuote;
+
+    /*----=   Instance Methods: 1. Cursor Methods  =----*/
+
+    /**
+     * Start scanning the given line. The cursor is placed on the line's first non-whitespace character,
+     * and trailing whitespace is excluded from the scanned region.
+     * @param line - the given line.
+     */
+    void reset(CharSequence line){
+        this.line = line;
+        this.cursor = 0;
+        this.end = line.length();
+        while (this.end > 0 && line.charAt(this.end-1) <= SPACE){
+            this.end--;
+        }
+        this.lastQuote = UNKNOWN;
+        this.skipWhitespace();
+    }
+
+    /**
+     * Move the cursor to the given offset, and past any whitespace that follows it.
+     * @param offset - the given offset.
+     */
+    void advance(int offset){
+        this.cursor = offset;
+        this.skipWhitespace();
+    }
+
+    /**
+     * Move the cursor past any whitespace.
+     */
+    private void skipWhitespace(){
+        while (this.cursor < this.end && this.line.charAt(this.cursor) <= SPACE){
+            this.cursor++;
+        }
+    }
+
+    /**
+     * @return true if the cursor has reached the end of the scanned region; false otherwise.
+     */
+    boolean isAtEnd(){
+        return this.cursor >= this.end;
+    }
+
+    /**
+     * @return the offset of the cursor.
+     */
+    int getCursor(){
+        return this.cursor;
+    }
+
+    /**
+     * @param begin - the offset of the first character.
+     * @param end - the offset after the last character.
+     * @return the text of the line between the given offsets.
+     */
+    String text(int begin, int end){
+        return this.line.subSequence(begin, end).toString();
+    }
+
+    /**
+     * @param symbols - the given symbol table.
+     * @param begin - the offset of the name's first character.
+     * @param end - the offset after the name's last character.
+     * @return the symbol of the name between the given offsets, interned in the given symbol table.
+     */
+    Symbol intern(SymbolTable symbols, int begin, int end){
+        return symbols.intern(this.line, begin, end);
+    }
+
+    /**
+     * @return the text of the line between the cursor and the end of the scanned region.
+     */
+    String remainder(){
+        return this.text(this.cursor, this.end);
+    }
+
+    /**
+     * @param begin - the offset of the first character.
+     * @param end - the offset after the last character.
+     * @param word - the given word.
+     * @return true if the text of the line between the given offsets equals the given word; false otherwise.
+     */
+    boolean regionEquals(int begin, int end, String word){
+        if (end-begin != word.length()){
+            return false;
+        }
+        for (int i=0; i<word.length(); i++){
+            if (this.line.charAt(begin+i) != word.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*----=   Instance Methods: 2. Line Classifiers  =----*/
+
+    /**
+     * @return true if the line is a comment line i.e. its first two characters are '//'; false otherwise.
+     */
+    boolean isComment(){
+        return this.line.length() > 1 && this.line.charAt(0) == SLASH && this.line.charAt(1) == SLASH;
+    }
+
+    /**
+     * @return true if the line contains only whitespace; false otherwise.
+     */
+    boolean isBlank(){
+        return this.cursor >= this.end;
+    }
+
+    /**
+     * @param c - the given character.
+     * @return true if the last non-whitespace character of the line is the given character; false otherwise.
+     */
+    boolean endsWith(char c){
+        return this.end > 0 && this.line.charAt(this.end-1) == c;
+    }
+
+    /**
+     * A match may only start at a non-space character, so each run of spaces is skipped by at most as many
+     * attempts as the word's length, and the search takes time linear in the line's length.
+     * @param word - the given word, which contains no spaces.
+     * @return true if the line contains the given word once spaces are ignored; false otherwise.
+     */
+    boolean containsIgnoringSpaces(String word){
+        for (int i=this.cursor; i<this.end; i++){
+            if (this.line.charAt(i) == SPACE){
+                continue;
+            }
+            int position = i;
+            int matched = 0;
+            while (matched < word.length() && position < this.end){
+                char c = this.line.charAt(position++);
+                if (c == SPACE){
+                    continue;
+                }
+                if (c != word.charAt(matched)){
+                    break;
+                }
+                matched++;
+            }
+            if (matched == word.length()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param open - the opening character.
+     * @param close - the closing character.
+     * @return true if the line contains the given closing character after the first appearance of the given
+     * opening character; false otherwise.
+     */
+    boolean containsPair(char open, char close){
+        boolean opened = false;
+        for (int i=this.cursor; i<this.end; i++){
+            char c = this.line.charAt(i);
+            if (opened && c == close){
+                return true;
+            }
+            if (c == open){
+                opened = true;
+            }
+        }
+        return false;
+    }
+
+    /*----=   Instance Methods: 3. Token Matchers  =----*/
+
+    /**
+     * @param word - the given word.
+     * @return if the given word is the next token, the offset after its last character; -1 otherwise.
+     */
+    int matchWord(String word){
+        if (this.end-this.cursor < word.length()){
+            return falseResult;
+        }
+        for (int i=0; i<word.length(); i++){
+            if (this.line.charAt(this.cursor+i) != word.charAt(i)){
+                return falseResult;
+            }
+        }
+        return this.cursor+word.length();
+    }
+
+    /**
+     * @param type - the given variable type.
+     * @return if a legal input value for the given variable type is the next token, the offset after its last
+     * character; -1 otherwise.
+     */
+    int matchLiteral(Variable.Type type){
+        switch (type){
+            case INT:
+                return this.matchInt();
+            case DOUBLE:
+                return this.matchDouble();
+            case BOOLEAN:
+                return this.matchBoolean();
+            case CHAR:
+                return this.matchChar();
+            case STRING:
+                return this.matchString();
+            default:
+                return falseResult;
+        }
+    }
+
+    /**
+     * @return if an int literal - an optional minus sign followed by digits - is the next token, the offset
+     * after its last character; -1 otherwise.
+     */
+    private int matchInt(){
+        int position = this.cursor;
+        if (position < this.end && this.line.charAt(position) == MINUS){
+            position++;
+        }
+        return this.matchDigits(position);
+    }
+
+    /**
+     * @return if a double literal - an int literal, a dot and digits - is the next token, the offset after its
+     * last character; -1 otherwise.
+     */
+    private int matchDouble(){
+        int position = this.matchInt();
+        if (position == falseResult || position >= this.end || this.line.charAt(position) != DOT){
+            return falseResult;
+        }
+        return this.matchDigits(position+1);
+    }
+
+    /**
+     * @return if a boolean literal is the next token, the offset after its last character; -1 otherwise.
+     */
+    private int matchBoolean(){
+        int result = this.matchWord(TRUE);
+        if (result == falseResult){
+            result = this.matchWord(FALSE);
+        }
+        return result;
+    }
+
+    /**
+     * @return if a char literal - a single character between apostrophes, which may be padded with
+     * whitespace - is the next token, the offset after its last character; -1 otherwise.
+     */
+    private int matchChar(){
+        int position = this.cursor;
+        if (position >= this.end || this.line.charAt(position) != APOSTROPHE){
+            return falseResult;
+        }
+        position = this.skipLiteralWhitespace(position+1);
+        if (position >= this.end){
+            return falseResult;
+        }
+        position = this.skipLiteralWhitespace(position+1);
+        if (position >= this.end || this.line.charAt(position) != APOSTROPHE){
+            return falseResult;
+        }
+        return position+1;
+    }
+
+    /**
+     * A string literal opens with a quote at the cursor and closes with the last quote in the line.
+     * The position of the last quote is found once per line, so repeated matches cost no more than a single
+     * pass over the line.
+     * @return if a string literal is the next token, the offset after its last character; -1 otherwise.
+     */
+    private int matchString(){
+        if (this.cursor >= this.end || this.line.charAt(this.cursor) != QUOTE){
+            return falseResult;
+        }
+        if (this.lastQuote == UNKNOWN){
+            this.lastQuote = this.end-1;
+            while (this.line.charAt(this.lastQuote) != QUOTE){
+                this.lastQuote--;
+            }
+        }
+        if (this.lastQuote <= this.cursor){
+            return falseResult;
+        }
+        return this.lastQuote+1;
+    }
+
+    /**
+     * @return if a variable name - a letter, or an underscore followed by a word character, followed by any
+     * number of word characters - is the next token, the offset after its last character; -1 otherwise.
+     */
+    int matchVariableName(){
+        int position = this.cursor;
+        if (position >= this.end){
+            return falseResult;
+        }
+        char first = this.line.charAt(position);
+        if (first == UNDERSCORE){
+            position++;
+            if (position >= this.end || !isWordCharacter(this.line.charAt(position))){
+                return falseResult;
+            }
+        }
+        else if (!isLetter(first)){
+            return falseResult;
+        }
+        return this.skipWordCharacters(position+1);
+    }
+
+    /**
+     * @return if a method name - a letter followed by any number of word characters - is the next token, the
+     * offset after its last character; -1 otherwise.
+     */
+    int matchMethodName(){
+        if (this.cursor >= this.end || !isLetter(this.line.charAt(this.cursor))){
+            return falseResult;
+        }
+        return this.skipWordCharacters(this.cursor+1);
+    }
+
+    /*----=   Instance Methods: 4. Character Helpers  =----*/
+
+    /**
+     * @param position - the offset to start from.
+     * @return if at least one digit appears at the given offset, the offset after the last consecutive digit;
+     * -1 otherwise.
+     */
+    private int matchDigits(int position){
+        int start = position;
+        while (position < this.end && isDigit(this.line.charAt(position))){
+            position++;
+        }
+        return position == start ? falseResult : position;
+    }
+
+    /**
+     * @param position - the offset to start from.
+     * @return the offset after the last consecutive word character.
+     */
+    private int skipWordCharacters(int position){
+        while (position < this.end && isWordCharacter(this.line.charAt(position))){
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * @param position - the offset to start from.
+     * @return the offset after the last consecutive whitespace character allowed inside a literal.
+     */
+    private int skipLiteralWhitespace(int position){
+        while (position < this.end && isLiteralWhitespace(this.line.charAt(position))){
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * @param c - the given character.
+     * @return true if the given character is a digit; false otherwise.
+     */
+    private static boolean isDigit(char c){
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @param c - the given character.
+     * @return true if the given character is an english letter; false otherwise.
+     */
+    private static boolean isLetter(char c){
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * @param c - the given character.
+     * @return true if the given character is a letter, a digit or an underscore; false otherwise.
+     */
+    private static boolean isWordCharacter(char c){
+        return isLetter(c) || isDigit(c) || c == UNDERSCORE;
+    }
+
+    /**
+     * @param c - the given character.
+     * @return true if the given character is a space, tab, line feed, vertical tab, form feed or carriage
+     * return; false otherwise.
+     */
+    private static boolean isLiteralWhitespace(char c){
+        return c == SPACE || (c >= '\t' && c <= '\r');
+    }
+}
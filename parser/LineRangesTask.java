@@ -0,0 +1,122 @@
+package oop.ex6.parser;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class represents the parsing of consecutive ranges of an s-java file's lines, as a fork-join task. The
+ * file is cut into ranges only at lines where the parser is in the global scope with no block open, so each
+ * range is parsed by a parser of its own, from its first line, as if the lines before it had already been
+ * parsed. A range whose parser stopped - at a syntax error, or once its diagnostics are full - keeps the
+ * ranges after it from being parsed, as a single parser would never have reached them.
+ */
+class LineRangesTask extends RecursiveAction {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final Parser parser;
+    private final CharSequence text;
+    private final int[] starts;
+    private final int[] firstLines;
+    private final int firstRange;
+    private final int lastRange;
+    private final AtomicInteger firstStoppedRange;
+    private final Parser[] rangeParsers;
+    private final ParserSyntaxException[] failures;
+
+    /*----=   Constructors  =----*/
+
+    /**
+     * A constructor for a task which parses all of the given ranges.
+     * @param parser - the parser of the file, whose settings the parsers of the ranges take.
+     * @param text - the text of the file.
+     * @param starts - the offsets of the ranges' first lines, followed by the offset after the last range.
+     * @param firstLines - the line numbers of the ranges' first lines.
+     */
+    LineRangesTask(Parser parser, CharSequence text, int[] starts, int[] firstLines){
+        this.parser = parser;
+        this.text = text;
+        this.starts = starts;
+        this.firstLines = firstLines;
+        this.firstRange = 0;
+        this.lastRange = firstLines.length;
+        this.firstStoppedRange = new AtomicInteger(this.lastRange);
+        this.rangeParsers = new Parser[this.lastRange];
+        this.failures = new ParserSyntaxException[this.lastRange];
+    }
+
+    /**
+     * A constructor for a task which parses a part of its parent's ranges.
+     * @param parent - the parent task.
+     * @param firstRange - the index of the first range to parse.
+     * @param lastRange - the index after the last range to parse.
+     */
+    private LineRangesTask(LineRangesTask parent, int firstRange, int lastRange){
+        this.parser = parent.parser;
+        this.text = parent.text;
+        this.starts = parent.starts;
+        this.firstLines = parent.firstLines;
+        this.firstRange = firstRange;
+        this.lastRange = lastRange;
+        this.firstStoppedRange = parent.firstStoppedRange;
+        this.rangeParsers = parent.rangeParsers;
+        this.failures = parent.failures;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Parse this task's ranges, splitting them between two sub-tasks if there is more than one.
+     */
+    protected void compute(){
+        if (this.lastRange-this.firstRange > 1){
+            int middle = (this.firstRange+this.lastRange) >>> 1;
+            invokeAll(new LineRangesTask(this, this.firstRange, middle),
+                    new LineRangesTask(this, middle, this.lastRange));
+            return;
+        }
+        if (this.firstRange > this.firstStoppedRange.get()){
+            return;
+        }
+        Parser rangeParser = this.parser.newRangeParser();
+        this.rangeParsers[this.firstRange] = rangeParser;
+        try {
+            rangeParser.parseRange(new TextSource(this.text, this.starts[this.firstRange],
+                    this.starts[this.firstRange+1]), this.firstLines[this.firstRange]);
+            if (rangeParser.hasStopped()){
+                this.firstStoppedRange.accumulateAndGet(this.firstRange, Math::min);
+            }
+        }
+        catch (ParserSyntaxException e){
+            this.failures[this.firstRange] = e;
+            this.firstStoppedRange.accumulateAndGet(this.firstRange, Math::min);
+        }
+    }
+
+    /**
+     * This method assumes the task has completed.
+     * @return the number of ranges whose commands make up the file's commands: the ranges up to the first one
+     * whose parser stopped, or all of them.
+     */
+    int getRangesCount(){
+        return Math.min(this.firstStoppedRange.get()+1, this.lastRange);
+    }
+
+    /**
+     * This method assumes the task has completed.
+     * @param range - the index of a range, which is less than getRangesCount().
+     * @return the parser of the given range.
+     */
+    Parser getRangeParser(int range){
+        return this.rangeParsers[range];
+    }
+
+    /**
+     * This method assumes the task has completed.
+     * @return the syntax error of the first range whose parser stopped at one; null if none did.
+     */
+    ParserSyntaxException getFirstFailure(){
+        int range = this.firstStoppedRange.get();
+        return range < this.lastRange ? this.failures[range] : null;
+    }
+}
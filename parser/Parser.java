@@ -1,17 +1,27 @@
 package oop.ex6.parser;
 
-import oop.ex6.executer.Executor;
+import oop.ex6.diagnostics.Budget;
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticList;
+import oop.ex6.events.FileReadEvent;
+import oop.ex6.events.FlightRecording;
+import oop.ex6.events.KindTotals;
+import oop.ex6.events.LineProfile;
+import oop.ex6.events.ParsedLinesEvent;
 import oop.ex6.members.Parameter;
+import oop.ex6.members.Symbol;
 import oop.ex6.members.Value;
 import oop.ex6.members.Variable;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.function.ToIntFunction;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class represents a parser which parses an s-java file.
@@ -46,32 +56,10 @@ public class Parser {
     private static final String LEFT_PARENTHESIS = "(";
     private static final String EQUAL_SIGN = "=";
 
-    // Regex bank:
-    private static final String whitespace = "\\s*+";
-    private static final String start = "^";
-    private static final String intRegex = start+"-?+\\d++";
-    private static final String stringRegex = start+"\""+whitespace+".*"+whitespace+"\"";
-    private static final String booleanRegex = start+"true|false";
-    private static final String charRegex = start+"\'"+whitespace+"."+whitespace+"\'";
-    private static final String doubleRegex = start+intRegex+"\\."+"\\d++";
-    private static final String variableNameRegex = start+"(?:[a-zA-Z]|_\\w)\\w*+";
-    private static final String methodNameRegex = start+"[a-zA-Z]\\w*+";
-    private static final String commentRegex = start+"//";
-
-    // Pattern bank corresponding to the regex bank.
-    private static final Pattern intPattern = Pattern.compile(intRegex);
-    private static final Pattern stringPattern = Pattern.compile(stringRegex);
-    private static final Pattern booleanPattern = Pattern.compile(booleanRegex);
-    private static final Pattern charPattern = Pattern.compile(charRegex);
-    private static final Pattern doublePattern = Pattern.compile(doubleRegex);
-    private static final Pattern variableNamePattern = Pattern.compile(variableNameRegex);
-    private static final Pattern methodNamePattern = Pattern.compile(methodNameRegex);
-    private static final Pattern commentPattern = Pattern.compile(commentRegex);
-
     // Corresponding arrays which list for each variable type:
     // 1. its toString() output.
     // 2. the variable type.
-    // 3. the regex pattern which matches its legal input value.
+    // The order of the variable types is the order in which the lexer tries to match their input values.
     private static final String[] types = {CHAR, STRING, BOOLEAN, DOUBLE, INT};
     private static final Variable.Type[] variableTypes = {
             Variable.Type.CHAR,
@@ -80,41 +68,115 @@ public class Parser {
             Variable.Type.DOUBLE,
             Variable.Type.INT
     };
-    private static final Pattern[] typePatterns = {
-            charPattern,
-            stringPattern,
-            booleanPattern,
-            doublePattern,
-            intPattern
-    };
+
+    // Single-character tokens which the lexer looks for when categorizing a line.
+    private static final char RIGHT_BRACE_CHAR = '}';
+    private static final char LEFT_BRACE_CHAR = '{';
+    private static final char RIGHT_PARENTHESIS_CHAR = ')';
+    private static final char LEFT_PARENTHESIS_CHAR = '(';
+    private static final char SEMICOLON_CHAR = ';';
 
     // Magic numbers.
     private static final int falseResult = -1;
     private static final int EXPECTED_COMMAND_LINE_LENGTH = 1;
-
-    // Formats for parser IO and syntax exceptions that are generated by this class.
-    private static final String EXPECTED = "expected - '";
-    private static final String FOUND = "', found - '";
-    private static final String ORString = "' or '";
-    private static final String VARIABLE_NAME = "variable name expected.";
-    private static final String METHOD_NAME = "method name expected";
-    private static final String RESERVED_WORD =" is a reserved word, and not a valid variable or method name";
-    private static final String VARIABLE_TYPE = "variable type expected.";
-    private static final String VALID_VALUE = "valid value expected.";
-    private static final String VERIFY_END = "unexpected token. One argument is expected in each line.";
-    private static final String PARSE_FAIL = "failed to parse code line.";
-    private static final String NUMBER_OF_ARGUMENTS = "single command line argument expected.";
-    private static final String SOURCE_FILE_NAME = "bad source-file name.";
+    private static final int SEGMENT_SIZE = 64;
+    private static final int INITIAL_METHODS_CAPACITY = 16;
+    private static final int DEFERRED_METHOD_SIZE = 4;
+    private static final int BUDGET_CHECK_LINES = 64;
+    private static final int PARALLEL_TEXT_THRESHOLD = 1 << 18;
+    private static final int MIN_RANGE_SIZE = 1 << 16;
+    private static final int RANGES_PER_THREAD = 4;
+    private static final int INITIAL_RANGES_CAPACITY = 16;
+
+    // The kinds of lines, and their names in flight recorder events.
+    private static final int BLANK_LINE = 0;
+    private static final int DEFINITION_LINE = 1;
+    private static final int ASSIGNMENT_LINE = 2;
+    private static final int CALL_LINE = 3;
+    private static final int RETURN_LINE = 4;
+    private static final int IF_WHILE_LINE = 5;
+    private static final int METHOD_LINE = 6;
+    private static final int CLOSE_LINE = 7;
+    private static final int ILLEGAL_LINE = 8;
+    private static final String[] LINE_KINDS =
+            {"blank", "definition", "assignment", "call", "return", "if/while", "method", "close", "illegal"};
+
+    // Separators of the alternatives listed in a syntax error.
+    private static final String ALTERNATIVE_SEPARATOR = "', '";
+    private static final String LAST_ALTERNATIVE_SEPARATOR = "' or '";
 
     /*----=   Instance Data Members  =----*/
 
-    private String currentLine;
-    private String originalLine;
+    private final Lexer lexer;
     private int lineNumber;
-    private ArrayList<CodeLine> globalScopeCommands;
-    private ArrayList<CodeLine> localScopeCommands;
-    private ArrayList<CodeLine> currentCommands;
+    private ProgramBuilder globalScopeCommands;
+    private ProgramBuilder localScopeCommands;
+    private ProgramBuilder currentCommands;
+    private final SymbolTable symbols;
+    private Value[] referenceValues;
     private int braceCounter;
+    private CommandPipeline pipeline;
+    private final DiagnosticList diagnostics;
+    private ProgramBuilder skippedCommands;
+    private int[] methodLines;
+    private int methodsCount;
+    private int methodFirstLine;
+    private boolean reparsing;
+    private int[] deferredMethods;
+    private CharSequence deferredText;
+    private int lineKind;
+    private KindTotals lineTotals;
+    private LineProfile profile;
+    private Budget budget;
+
+    /*----=   Nested Interfaces  =----*/
+
+    /**
+     * This interface represents a pass of the parser over a source, which opens the source and parses it.
+     */
+    private interface Pass {
+
+        /**
+         * Open the source and parse it.
+         * @throws ParserSyntaxException - if parser encountered a syntax error in the source.
+         * @throws IOException - if the source could not be opened or read.
+         */
+        void run() throws ParserSyntaxException, IOException;
+    }
+
+    /*----=   Nested Classes  =----*/
+
+    /**
+     * This class represents the alternative words which a syntax error expected. They are only joined into
+     * a listing when the error's message is printed.
+     */
+    private static class Alternatives {
+
+        private final String[] words;
+
+        /**
+         * A constructor which receives the alternative words.
+         * @param words - the given words, which are not empty.
+         */
+        Alternatives(String[] words){
+            this.words = words;
+        }
+
+        /**
+         * @return the words, separated by commas, and by 'or' before the last one.
+         */
+        @Override
+        public String toString(){
+            StringBuilder listing = new StringBuilder(this.words[0]);
+            for (int i=1; i<this.words.length-1; i++){
+                listing.append(ALTERNATIVE_SEPARATOR).append(this.words[i]);
+            }
+            if (this.words.length > 1){
+                listing.append(LAST_ALTERNATIVE_SEPARATOR).append(this.words[this.words.length-1]);
+            }
+            return listing.toString();
+        }
+    }
 
      /*----=   Constructor  =----*/
 
@@ -122,14 +184,51 @@ public class Parser {
      * The default constructor.
      */
     public Parser(){
+        this(null);
+    }
+
+    /**
+     * A constructor for a parser which recovers from syntax errors: each syntax error is added to the given
+     * list, and parsing goes on from the next line, until the list is full. A parser whose commands are piped
+     * still stops at the first syntax error.
+     * @param diagnostics - the given list; null if the parser stops at the first syntax error.
+     */
+    public Parser(DiagnosticList diagnostics){
+        this.diagnostics = diagnostics;
+        this.lexer = new Lexer();
         this.lineNumber = 0;
-        this.globalScopeCommands = new ArrayList<>();
-        this.localScopeCommands = new ArrayList<>();
+        this.globalScopeCommands = new ProgramBuilder();
+        this.localScopeCommands = new ProgramBuilder(this.globalScopeCommands);
         this.currentCommands = this.globalScopeCommands;
         this.braceCounter = 0;
+        this.symbols = new SymbolTable();
+        this.referenceValues = new Value[0];
     }
 
-    /*----=   Instance Methods: 1. String Modifiers & Parsers  =----*/
+    /*----=   Instance Methods: 1. Token Matchers  =----*/
+
+    /**
+     * Time each line this parser parses, and add it to the given profile.
+     * @param profile - the given profile; null if the lines are not timed.
+     */
+    public void setProfile(LineProfile profile){
+        this.profile = profile;
+    }
+
+    /**
+     * Check the time left in the given budget every so many lines, and stop parsing once it is exceeded.
+     * @param budget - the given budget; null if parsing is not limited.
+     */
+    public void setBudget(Budget budget){
+        this.budget = budget;
+    }
+
+    /**
+     * @return true if the parser's budget is exceeded, which is checked every so many lines; false otherwise.
+     */
+    private boolean isOverBudget(){
+        return this.budget != null && this.lineNumber % BUDGET_CHECK_LINES == 0 && !this.budget.hasTimeLeft();
+    }
 
     /**
      * @param reservedWord - the provided word;
@@ -137,10 +236,7 @@ public class Parser {
      * character; -1 otherwise.
      */
     private int nextWordIs(String reservedWord){
-        if (this.currentLine.startsWith(reservedWord)){
-            return reservedWord.length();
-        }
-        return falseResult;
+        return this.lexer.matchWord(reservedWord);
     }
 
     /**
@@ -160,39 +256,27 @@ public class Parser {
     }
 
     /**
-     * @param pattern - the provided pattern;
-     * @return if the provided pattern matches the next word in the current line -  the offset after the last
-     * matched character; -1 otherwise.
+     * @return the column of the lexer's cursor in the current line, counted from 1.
      */
-    private int nextWordIs(Pattern pattern){
-        Matcher matcher = pattern.matcher(this.currentLine);
-        if (matcher.find()){
-            return matcher.end();
-        }
-        return falseResult;
+    private int getColumn(){
+        return this.lexer.getCursor()+1;
     }
 
     /**
-     * @param word the provided word
-     * @return true if the provided word matches any of s-java's reserved words; false otherwise.
+     * @param begin - the offset of the word's first character.
+     * @param end - the offset after the word's last character.
+     * @return true if the word between the given offsets matches any of s-java's reserved words; false
+     * otherwise.
      */
-    private boolean isReserved(String word) {
+    private boolean isReserved(int begin, int end) {
         for (String reservedWord: RESERVED_WORDS){
-            if (word.equals(reservedWord.trim())){
+            if (this.lexer.regionEquals(begin, end, reservedWord.trim())){
                 return true;
             }
         }
         return false;
     }
 
-    /**
-     * Omit from the current line any character up to the given index, and trailing whitespace.
-     * @param beginIndex - the provided index.
-     */
-    private void trimCurrentLine(int beginIndex){
-        this.currentLine = this.currentLine.substring(beginIndex).trim();
-    }
-
     /*----=   Instance Methods: 2. 'Command Factory' Helper Methods  =----*/
 
     /**
@@ -203,10 +287,10 @@ public class Parser {
     private void scan(String reservedWord) throws ParserSyntaxException {
         int result = this.nextWordIs(reservedWord);
         if (result == falseResult){
-            String found = this.originalLine.substring(this.originalLine.length()-this.currentLine.length());
-            throw new ParserSyntaxException(EXPECTED+reservedWord+FOUND+found+"'.", this.lineNumber);
+            throw new ParserSyntaxException(DiagnosticCode.EXPECTED_WORD, this.lineNumber, this.getColumn(),
+                    reservedWord, this.lexer.remainder());
         }
-        this.trimCurrentLine(result);
+        this.lexer.advance(result);
     }
 
     /**
@@ -218,18 +302,10 @@ public class Parser {
     private void scan(String[] reservedWords) throws ParserSyntaxException {
         int result = this.nextWordIs(reservedWords);
         if (result == falseResult){
-            String errorMessage = EXPECTED+reservedWords[0];
-            for (int i=1; i<reservedWords.length-1;i++){
-                errorMessage = errorMessage+"', '"+reservedWords[i];
-            }
-            if (reservedWords.length > 1){
-                errorMessage = errorMessage +ORString+reservedWords[reservedWords.length-1];
-            }
-            String found = this.originalLine.substring(this.originalLine.length()-this.currentLine.length());
-            errorMessage = errorMessage + FOUND+found+"' .";
-            throw new ParserSyntaxException(errorMessage, this.lineNumber);
+            throw new ParserSyntaxException(DiagnosticCode.EXPECTED_WORDS, this.lineNumber, this.getColumn(),
+                    new Alternatives(reservedWords), this.lexer.remainder());
         }
-        this.trimCurrentLine(result);
+        this.lexer.advance(result);
     }
 
     /**
@@ -240,45 +316,49 @@ public class Parser {
         int result = this.nextWordIs(FINAL);
         if (result != falseResult){
             isFinal = true;
-            this.trimCurrentLine(result);
+            this.lexer.advance(result);
         }
         return isFinal;
     }
 
     /**
      * Get the next word in the current line - a variable name.
-     * @return the variable name.
+     * @return the variable name's symbol.
      * @throws ParserSyntaxException - if the next word in the current line is not a legal variable name.
      */
-    private String getVariableName() throws ParserSyntaxException {
-        int result = this.nextWordIs(variableNamePattern);
+    private Symbol getVariableSymbol() throws ParserSyntaxException {
+        int begin = this.lexer.getCursor();
+        int result = this.lexer.matchVariableName();
         if (result == falseResult){
-            throw new ParserSyntaxException(VARIABLE_NAME, this.lineNumber);
+            throw new ParserSyntaxException(DiagnosticCode.VARIABLE_NAME, this.lineNumber, this.getColumn());
         }
-        String variableName = this.currentLine.substring(0, result);
-        this.trimCurrentLine(result);
-        if (this.isReserved(variableName)){
-            throw new ParserSyntaxException(variableName+RESERVED_WORD, this.lineNumber);
+        if (this.isReserved(begin, result)){
+            throw new ParserSyntaxException(DiagnosticCode.RESERVED_WORD, this.lineNumber, begin+1,
+                    this.lexer.text(begin, result));
         }
-        return variableName;
+        Symbol variableSymbol = this.lexer.intern(this.symbols, begin, result);
+        this.lexer.advance(result);
+        return variableSymbol;
     }
 
     /**
      * Get the next word in the current line - a method name.
-     * @return the method name.
+     * @return the method name's symbol.
      * @throws ParserSyntaxException - if the next word in the current line is not a legal method name.
      */
-    private String getMethodName() throws ParserSyntaxException {
-        int result = this.nextWordIs(methodNamePattern);
+    private Symbol getMethodSymbol() throws ParserSyntaxException {
+        int begin = this.lexer.getCursor();
+        int result = this.lexer.matchMethodName();
         if (result == falseResult){
-            throw new ParserSyntaxException(METHOD_NAME, this.lineNumber);
+            throw new ParserSyntaxException(DiagnosticCode.METHOD_NAME, this.lineNumber, this.getColumn());
         }
-        String methodName = this.currentLine.substring(0, result);
-        this.trimCurrentLine(result);
-        if (this.isReserved(methodName)){
-            throw new ParserSyntaxException(methodName+RESERVED_WORD, this.lineNumber);
+        if (this.isReserved(begin, result)){
+            throw new ParserSyntaxException(DiagnosticCode.RESERVED_WORD, this.lineNumber, begin+1,
+                    this.lexer.text(begin, result));
         }
-        return methodName;
+        Symbol methodSymbol = this.lexer.intern(this.symbols, begin, result);
+        this.lexer.advance(result);
+        return methodSymbol;
     }
 
     /**
@@ -291,32 +371,39 @@ public class Parser {
         for (int i=0; i<types.length; i++){
             result = this.nextWordIs(types[i]);
             if (result != falseResult){
-                this.trimCurrentLine(result);
+                this.lexer.advance(result);
                 return variableTypes[i];
             }
         }
-        throw new ParserSyntaxException(VARIABLE_TYPE, this.lineNumber);
+        throw new ParserSyntaxException(DiagnosticCode.VARIABLE_TYPE, this.lineNumber, this.getColumn());
     }
 
     /**
      * Get the next word in the current line - a value. A value is either a legal input value for a variable
-     * type or a variable reference.
+     * type or a variable reference. Equal values are represented by a single value object.
      * @return the value.
      * @throws ParserSyntaxException - if the next word in the current line is not a legal value.
      */
     private Value getValue() throws ParserSyntaxException {
         int result;
-        for (int i=0; i<typePatterns.length; i++){
-            result = this.nextWordIs(typePatterns[i]);
+        for (Variable.Type variableType: variableTypes){
+            result = this.lexer.matchLiteral(variableType);
             if (result != falseResult){
-                this.trimCurrentLine(result);
-                return new Value(variableTypes[i]);
+                this.lexer.advance(result);
+                return Value.of(variableType);
             }
         }
-        if (this.nextWordIs(variableNamePattern) == falseResult){
-            throw new ParserSyntaxException(VALID_VALUE, this.lineNumber);
+        if (this.lexer.matchVariableName() == falseResult){
+            throw new ParserSyntaxException(DiagnosticCode.VALID_VALUE, this.lineNumber, this.getColumn());
+        }
+        Symbol valueSymbol = this.getVariableSymbol();
+        if (valueSymbol.getId() >= this.referenceValues.length){
+            this.referenceValues = Arrays.copyOf(this.referenceValues, this.symbols.size()*2);
         }
-        return new Value(this.getVariableName());
+        if (this.referenceValues[valueSymbol.getId()] == null){
+            this.referenceValues[valueSymbol.getId()] = new Value(valueSymbol);
+        }
+        return this.referenceValues[valueSymbol.getId()];
     }
 
     /**
@@ -362,8 +449,8 @@ public class Parser {
     private Parameter getParameter() throws ParserSyntaxException {
         boolean isFinal = this.isFinal();
         Variable.Type parameterType = this.getVariableType();
-        String parameterName = this.getVariableName();
-        return new Parameter(isFinal, parameterType, parameterName);
+        Symbol parameterSymbol = this.getVariableSymbol();
+        return new Parameter(isFinal, parameterType, parameterSymbol);
     }
 
     /**
@@ -388,24 +475,36 @@ public class Parser {
      * @throws ParserSyntaxException - if the verification failed.
      */
     private void verifyEndOfLine() throws ParserSyntaxException {
-        if(!this.currentLine.isEmpty()){
-            throw new ParserSyntaxException(VERIFY_END, this.lineNumber);
+        if(!this.lexer.isAtEnd()){
+            throw new ParserSyntaxException(DiagnosticCode.VERIFY_END, this.lineNumber, this.getColumn());
         }
     }
 
     /**
-     * Add a new code line to the current commands scope.
-     * @param command - the command to be added.
+     * Called after a command has been added to the current commands scope. If the parser has a pipeline, the
+     * global scope commands are handed off to it once there are enough of them to make a segment.
      */
-    private void addCommandLine(ToIntFunction<Executor> command){
-        CodeLine codeLine = new CodeLine(command, this.lineNumber);
-        this.currentCommands.add(codeLine);
+    private void commandAdded(){
+        if (this.pipeline != null && this.currentCommands == this.globalScopeCommands &&
+                this.globalScopeCommands.size() >= SEGMENT_SIZE){
+            this.handOffGlobalScopeCommands();
+        }
+    }
+
+    /**
+     * Hand off the global scope commands which have not been handed off yet to the pipeline, as a segment.
+     */
+    private void handOffGlobalScopeCommands(){
+        if (this.globalScopeCommands.size() > 0){
+            this.pipeline.put(this.globalScopeCommands.build());
+            this.globalScopeCommands.clear();
+        }
     }
 
     /*----=   Instance Methods: 3. 'Command Factory' Methods  =----*/
 
     /**
-     * Parse a variable definition line and add the corresponding command to the current commands array.
+     * Parse a variable definition line and add the corresponding command to the current commands.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void defineMultipleVariables() throws ParserSyntaxException {
@@ -423,98 +522,101 @@ public class Parser {
     /**
      * Helper method to defineMultipleVariables() which parses the next words in the current line - a
      * variable name, and potentially a value assignment - and adds a variable definition command to the
-     * current commands array.
+     * current commands.
      * @param isFinal - the variable's final modifier.
      * @param variableType - the variable's type.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void defineVariables(boolean isFinal, Variable.Type variableType)
             throws ParserSyntaxException {
-        String variableName = this.getVariableName();
-        Value tempValue = null;
+        Symbol variableSymbol = this.getVariableSymbol();
+        Value value = null;
         if (this.nextWordIs(EQUAL_SIGN) != falseResult){
             this.scan(EQUAL_SIGN);
-            tempValue = this.getValue();
+            value = this.getValue();
         }
-        Value value = tempValue;
 
-        ToIntFunction<Executor> command = Executor -> Executor.defineVariable(isFinal, variableType, variableName, value);
-        this.addCommandLine(command);
+        this.currentCommands.defineVariable(isFinal, variableType, variableSymbol, value, this.lineNumber);
+        this.commandAdded();
     }
 
     /**
-     * Parse a value assignment line and add the corresponding command to the current commands array.
+     * Parse a value assignment line and add the corresponding command to the current commands.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void assignValue() throws ParserSyntaxException {
-        String variableName = this.getVariableName();
+        Symbol variableSymbol = this.getVariableSymbol();
         this.scan(EQUAL_SIGN);
         Value value = this.getValue();
 
-        ToIntFunction<Executor> command = Executor -> Executor.assignValue(variableName, value);
-        this.addCommandLine(command);
+        this.currentCommands.assignValue(variableSymbol, value, this.lineNumber);
+        this.commandAdded();
 
         this.scan(SEMICOLON);
         this.verifyEndOfLine();
     }
 
     /**
-     * Parse a method call line and add the corresponding command to the current commands array.
+     * Parse a method call line and add the corresponding command to the current commands.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void callMethod() throws ParserSyntaxException {
-        String methodName = this.getMethodName();
+        Symbol methodSymbol = this.getMethodSymbol();
         this.scan(LEFT_PARENTHESIS);
         ArrayList<Value> values = this.getValues();
         this.scan(RIGHT_PARENTHESIS);
 
-        ToIntFunction<Executor> command = Executor -> Executor.callMethod(methodName, values);
-        this.addCommandLine(command);
+        this.currentCommands.callMethod(methodSymbol, values, this.lineNumber);
+        this.commandAdded();
 
         this.scan(SEMICOLON);
         this.verifyEndOfLine();
     }
 
     /**
-     * Parse a return statement and add the corresponding command to the current commands array.
+     * Parse a return statement and add the corresponding command to the current commands.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void sendReturnStatement() throws ParserSyntaxException {
         this.scan(RETURN);
 
-        ToIntFunction<Executor> command = Executor::sendReturnStatement;
-        this.addCommandLine(command);
+        this.currentCommands.sendReturnStatement(this.lineNumber);
+        this.commandAdded();
 
         this.scan(SEMICOLON);
         this.verifyEndOfLine();
     }
 
     /**
-     * Parse a method declaration line and add the corresponding command to the current commands array;
-     * change current commands array to local and add an open method scope command.
+     * Parse a method declaration line and add the corresponding command to the current commands;
+     * change current commands to local and add an open method scope command. The line of a method declared
+     * in the global scope is kept as the first line of its body; an illegal declaration inside a method is
+     * part of the enclosing body.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void openMethodDeclaration() throws ParserSyntaxException {
         this.scan(VOID);
-        String methodName = this.getMethodName();
+        Symbol methodSymbol = this.getMethodSymbol();
         this.scan(LEFT_PARENTHESIS);
         ArrayList<Parameter> parameters = this.getParameters();
         this.scan(RIGHT_PARENTHESIS);
 
-        ToIntFunction<Executor> command = Executor -> Executor.declareMethod(methodName, parameters);
-        this.addCommandLine(command);
+        this.currentCommands.declareMethod(methodSymbol, parameters, this.lineNumber);
+        this.commandAdded();
 
         this.scan(LEFT_BRACE);
         this.verifyEndOfLine();
 
+        if (this.braceCounter == 0){
+            this.methodFirstLine = this.lineNumber;
+        }
         this.braceCounter++;
         this.currentCommands = this.localScopeCommands;
-        command = Executor -> Executor.openMethodScope(methodName);
-        this.addCommandLine(command);
+        this.currentCommands.openMethodScope(methodSymbol, this.lineNumber);
     }
 
     /**
-     * Parse an if/while statement and add the corresponding command to the current commands array.
+     * Parse an if/while statement and add the corresponding command to the current commands.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void openIfWhileBlock() throws ParserSyntaxException {
@@ -524,8 +626,8 @@ public class Parser {
         ArrayList<Value> conditions = this.getConditions();
         this.scan(RIGHT_PARENTHESIS);
 
-        ToIntFunction<Executor> command = Executor -> Executor.openIfWhileScope(conditions);
-        this.addCommandLine(command);
+        this.currentCommands.openIfWhileScope(conditions, this.lineNumber);
+        this.commandAdded();
 
         this.scan(LEFT_BRACE);
         this.verifyEndOfLine();
@@ -534,23 +636,43 @@ public class Parser {
     }
 
     /**
-     * Parse a close block statement and add the corresponding command to the current commands array;
-     * if reached global scope - change current commands array to global.
+     * Parse a close block statement and add the corresponding command to the current commands;
+     * if reached global scope - change current commands to global.
      * @throws ParserSyntaxException - if the line's syntax is illegal.
      */
     private void closeBlock() throws ParserSyntaxException {
-        ToIntFunction<Executor> command = Executor::closeScope;
-        this.addCommandLine(command);
+        this.currentCommands.closeScope(this.lineNumber);
+        this.commandAdded();
 
         this.scan(RIGHT_BRACE);
         this.verifyEndOfLine();
 
         this.braceCounter--;
-        if (this.braceCounter == 0){
+        if (this.braceCounter <= 0){
+            this.braceCounter = 0;
+            this.endMethodBody();
             this.currentCommands = this.globalScopeCommands;
         }
     }
 
+    /**
+     * Called when the current commands return to the global scope, or the file ends. If the parser keeps only
+     * the global scope commands, and a method body has just ended, its lines are recorded and its commands
+     * are removed.
+     */
+    private void endMethodBody(){
+        if (this.methodLines == null || this.reparsing || this.currentCommands != this.localScopeCommands){
+            return;
+        }
+        if (this.methodsCount*2 == this.methodLines.length){
+            this.methodLines = Arrays.copyOf(this.methodLines, this.methodLines.length*2);
+        }
+        this.methodLines[this.methodsCount*2] = this.methodFirstLine;
+        this.methodLines[this.methodsCount*2+1] = this.lineNumber;
+        this.methodsCount++;
+        this.localScopeCommands.clear();
+    }
+
     /*----=   Instance Methods: 4. File Parsing Methods  =----*/
 
 
@@ -560,54 +682,94 @@ public class Parser {
      * parsing methods received a line with illegal syntax.
      */
     private void parseCurrentLine() throws ParserSyntaxException {
-        if (this.nextWordIs(commentPattern) != falseResult){
-            return;
-        }
-        if (this.currentLine.trim().isEmpty()){
+        if (this.lexer.isComment() || this.lexer.isBlank()){
+            this.lineKind = BLANK_LINE;
             return;
         }
 
-        this.currentLine = this.currentLine.trim();
-        String testLine = this.currentLine.trim().replace(" ", "");
-
-        if (testLine.endsWith(LEFT_BRACE)){
-            if ((testLine.contains(IF))||(testLine.contains(WHILE))){
+        if (this.lexer.endsWith(LEFT_BRACE_CHAR)){
+            if ((this.lexer.containsIgnoringSpaces(IF))||(this.lexer.containsIgnoringSpaces(WHILE))){
+                this.lineKind = IF_WHILE_LINE;
                 this.openIfWhileBlock();
                 return;
             }
+            this.lineKind = METHOD_LINE;
             this.openMethodDeclaration();
             return;
         }
-        if (testLine.endsWith(RIGHT_BRACE)){
+        if (this.lexer.endsWith(RIGHT_BRACE_CHAR)){
+            this.lineKind = CLOSE_LINE;
             this.closeBlock();
             return;
         }
-        if (testLine.endsWith(SEMICOLON)){
+        if (this.lexer.endsWith(SEMICOLON_CHAR)){
             String[] defineVariablePrefixes = {FINAL, INT, STRING, CHAR, DOUBLE, BOOLEAN};
             for (String prefix: defineVariablePrefixes){
-                if (testLine.contains(prefix.trim())){
+                if (this.lexer.containsIgnoringSpaces(prefix.trim())){
+                    this.lineKind = DEFINITION_LINE;
                     this.defineMultipleVariables();
                     return;
                 }
             }
-            if (testLine.contains(EQUAL_SIGN)){
+            if (this.lexer.containsIgnoringSpaces(EQUAL_SIGN)){
+                this.lineKind = ASSIGNMENT_LINE;
                 this.assignValue();
                 return;
             }
-            if (testLine.contains(RETURN)){
+            if (this.lexer.containsIgnoringSpaces(RETURN)){
+                this.lineKind = RETURN_LINE;
                 this.sendReturnStatement();
                 return;
             }
-            if ((testLine.contains(LEFT_PARENTHESIS)) &&
-                    (testLine.substring(testLine.indexOf(LEFT_PARENTHESIS)).contains(RIGHT_PARENTHESIS))){
+            if (this.lexer.containsPair(LEFT_PARENTHESIS_CHAR, RIGHT_PARENTHESIS_CHAR)){
+                this.lineKind = CALL_LINE;
                 this.callMethod();
                 return;
             }
         }
-        throw new ParserSyntaxException(PARSE_FAIL, this.lineNumber);
+        this.lineKind = ILLEGAL_LINE;
+        throw new ParserSyntaxException(DiagnosticCode.PARSE_FAIL, this.lineNumber, this.getColumn());
 
     }
 
+    /**
+     * Recover from a syntax error in the current line: add it to the diagnostics, remove the commands the
+     * line added, and re-synchronise the scopes at the line's brace, so that the following lines are parsed
+     * in the block they belong to. A block opened in the global scope, whose method declaration is illegal,
+     * is still parsed for syntax errors, but its commands are skipped; a block opened inside a method is kept
+     * as an if/while block without conditions. A syntax error found while a method body is parsed again is
+     * not added, as it was already found in the first pass.
+     * @param e - the syntax error.
+     * @param commandsSize - the number of current commands before the line was parsed.
+     */
+    private void recover(ParserSyntaxException e, int commandsSize){
+        if (!this.reparsing){
+            this.diagnostics.add(e.getDiagnostic());
+        }
+        this.currentCommands.truncate(commandsSize);
+        if (this.lexer.endsWith(LEFT_BRACE_CHAR)){
+            if (this.braceCounter == 0){
+                if (this.skippedCommands == null){
+                    this.skippedCommands = new ProgramBuilder();
+                }
+                this.skippedCommands.clear();
+                this.currentCommands = this.skippedCommands;
+            }
+            else {
+                this.currentCommands.openIfWhileScope(new ArrayList<>(), this.lineNumber);
+            }
+            this.braceCounter++;
+        }
+        else if (this.lexer.endsWith(RIGHT_BRACE_CHAR) && this.braceCounter > 0){
+            this.currentCommands.closeScope(this.lineNumber);
+            this.braceCounter--;
+            if (this.braceCounter == 0){
+                this.endMethodBody();
+                this.currentCommands = this.globalScopeCommands;
+            }
+        }
+    }
+
     /**
      * Verify that the given command line arguments array has the correct number of arguments.
      * @param args - the command line arguments
@@ -615,43 +777,737 @@ public class Parser {
      */
     private void verifyCommandLineArgument(String[] args) throws ParserIOException {
         if (args.length != EXPECTED_COMMAND_LINE_LENGTH){
-            throw new ParserIOException(NUMBER_OF_ARGUMENTS);
+            throw new ParserIOException(DiagnosticCode.NUMBER_OF_ARGUMENTS);
         }
     }
 
     /**
-     * Parse the given s-java file and return an array of commands representing the s-java file's code.
+     * Parse the given s-java file and return a program of commands representing the s-java file's code.
      * @param args - the s-java file's source name.
-     * @return - the array of commands.
-     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java file.
+     * @return - the program of commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java file, and does not
+     * recover from syntax errors.
      * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java file.
      */
-    public ArrayList<CodeLine> getCommands(String[] args)  throws ParserSyntaxException, ParserIOException {
+    public Program getCommands(String[] args)  throws ParserSyntaxException, ParserIOException {
         this.verifyCommandLineArgument(args);
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(args[0]))){
-            this.currentLine = bufferedReader.readLine();
-            while (this.currentLine != null){
-                this.originalLine = this.currentLine;
-                this.lineNumber ++;
-                this.parseCurrentLine();
-                this.currentLine = bufferedReader.readLine();
+        try {
+            return this.parseFile(args[0], false);
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_FILE_NAME);
+        }
+    }
+
+    /**
+     * Start parsing the given s-java file on a new thread, and return a pipeline which hands off the commands
+     * representing the s-java file's code in the same order as getCommands(), in segments as soon as they
+     * are parsed.
+     * @param args - the s-java file's source name.
+     * @return - the pipeline of commands.
+     * @throws ParserIOException - if the command line arguments are illegal.
+     */
+    public CommandPipeline pipeCommands(String[] args) throws ParserIOException {
+        this.verifyCommandLineArgument(args);
+        return this.pipeCommands(() -> this.parseFile(args[0], false), DiagnosticCode.SOURCE_FILE_NAME);
+    }
+
+    /**
+     * Start parsing the given s-java code, encoded with the default charset, on a new thread, and return a
+     * pipeline which hands off its commands as pipeCommands() does for a file.
+     * @param contents - the s-java code, between the buffer's position and limit.
+     * @return - the pipeline of commands.
+     */
+    public CommandPipeline pipeCommands(ByteBuffer contents){
+        return this.pipeCommands(() -> {
+            try (Source source = TextSource.fromBytes(contents.duplicate(), Charset.defaultCharset())){
+                this.parse(source);
+            }
+        }, DiagnosticCode.SOURCE_CONTENTS);
+    }
+
+    /**
+     * Start the given pass of the parser over a source on a new thread, and return a pipeline which hands off
+     * the commands it parses.
+     * @param pass - the pass which opens the source and parses it.
+     * @param ioFailure - the code of the failure the pipeline fails with if the source could not be read.
+     * @return - the pipeline of commands.
+     */
+    private CommandPipeline pipeCommands(Pass pass, DiagnosticCode ioFailure){
+        this.pipeline = new CommandPipeline();
+        this.localScopeCommands = new ProgramBuilder();
+        this.pipeline.start(() -> {
+            try {
+                pass.run();
+                this.pipeline.close();
+            }
+            catch (ParserSyntaxException e){
+                this.handOffGlobalScopeCommands();
+                this.pipeline.fail(e);
             }
-            ArrayList<CodeLine> commands = this.globalScopeCommands;
-            commands.addAll(this.localScopeCommands);
-            return commands;
+            catch (IOException e){
+                this.handOffGlobalScopeCommands();
+                this.pipeline.fail(new ParserIOException(ioFailure));
+            }
+        });
+        return this.pipeline;
+    }
+
+    /**
+     * Parse the given s-java file in bounded memory: the file is read through a reader, every line is parsed
+     * for syntax errors, but only the global scope commands are kept, along with the lines of each method
+     * body. The returned commands hold the same commands as getCommands() returns, in the same order; the
+     * commands of each method body are parsed again from the file as they are needed, so the memory used
+     * grows with the largest method body rather than with the whole file.
+     * @param args - the s-java file's source name.
+     * @return - the commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java file, and does not
+     * recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java file.
+     */
+    public BoundedCommands getBoundedCommands(String[] args) throws ParserSyntaxException, ParserIOException {
+        this.verifyCommandLineArgument(args);
+        this.localScopeCommands = new ProgramBuilder();
+        this.methodLines = new int[INITIAL_METHODS_CAPACITY*2];
+        this.methodsCount = 0;
+        try {
+            Program globalScopeCommands = this.parseFile(args[0], true);
+            return new BoundedCommands(this, () -> Source.stream(args[0]), globalScopeCommands,
+                    Arrays.copyOf(this.methodLines, this.methodsCount*2));
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_FILE_NAME);
+        }
+    }
+
+    /**
+     * Parse the given s-java code, encoded with the default charset, in bounded memory, as getBoundedCommands()
+     * parses a file: only the global scope commands are kept, and the commands of each method body are parsed
+     * again from the code as they are needed, so the commands held do not grow with the code.
+     * @param contents - the s-java code, between the buffer's position and limit.
+     * @return - the commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java code, and does not
+     * recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java code.
+     */
+    public BoundedCommands getBoundedCommands(ByteBuffer contents) throws ParserSyntaxException, ParserIOException {
+        this.localScopeCommands = new ProgramBuilder();
+        this.methodLines = new int[INITIAL_METHODS_CAPACITY*2];
+        this.methodsCount = 0;
+        Source.Opener opener = () -> TextSource.fromBytes(contents.duplicate(), Charset.defaultCharset());
+        try (Source source = opener.open()){
+            Program globalScopeCommands = this.parse(source);
+            return new BoundedCommands(this, opener, globalScopeCommands,
+                    Arrays.copyOf(this.methodLines, this.methodsCount*2));
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_CONTENTS);
+        }
+    }
+
+    /**
+     * Parse the lines of the given source again, from its current line up to the given method body, and
+     * return a program of the method body's commands. This method assumes the parser has parsed the whole
+     * source with getBoundedCommands(), and that the given method body begins after the current line: the
+     * first call is given the source from its beginning, and each following call the same source, for a later
+     * method body.
+     * @param source - the given source.
+     * @param firstLine - the line number of the method's declaration.
+     * @param lastLine - the line number of the method's closing brace, or of the source's last line.
+     * @return - the program of the method body's commands.
+     * @throws IOException - if the source could not be read, or it does not hold the method body it held in
+     * the first pass.
+     */
+    Program reparseMethodBody(Source source, int firstLine, int lastLine) throws IOException {
+        if (!this.reparsing){
+            this.reparsing = true;
+            this.lineNumber = 0;
+        }
+        while (this.lineNumber < firstLine-1){
+            this.nextLine(source);
+        }
+        this.globalScopeCommands.clear();
+        this.localScopeCommands.clear();
+        this.currentCommands = this.globalScopeCommands;
+        this.braceCounter = 0;
+        try {
+            while (this.lineNumber < lastLine){
+                this.nextLine(source);
+                this.parseLine(source.getLine());
+                if (this.isOverBudget()){
+                    throw new IOException();
+                }
+            }
+        }
+        catch (ParserSyntaxException e){
+            throw new IOException(e);
+        }
+        if (this.localScopeCommands.size() == 0){
+            throw new IOException();
+        }
+        return this.localScopeCommands.build();
+    }
+
+    /**
+     * Parse the given s-java file lazily: only the global scope commands are parsed, and the lines of each
+     * method body are skipped, keeping only where the body begins and ends in the file's text. The returned
+     * commands hold the global scope commands, followed by each method body's commands, which are parsed only
+     * when the executor reaches them, so a file whose global scope commands fail is never parsed further.
+     * A syntax error in a method body is therefore found only once the commands before it were executed. A
+     * file whose text cannot be held in memory, such as a pipe, is parsed whole, as getCommands() parses it.
+     * @param args - the s-java file's source name.
+     * @return - the commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the global scope of the s-java
+     * file, and does not recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java file.
+     */
+    public LazyCommands getLazyCommands(String[] args) throws ParserSyntaxException, ParserIOException {
+        this.verifyCommandLineArgument(args);
+        this.localScopeCommands = new ProgramBuilder();
+        this.deferredMethods = new int[INITIAL_METHODS_CAPACITY*DEFERRED_METHOD_SIZE];
+        this.methodsCount = 0;
+        try {
+            Program globalScopeCommands = this.parseFile(args[0], false);
+            return new LazyCommands(this, this.deferredText, globalScopeCommands,
+                    Arrays.copyOf(this.deferredMethods, this.methodsCount*DEFERRED_METHOD_SIZE));
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_FILE_NAME);
+        }
+    }
+
+    /**
+     * Parse the given s-java code, encoded with the default charset, lazily, as getLazyCommands() parses a
+     * file: only the global scope commands are parsed, and each method body is parsed when the executor
+     * reaches it.
+     * @param contents - the s-java code, between the buffer's position and limit.
+     * @return - the commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the global scope of the s-java
+     * code, and does not recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java code.
+     */
+    public LazyCommands getLazyCommands(ByteBuffer contents) throws ParserSyntaxException, ParserIOException {
+        this.localScopeCommands = new ProgramBuilder();
+        this.deferredMethods = new int[INITIAL_METHODS_CAPACITY*DEFERRED_METHOD_SIZE];
+        this.methodsCount = 0;
+        try (Source source = TextSource.fromBytes(contents.duplicate(), Charset.defaultCharset())){
+            Program globalScopeCommands = this.parse(source);
+            return new LazyCommands(this, this.deferredText, globalScopeCommands,
+                    Arrays.copyOf(this.deferredMethods, this.methodsCount*DEFERRED_METHOD_SIZE));
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_CONTENTS);
+        }
+    }
+
+    /**
+     * Parse a method body which was skipped by getLazyCommands(), and return a program of its commands. The
+     * parser stops at the method body's first syntax error once its diagnostics are full, as hasStopped()
+     * then tells.
+     * @param text - the text of the file.
+     * @param method - the method body, as recorded by getLazyCommands(): the offsets of its declaration and of
+     * the line after its closing brace, the line number of its declaration and the number of blocks open
+     * before it, one after the other.
+     * @return - the program of the method body's commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the method body, and does not
+     * recover from syntax errors.
+     */
+    Program parseMethodBody(CharSequence text, int[] method) throws ParserSyntaxException {
+        this.globalScopeCommands.clear();
+        this.localScopeCommands.clear();
+        this.currentCommands = this.globalScopeCommands;
+        this.braceCounter = method[3];
+        this.lineNumber = method[2]-1;
+        try {
+            this.parseLines(new TextSource(text, method[0], method[1]));
+        }
+        catch (IOException e){
+            // The lines of a text source are in memory, so reading them cannot fail.
+        }
+        return this.localScopeCommands.build();
+    }
+
+    /**
+     * Parse the given s-java code as a file which is edited, keeping its lines in units which are parsed again
+     * only when an edit changes them, as described in IncrementalCommands. This method assumes the parser stops
+     * at the first syntax error, as the default constructor's parser does; it stops at the first syntax error
+     * of each unit.
+     * @param code - the s-java code.
+     * @return - the commands.
+     */
+    public IncrementalCommands getIncrementalCommands(CharSequence code){
+        IncrementalCommands commands = new IncrementalCommands(this);
+        commands.edit(1, 0, code);
+        return commands;
+    }
+
+    /**
+     * Parse a unit of a file which is edited, from the global scope with no block open, and return the
+     * programs of its global scope commands and of its local scope commands. The line numbers of the commands
+     * are counted from the unit's first line.
+     * @param text - the text of the unit.
+     * @return - the program of the unit's global scope commands, followed by that of its local scope commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the unit.
+     */
+    Program[] parseUnit(CharSequence text) throws ParserSyntaxException {
+        this.globalScopeCommands.clear();
+        this.localScopeCommands.clear();
+        this.currentCommands = this.globalScopeCommands;
+        this.braceCounter = 0;
+        this.lineNumber = 0;
+        try {
+            this.parseLines(new TextSource(text));
+        }
+        catch (IOException e){
+            // The lines of a text source are in memory, so reading them cannot fail.
+        }
+        return new Program[]{this.globalScopeCommands.build(), this.localScopeCommands.build()};
+    }
+
+    /**
+     * Parse the given s-java code, encoded with the default charset, and return a program of commands
+     * representing the code.
+     * @param contents - the s-java code, between the buffer's position and limit.
+     * @return - the program of commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java code, and does not
+     * recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java code.
+     */
+    public Program getCommands(ByteBuffer contents)  throws ParserSyntaxException, ParserIOException {
+        try (Source source = TextSource.fromBytes(contents, Charset.defaultCharset())){
+            return this.parse(source);
         }
         catch (IOException e){
-            throw new ParserIOException(SOURCE_FILE_NAME);
+            throw new ParserIOException(DiagnosticCode.SOURCE_CONTENTS);
+        }
+    }
+
+    /**
+     * Parse the given s-java code and return a program of commands representing the code.
+     * @param code - the s-java code.
+     * @return - the program of commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java code, and does not
+     * recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while parsing the s-java code.
+     */
+    public Program getCommands(CharSequence code) throws ParserSyntaxException, ParserIOException {
+        try {
+            return this.parse(new TextSource(code));
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_CONTENTS);
+        }
+    }
+
+    /**
+     * Parse the s-java code read through the given reader, and return a program of commands representing the
+     * code. The reader is read to its end, but it is not closed.
+     * @param reader - the given reader.
+     * @return - the program of commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the s-java code, and does not
+     * recover from syntax errors.
+     * @throws ParserIOException - if parser encountered an IO exception while reading the s-java code.
+     */
+    public Program getCommands(Reader reader) throws ParserSyntaxException, ParserIOException {
+        try {
+            return this.parse(new ReaderSource(reader));
+        }
+        catch (IOException e){
+            throw new ParserIOException(DiagnosticCode.SOURCE_CONTENTS);
+        }
+    }
+
+    /**
+     * Open the given s-java file, and parse its lines. The pass over the file is recorded by the flight
+     * recorder, if file reads are recorded; no event is created before a recording was started.
+     * @param fileName - the path of the s-java file.
+     * @param streamed - true if the file is read through a reader; false if it may be memory-mapped.
+     * @return - the program of commands returned by parse().
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the file.
+     * @throws IOException - if the file could not be opened or read.
+     */
+    private Program parseFile(String fileName, boolean streamed) throws ParserSyntaxException, IOException {
+        if (FlightRecording.isInitialized()){
+            return this.parseRecordedFile(fileName, streamed);
+        }
+        try (Source source = streamed ? Source.stream(fileName) : Source.open(fileName)){
+            return this.parse(source);
+        }
+    }
+
+    /**
+     * Open the given s-java file, and parse its lines, recording the pass over the file with a file read event.
+     * @param fileName - the path of the s-java file.
+     * @param streamed - true if the file is read through a reader; false if it may be memory-mapped.
+     * @return - the program of commands returned by parse().
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the file.
+     * @throws IOException - if the file could not be opened or read.
+     */
+    private Program parseRecordedFile(String fileName, boolean streamed) throws ParserSyntaxException,
+            IOException {
+        FileReadEvent event = new FileReadEvent();
+        event.begin();
+        try (Source source = streamed ? Source.stream(fileName) : Source.open(fileName)){
+            return this.parse(source);
+        }
+        finally {
+            if (event.shouldCommit()){
+                event.fileName = fileName;
+                event.lines = this.lineNumber;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Parse the lines of the given source and return a program of commands representing its code: the global
+     * scope commands followed by the local scope commands. If the parser has a pipeline, the commands are
+     * handed off to the pipeline instead; if it keeps only the global scope commands, they are returned alone.
+     * A large source may be parsed in parallel, as described in parseInParallel(), and a source whose method
+     * bodies are deferred is parsed as described in parseGlobalScope().
+     * @param source - the given source.
+     * @return - the program of commands; null if they were handed off to the pipeline.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the source.
+     * @throws IOException - if the source could not be read.
+     */
+    private Program parse(Source source) throws ParserSyntaxException, IOException {
+        if (this.deferredMethods != null && source instanceof TextSource){
+            return this.parseGlobalScope((TextSource) source);
+        }
+        if (this.mayParseInParallel(source)){
+            return this.parseInParallel((TextSource) source);
+        }
+        this.parseLines(source);
+        if (this.pipeline != null){
+            this.handOffGlobalScopeCommands();
+            this.pipeline.put(this.localScopeCommands.build());
+            return null;
+        }
+        if (this.methodLines != null){
+            this.endMethodBody();
+            return this.globalScopeCommands.build();
+        }
+        return this.globalScopeCommands.build(this.localScopeCommands);
+    }
+
+    /**
+     * Begin the totals of a pass's lines by kind, if parsed lines are recorded. The event classes are only
+     * referred to once the flight recorder was initialized, so a pass which is never recorded does not load them.
+     * @return the totals of the pass's lines; null if parsed lines are not enabled in any running recording.
+     */
+    private KindTotals beginLineTotals(){
+        if (!FlightRecording.isInitialized()){
+            return null;
+        }
+        return KindTotals.begin(LINE_KINDS, ParsedLinesEvent::new);
+    }
+
+    /**
+     * Parse the lines of the given source, from the line after the current line number, until the source ends,
+     * the parser's diagnostics are full, its pipeline is cancelled or its budget is exceeded. If parsed lines
+     * are recorded by the flight recorder, each line is timed, and the lines of each kind are recorded once
+     * the lines have been parsed.
+     * @param source - the given source.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the source.
+     * @throws IOException - if the source could not be read.
+     */
+    private void parseLines(Source source) throws ParserSyntaxException, IOException {
+        this.lineTotals = this.beginLineTotals();
+        try {
+            while (source.nextLine()){
+                if (this.pipeline != null && this.pipeline.isCancelled()){
+                    break;
+                }
+                this.lineNumber ++;
+                this.parseLine(source.getLine());
+                if (this.hasStopped()){
+                    break;
+                }
+            }
+        }
+        finally {
+            if (this.lineTotals != null){
+                this.lineTotals.commit();
+                this.lineTotals = null;
+            }
+        }
+    }
+
+    /**
+     * Parse the global scope of the given source, whose method bodies are deferred: each line outside of a
+     * method body is parsed, while the lines of a method body are only scanned for the blocks they open and
+     * close, as the parser opens and closes blocks when it recovers from a syntax error, so the end of the
+     * method body is found where parsing it would have ended. Each method body is recorded, and its commands
+     * are left out.
+     * @param source - the given source, from its beginning.
+     * @return - the program of the global scope commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error outside of the method bodies.
+     */
+    private Program parseGlobalScope(TextSource source) throws ParserSyntaxException {
+        this.deferredText = source.getText();
+        this.lineTotals = this.beginLineTotals();
+        try {
+            int lineStart = source.getPosition();
+            while (source.nextLine()){
+                this.lineNumber ++;
+                if (this.currentCommands == this.localScopeCommands){
+                    this.skipLine(source.getLine(), source.getPosition());
+                }
+                else {
+                    int braceCounter = this.braceCounter;
+                    this.parseLine(source.getLine());
+                    if (this.currentCommands == this.localScopeCommands){
+                        this.deferMethodBody(lineStart, braceCounter);
+                    }
+                }
+                if (this.hasStopped()){
+                    break;
+                }
+                lineStart = source.getPosition();
+            }
         }
+        finally {
+            if (this.lineTotals != null){
+                this.lineTotals.commit();
+                this.lineTotals = null;
+            }
+        }
+        if (this.currentCommands == this.localScopeCommands){
+            this.endDeferredMethodBody(source.getPosition());
+        }
+        return this.globalScopeCommands.build();
     }
 
+    /**
+     * Record the method body whose declaration is the current line, and remove the commands it added to the
+     * local scope commands.
+     * @param start - the offset of the current line in the source's text.
+     * @param braceCounter - the number of blocks open before the current line.
+     */
+    private void deferMethodBody(int start, int braceCounter){
+        int method = this.methodsCount*DEFERRED_METHOD_SIZE;
+        if (method == this.deferredMethods.length){
+            this.deferredMethods = Arrays.copyOf(this.deferredMethods, this.deferredMethods.length*2);
+        }
+        this.deferredMethods[method] = start;
+        this.deferredMethods[method+2] = this.lineNumber;
+        this.deferredMethods[method+3] = braceCounter;
+        this.localScopeCommands.clear();
+    }
 
+    /**
+     * Skip the given line of a deferred method body, keeping count of the blocks it opens and closes, and end
+     * the method body once none of them is open.
+     * @param line - the given line.
+     * @param end - the offset after the given line in the source's text.
+     */
+    private void skipLine(CharSequence line, int end){
+        this.lexer.reset(line);
+        if (this.lexer.isComment() || this.lexer.isBlank()){
+            return;
+        }
+        if (this.lexer.endsWith(LEFT_BRACE_CHAR)){
+            this.braceCounter++;
+        }
+        else if (this.lexer.endsWith(RIGHT_BRACE_CHAR)){
+            this.braceCounter--;
+            if (this.braceCounter == 0){
+                this.endDeferredMethodBody(end);
+            }
+        }
+    }
 
+    /**
+     * End the deferred method body, which ends at the given offset, and return to the global scope commands.
+     * @param end - the offset after the method body's last line in the source's text.
+     */
+    private void endDeferredMethodBody(int end){
+        this.deferredMethods[this.methodsCount*DEFERRED_METHOD_SIZE+1] = end;
+        this.methodsCount++;
+        this.currentCommands = this.globalScopeCommands;
+    }
 
+    /**
+     * @return true if the parser's diagnostics are full, or its budget is exceeded, so it should stop parsing;
+     * false otherwise.
+     */
+    boolean hasStopped(){
+        return this.diagnostics != null && this.diagnostics.isFull() || this.isOverBudget();
+    }
 
+    /**
+     * A large source, whose text is in memory, is parsed in parallel on a multi-core machine, unless its
+     * commands are piped, only its global scope commands are kept or its lines are profiled.
+     * @param source - the given source.
+     * @return true if the given source may be parsed in parallel; false otherwise.
+     */
+    private boolean mayParseInParallel(Source source){
+        return this.pipeline == null && this.methodLines == null && this.profile == null &&
+                source instanceof TextSource && ((TextSource) source).getEnd() >= PARALLEL_TEXT_THRESHOLD &&
+                Runtime.getRuntime().availableProcessors() > 1;
+    }
 
+    /**
+     * Parse the given source in parallel: a quick pass over its lines finds where it may be cut into ranges,
+     * each range is parsed by a parser of its own as a fork-join task, and their commands are joined in the
+     * order of the source. The commands, their line numbers and the syntax errors found are those a single
+     * parser would have found: the errors of the ranges are added in order, and only the ranges up to the
+     * first one whose parser stopped count.
+     * @param source - the given source, from its beginning.
+     * @return - the program of commands.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the source, and does not recover
+     * from syntax errors.
+     * @throws IOException - if the source could not be read.
+     */
+    private Program parseInParallel(TextSource source) throws ParserSyntaxException, IOException {
+        int[][] ranges = this.findRanges(source);
+        if (ranges[1].length == 1){
+            this.lineNumber = 0;
+            this.parseLines(new TextSource(source.getText(), ranges[0][0], ranges[0][1]));
+            return this.globalScopeCommands.build(this.localScopeCommands);
+        }
+        LineRangesTask task = new LineRangesTask(this, source.getText(), ranges[0], ranges[1]);
+        task.invoke();
+        if (task.getFirstFailure() != null){
+            throw task.getFirstFailure();
+        }
+        int rangesCount = task.getRangesCount();
+        ProgramBuilder[] globals = new ProgramBuilder[rangesCount];
+        ProgramBuilder[] locals = new ProgramBuilder[rangesCount];
+        Symbol[][] symbols = new Symbol[rangesCount][];
+        for (int range=0; range<rangesCount; range++){
+            Parser rangeParser = task.getRangeParser(range);
+            globals[range] = rangeParser.globalScopeCommands;
+            locals[range] = rangeParser.localScopeCommands;
+            symbols[range] = rangeParser.symbols.toArray();
+            for (int i=0; i<symbols[range].length; i++){
+                String name = symbols[range][i].getName();
+                symbols[range][i] = this.symbols.intern(name, 0, name.length());
+            }
+            if (this.diagnostics != null){
+                for (Diagnostic diagnostic: rangeParser.diagnostics){
+                    this.diagnostics.add(diagnostic);
+                }
+            }
+        }
+        return ProgramBuilder.concatenate(globals, locals, symbols);
+    }
 
+    /**
+     * Scan the structure of the given source, and find the lines at which it may be cut into ranges of about
+     * the same size: the lines before which the parser is in the global scope with no block open. A block is
+     * opened by each line which ends with '{' and closed by each line which ends with '}', unless it is a
+     * comment, whatever the rest of the line is, just as the parser opens and closes blocks when it recovers
+     * from a syntax error; a '}' with no open block is ignored. The current line number is moved to the
+     * source's last line.
+     * @param source - the given source, from its beginning.
+     * @return the offsets of the ranges' first lines followed by the source's end, and the line numbers of
+     * the ranges' first lines.
+     */
+    private int[][] findRanges(TextSource source){
+        int rangeSize = Math.max(MIN_RANGE_SIZE,
+                source.getEnd()/(ForkJoinPool.getCommonPoolParallelism()*RANGES_PER_THREAD));
+        int[] starts = new int[INITIAL_RANGES_CAPACITY];
+        int[] firstLines = new int[INITIAL_RANGES_CAPACITY];
+        int count = 1;
+        starts[0] = source.getPosition();
+        firstLines[0] = this.lineNumber+1;
+        int depth = 0;
+        while (source.nextLine()){
+            this.lineNumber++;
+            this.lexer.reset(source.getLine());
+            if (!this.lexer.isComment() && !this.lexer.isBlank()){
+                if (this.lexer.endsWith(LEFT_BRACE_CHAR)){
+                    depth++;
+                }
+                else if (this.lexer.endsWith(RIGHT_BRACE_CHAR)){
+                    depth = Math.max(depth-1, 0);
+                }
+            }
+            if (depth == 0 && source.getPosition()-starts[count-1] >= rangeSize &&
+                    source.getPosition() < source.getEnd()){
+                if (count+1 == starts.length){
+                    starts = Arrays.copyOf(starts, starts.length*2);
+                    firstLines = Arrays.copyOf(firstLines, firstLines.length*2);
+                }
+                starts[count] = source.getPosition();
+                firstLines[count] = this.lineNumber+1;
+                count++;
+            }
+        }
+        starts[count] = source.getEnd();
+        return new int[][]{Arrays.copyOf(starts, count+1), Arrays.copyOf(firstLines, count)};
+    }
 
+    /**
+     * @return a new parser for a range of this parser's source, with this parser's budget, which adds its
+     * syntax errors to diagnostics of its own, which may hold as many of them as this parser's may still hold;
+     * or which stops at the first syntax error, if this parser does.
+     */
+    Parser newRangeParser(){
+        Parser parser = new Parser(this.diagnostics == null ? null :
+                new DiagnosticList(this.diagnostics.getRemaining()));
+        parser.budget = this.budget;
+        return parser;
+    }
 
+    /**
+     * Parse the given range of a source, whose first line has the given line number. The parser is in the
+     * global scope with no block open at the range's first line, as it is at the source's first line.
+     * @param source - the source of the range.
+     * @param firstLine - the line number of the range's first line.
+     * @throws ParserSyntaxException - if parser encountered a syntax error in the range, and does not recover
+     * from syntax errors.
+     */
+    void parseRange(TextSource source, int firstLine) throws ParserSyntaxException {
+        this.lineNumber = firstLine-1;
+        try {
+            this.parseLines(source);
+        }
+        catch (IOException e){
+            // The lines of a text source are in memory, so reading them cannot fail.
+        }
+    }
+
+    /**
+     * Parse the given line, whose line number is the current line number, and recover from its syntax error,
+     * if the parser recovers from syntax errors.
+     * @param line - the given line.
+     * @throws ParserSyntaxException - if the line's syntax is illegal, and the parser does not recover from
+     * syntax errors.
+     */
+    private void parseLine(CharSequence line) throws ParserSyntaxException {
+        long startTime = this.lineTotals == null && this.profile == null ? 0 : System.nanoTime();
+        this.lexer.reset(line);
+        int commandsSize = this.currentCommands.size();
+        try {
+            this.parseCurrentLine();
+        }
+        catch (ParserSyntaxException e){
+            if (this.diagnostics == null || this.pipeline != null){
+                throw e;
+            }
+            this.recover(e, commandsSize);
+        }
+        finally {
+            if (this.lineTotals != null){
+                this.lineTotals.add(this.lineKind, startTime);
+            }
+            if (this.profile != null){
+                this.profile.addLine(this.lineNumber, LINE_KINDS[this.lineKind], startTime);
+            }
+        }
+    }
 
+    /**
+     * Move on to the next line of the given source, which is parsed again.
+     * @param source - the given source.
+     * @throws IOException - if the next line could not be read, or the source has ended.
+     */
+    private void nextLine(Source source) throws IOException {
+        if (!source.nextLine()){
+            throw new EOFException();
+        }
+        this.lineNumber++;
+    }
 }
@@ -1,31 +1,20 @@
 package oop.ex6.parser;
 
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticException;
+
 /**
  * This class signals that a parser has found an IO exception while parsing an s-java file.
  */
-public class ParserIOException extends Exception {
-
-    /*----=   Instance Data Members  =----*/
-
-    private final String detail_message;
-    private final static String detail_message_header = "IO exception: ";
+public class ParserIOException extends DiagnosticException {
 
     /*----=   Constructor  =----*/
 
     /**
-     * A constructor which receives a detail message.
-     * @param message - the given detail message.
-     */
-    public ParserIOException(String message){
-        this.detail_message = message+"\n";
-    }
-
-    /*----=   Instance Methods  =----*/
-
-    /**
-     * @return this exception's header and detail messages.
+     * A constructor which receives the code of this exception's message.
+     * @param code - the given code.
      */
-    public String getMessage(){
-        return detail_message_header+this.detail_message;
+    public ParserIOException(DiagnosticCode code){
+        super(code, new Object[0]);
     }
 }
@@ -1,32 +1,49 @@
 package oop.ex6.parser;
 
+import oop.ex6.diagnostics.Diagnostic;
+import oop.ex6.diagnostics.DiagnosticCode;
+import oop.ex6.diagnostics.DiagnosticException;
+
 /**
  * This class signals that a parser has found a syntax error in an s-java file.
  */
-public class ParserSyntaxException extends Exception {
+public class ParserSyntaxException extends DiagnosticException {
 
     /*----=   Instance Data Members  =----*/
-    private final String detail_message;
+
     private final int lineNumber;
-    private final static String detail_message_header = "Syntax exception: ";
-    private final static String warning_header = "Warning in line ";
+    private final int column;
+
+    /*----=   Constructor  =----*/
 
     /**
-     * A constructor which receives a detail message.
-     * @param message - the given detail message.
+     * A constructor which receives the code and arguments of this exception's message, and where the syntax
+     * error was found.
+     * @param code - the given code.
+     * @param lineNumber - the line number of the syntax error.
+     * @param column - the column of the syntax error, counted from 1.
+     * @param arguments - the arguments of the code's message.
      */
-    public ParserSyntaxException(String message, int lineNumber){
-        this.detail_message = message+"\n";
+    public ParserSyntaxException(DiagnosticCode code, int lineNumber, int column, Object... arguments){
+        super(code, arguments);
         this.lineNumber = lineNumber;
+        this.column = column;
     }
 
     /*----=   Instance Methods  =----*/
 
     /**
-     * @return this exception's header and detail messages.
+     * @return the diagnostic which reports this syntax error, at the line and column it was found.
      */
-    public String getMessage(){
-        return warning_header+lineNumber+" - "+detail_message_header+this.detail_message;
+    public Diagnostic getDiagnostic(){
+        return this.getDiagnostic(this.lineNumber, this.column);
     }
 
+    /**
+     * @return this exception's line, header and detail messages.
+     */
+    @Override
+    public String getMessage(){
+        return this.getDiagnostic().toString();
+    }
 }
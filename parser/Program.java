@@ -0,0 +1,177 @@
+package oop.ex6.parser;
+
+import oop.ex6.members.Parameter;
+import oop.ex6.members.Symbol;
+import oop.ex6.members.Value;
+import oop.ex6.members.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the commands of an s-java file, as a compact program for the executor.
+ * Each command is an instruction of four ints in a single flat array: an opcode (with the final modifier and
+ * the variable type of a variable definition in its upper bits), a line number, and two operands. The
+ * operands are indexes into side tables of symbols, values, value lists and parameter lists, which are shared
+ * by all of the instructions.
+ * A program may be a slice of a larger program: it then holds the instructions between its start and end
+ * indexes only, and shares the larger program's code and side tables.
+ */
+public class Program {
+
+    /*----=   Constants  =----*/
+
+    // The opcodes of the instructions.
+    public static final int DEFINE_VARIABLE = 0;
+    public static final int ASSIGN_VALUE = 1;
+    public static final int DECLARE_METHOD = 2;
+    public static final int OPEN_METHOD_SCOPE = 3;
+    public static final int OPEN_IF_WHILE_SCOPE = 4;
+    public static final int CALL_METHOD = 5;
+    public static final int RETURN_STATEMENT = 6;
+    public static final int CLOSE_SCOPE = 7;
+
+    // The layout of an instruction.
+    static final int INSTRUCTION_SIZE = 4;
+    static final int OPCODE_OFFSET = 0;
+    static final int LINE_NUMBER_OFFSET = 1;
+    static final int FIRST_OPERAND_OFFSET = 2;
+    static final int SECOND_OPERAND_OFFSET = 3;
+    static final int OPCODE_MASK = 0xff;
+    static final int FINAL_FLAG = 1 << 8;
+    static final int TYPE_SHIFT = 9;
+    static final int NO_OPERAND = -1;
+
+    private static final Variable.Type[] TYPES = Variable.Type.values();
+
+    /*----=   Instance Data Members  =----*/
+
+    private final int[] code;
+    private final int start;
+    private final int end;
+    private final Symbol[] symbols;
+    private final Value[] values;
+    private final List<ArrayList<Value>> valueLists;
+    private final List<ArrayList<Parameter>> parameterLists;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor for a program which receives its code and side tables.
+     * @param code - the instructions of the program.
+     * @param start - the index of the program's first instruction.
+     * @param end - the index after the program's last instruction.
+     * @param symbols - the variable and method symbols the instructions refer to.
+     * @param values - the values the instructions refer to.
+     * @param valueLists - the method call arguments and if/while conditions the instructions refer to.
+     * @param parameterLists - the method parameters the instructions refer to.
+     */
+    Program(int[] code, int start, int end, Symbol[] symbols, Value[] values, List<ArrayList<Value>> valueLists,
+            List<ArrayList<Parameter>> parameterLists){
+        this.code = code;
+        this.start = start;
+        this.end = end;
+        this.symbols = symbols;
+        this.values = values;
+        this.valueLists = valueLists;
+        this.parameterLists = parameterLists;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return the index of this program's first instruction.
+     */
+    public int getStart(){
+        return this.start;
+    }
+
+    /**
+     * @return the index after this program's last instruction.
+     */
+    public int getEnd(){
+        return this.end;
+    }
+
+    /**
+     * @return the number of instructions in this program.
+     */
+    public int size(){
+        return this.end-this.start;
+    }
+
+    /**
+     * @param start - the index of the slice's first instruction.
+     * @param end - the index after the slice's last instruction.
+     * @return a program of this program's instructions between the given indexes.
+     */
+    public Program slice(int start, int end){
+        return new Program(this.code, start, end, this.symbols, this.values, this.valueLists,
+                this.parameterLists);
+    }
+
+    /**
+     * @param instruction - the index of an instruction.
+     * @return the instruction's opcode.
+     */
+    public int getOpcode(int instruction){
+        return this.code[instruction*INSTRUCTION_SIZE+OPCODE_OFFSET] & OPCODE_MASK;
+    }
+
+    /**
+     * @param instruction - the index of an instruction.
+     * @return the line number of the instruction's code line.
+     */
+    public int getLineNumber(int instruction){
+        return this.code[instruction*INSTRUCTION_SIZE+LINE_NUMBER_OFFSET];
+    }
+
+    /**
+     * @param instruction - the index of a variable definition.
+     * @return the defined variable's final modifier.
+     */
+    public boolean isFinal(int instruction){
+        return (this.code[instruction*INSTRUCTION_SIZE+OPCODE_OFFSET] & FINAL_FLAG) != 0;
+    }
+
+    /**
+     * @param instruction - the index of a variable definition.
+     * @return the defined variable's type.
+     */
+    public Variable.Type getVariableType(int instruction){
+        return TYPES[this.code[instruction*INSTRUCTION_SIZE+OPCODE_OFFSET] >>> TYPE_SHIFT];
+    }
+
+    /**
+     * @param instruction - the index of an instruction which refers to a variable or a method.
+     * @return the variable's or method's symbol.
+     */
+    public Symbol getSymbol(int instruction){
+        return this.symbols[this.code[instruction*INSTRUCTION_SIZE+FIRST_OPERAND_OFFSET]];
+    }
+
+    /**
+     * @param instruction - the index of a variable definition or a value assignment.
+     * @return the assigned value; null if a variable is defined without a value.
+     */
+    public Value getValue(int instruction){
+        int value = this.code[instruction*INSTRUCTION_SIZE+SECOND_OPERAND_OFFSET];
+        return value == NO_OPERAND ? null : this.values[value];
+    }
+
+    /**
+     * @param instruction - the index of a method call, or of an if/while statement.
+     * @return the method call's arguments, or the if/while statement's conditions.
+     */
+    public ArrayList<Value> getValues(int instruction){
+        return this.valueLists.get(this.code[instruction*INSTRUCTION_SIZE+SECOND_OPERAND_OFFSET]);
+    }
+
+    /**
+     * @param instruction - the index of a method declaration.
+     * @return the method's parameters.
+     */
+    public ArrayList<Parameter> getParameters(int instruction){
+        return this.parameterLists.get(this.code[instruction*INSTRUCTION_SIZE+SECOND_OPERAND_OFFSET]);
+    }
+}
@@ -0,0 +1,414 @@
+package oop.ex6.parser;
+
+import oop.ex6.members.Parameter;
+import oop.ex6.members.Symbol;
+import oop.ex6.members.Value;
+import oop.ex6.members.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * This class represents a builder of a program, to which the parser adds an instruction for each command.
+ * Symbols and values which appear in many instructions are stored once in the side tables. Two builders may
+ * share their side tables, so that the program of one can be followed by the instructions of the other.
+ */
+class ProgramBuilder {
+
+    /*----=   Constants  =----*/
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The indexes of the offsets of a builder's side tables in a concatenated program.
+    private static final int SYMBOLS_OFFSET = 0;
+    private static final int VALUES_OFFSET = 1;
+    private static final int VALUE_LISTS_OFFSET = 2;
+    private static final int PARAMETER_LISTS_OFFSET = 3;
+    private static final int TABLES_COUNT = 4;
+    private static final int NO_TABLE = -1;
+
+    /*----=   Instance Data Members  =----*/
+
+    private int[] code;
+    private int size;
+    private Tables tables;
+
+    /*----=   Nested Classes  =----*/
+
+    /**
+     * This class represents the side tables of a program, and the indexes of the entries already in them.
+     */
+    private static class Tables {
+
+        private final ArrayList<Symbol> symbols = new ArrayList<>();
+        private final IdentityHashMap<Symbol, Integer> symbolIndexes = new IdentityHashMap<>();
+        private final ArrayList<Value> values = new ArrayList<>();
+        private final IdentityHashMap<Value, Integer> valueIndexes = new IdentityHashMap<>();
+        private final ArrayList<ArrayList<Value>> valueLists = new ArrayList<>();
+        private final ArrayList<ArrayList<Parameter>> parameterLists = new ArrayList<>();
+    }
+
+    /*----=   Constructors  =----*/
+
+    /**
+     * The default constructor.
+     */
+    ProgramBuilder(){
+        this.code = new int[INITIAL_CAPACITY*Program.INSTRUCTION_SIZE];
+        this.size = 0;
+        this.tables = new Tables();
+    }
+
+    /**
+     * A constructor for a builder which shares the side tables of the given builder.
+     * @param builder - the given builder.
+     */
+    ProgramBuilder(ProgramBuilder builder){
+        this();
+        this.tables = builder.tables;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Concatenate the commands which the parsers of consecutive ranges of a file's lines have added: the global
+     * scope commands of every range, in the order of the ranges, followed by the local scope commands of every
+     * range, as a single parser would have added them. Each range's builders share their side tables, whose
+     * entries are moved into the program's side tables once, with each of the range's own symbols replaced by
+     * the file's symbol of the same name.
+     * @param globals - the builders of the ranges' global scope commands.
+     * @param locals - the builders of the ranges' local scope commands, which share the side tables of the
+     * matching global builders.
+     * @param symbols - for each range, the file's symbols, indexed by the ids of the range's own symbols.
+     * @return the program of the file's commands.
+     */
+    static Program concatenate(ProgramBuilder[] globals, ProgramBuilder[] locals, Symbol[][] symbols){
+        Tables tables = new Tables();
+        IdentityHashMap<Symbol, Value> references = new IdentityHashMap<>();
+        int[][] offsets = new int[globals.length][];
+        int size = 0;
+        for (int range=0; range<globals.length; range++){
+            offsets[range] = moveTables(globals[range].tables, symbols[range], references, tables);
+            size += globals[range].size+locals[range].size;
+        }
+        int[] code = new int[size*Program.INSTRUCTION_SIZE];
+        int position = 0;
+        for (int range=0; range<globals.length; range++){
+            position = globals[range].relocate(code, position, offsets[range]);
+        }
+        for (int range=0; range<locals.length; range++){
+            position = locals[range].relocate(code, position, offsets[range]);
+        }
+        return new Program(code, 0, size, tables.symbols.toArray(new Symbol[0]),
+                tables.values.toArray(new Value[0]), tables.valueLists, tables.parameterLists);
+    }
+
+    /**
+     * Move the entries of a range's side tables to the end of a program's side tables, replacing the range's
+     * symbols, and the values and parameters which refer to them, with the file's.
+     * @param range - the side tables of the range.
+     * @param symbols - the file's symbols, indexed by the ids of the range's own symbols.
+     * @param references - the values which refer to each of the file's symbols, shared by all of the ranges.
+     * @param tables - the side tables of the program.
+     * @return the offsets of the range's entries in the program's side tables.
+     */
+    private static int[] moveTables(Tables range, Symbol[] symbols, Map<Symbol, Value> references,
+                                    Tables tables){
+        int[] offsets = new int[TABLES_COUNT];
+        offsets[SYMBOLS_OFFSET] = tables.symbols.size();
+        offsets[VALUES_OFFSET] = tables.values.size();
+        offsets[VALUE_LISTS_OFFSET] = tables.valueLists.size();
+        offsets[PARAMETER_LISTS_OFFSET] = tables.parameterLists.size();
+        for (Symbol symbol: range.symbols){
+            tables.symbols.add(symbols[symbol.getId()]);
+        }
+        for (Value value: range.values){
+            tables.values.add(moveValue(value, symbols, references));
+        }
+        for (ArrayList<Value> valueList: range.valueLists){
+            ArrayList<Value> moved = new ArrayList<>(valueList.size());
+            for (Value value: valueList){
+                moved.add(moveValue(value, symbols, references));
+            }
+            tables.valueLists.add(moved);
+        }
+        for (ArrayList<Parameter> parameterList: range.parameterLists){
+            ArrayList<Parameter> moved = new ArrayList<>(parameterList.size());
+            for (Parameter parameter: parameterList){
+                moved.add(new Parameter(parameter.isFinal(), parameter.getParameterType(),
+                        symbols[parameter.getParameterSymbol().getId()]));
+            }
+            tables.parameterLists.add(moved);
+        }
+        return offsets;
+    }
+
+    /**
+     * @param value - a value of a range's side tables.
+     * @param symbols - the file's symbols, indexed by the ids of the range's own symbols.
+     * @param references - the values which refer to each of the file's symbols.
+     * @return the given value, if it is an input value; otherwise the value which refers to the file's symbol.
+     */
+    private static Value moveValue(Value value, Symbol[] symbols, Map<Symbol, Value> references){
+        if (value.getValueSymbol() == null){
+            return value;
+        }
+        return references.computeIfAbsent(symbols[value.getValueSymbol().getId()], Value::new);
+    }
+
+    /*----=   Instance Methods: 1. Instructions  =----*/
+
+    /**
+     * Add a variable definition.
+     * @param isFinal - the variable's final modifier.
+     * @param variableType - the variable's type.
+     * @param variableSymbol - the variable's symbol.
+     * @param value - the variable's input value; null if it has none.
+     * @param lineNumber - the line number of the command.
+     */
+    void defineVariable(boolean isFinal, Variable.Type variableType, Symbol variableSymbol, Value value,
+                        int lineNumber){
+        int opcode = Program.DEFINE_VARIABLE | variableType.ordinal() << Program.TYPE_SHIFT;
+        if (isFinal){
+            opcode |= Program.FINAL_FLAG;
+        }
+        int valueIndex = value == null ? Program.NO_OPERAND : this.addValue(value);
+        this.add(opcode, lineNumber, this.addSymbol(variableSymbol), valueIndex);
+    }
+
+    /**
+     * Add a value assignment.
+     * @param variableSymbol - the variable's symbol.
+     * @param value - the assigned value.
+     * @param lineNumber - the line number of the command.
+     */
+    void assignValue(Symbol variableSymbol, Value value, int lineNumber){
+        this.add(Program.ASSIGN_VALUE, lineNumber, this.addSymbol(variableSymbol), this.addValue(value));
+    }
+
+    /**
+     * Add a method declaration.
+     * @param methodSymbol - the method's symbol.
+     * @param parameters - the method's parameters.
+     * @param lineNumber - the line number of the command.
+     */
+    void declareMethod(Symbol methodSymbol, ArrayList<Parameter> parameters, int lineNumber){
+        this.tables.parameterLists.add(parameters);
+        this.add(Program.DECLARE_METHOD, lineNumber, this.addSymbol(methodSymbol),
+                this.tables.parameterLists.size()-1);
+    }
+
+    /**
+     * Add the opening of a method scope.
+     * @param methodSymbol - the method's symbol.
+     * @param lineNumber - the line number of the command.
+     */
+    void openMethodScope(Symbol methodSymbol, int lineNumber){
+        this.add(Program.OPEN_METHOD_SCOPE, lineNumber, this.addSymbol(methodSymbol), Program.NO_OPERAND);
+    }
+
+    /**
+     * Add the opening of an if/while scope.
+     * @param conditions - the if/while statement's conditions.
+     * @param lineNumber - the line number of the command.
+     */
+    void openIfWhileScope(ArrayList<Value> conditions, int lineNumber){
+        this.add(Program.OPEN_IF_WHILE_SCOPE, lineNumber, Program.NO_OPERAND, this.addValues(conditions));
+    }
+
+    /**
+     * Add a method call.
+     * @param methodSymbol - the method's symbol.
+     * @param values - the method call's arguments.
+     * @param lineNumber - the line number of the command.
+     */
+    void callMethod(Symbol methodSymbol, ArrayList<Value> values, int lineNumber){
+        this.add(Program.CALL_METHOD, lineNumber, this.addSymbol(methodSymbol), this.addValues(values));
+    }
+
+    /**
+     * Add a return statement.
+     * @param lineNumber - the line number of the command.
+     */
+    void sendReturnStatement(int lineNumber){
+        this.add(Program.RETURN_STATEMENT, lineNumber, Program.NO_OPERAND, Program.NO_OPERAND);
+    }
+
+    /**
+     * Add the closing of a scope.
+     * @param lineNumber - the line number of the command.
+     */
+    void closeScope(int lineNumber){
+        this.add(Program.CLOSE_SCOPE, lineNumber, Program.NO_OPERAND, Program.NO_OPERAND);
+    }
+
+    /*----=   Instance Methods: 2. Building  =----*/
+
+    /**
+     * @return the number of instructions added since this builder was created or cleared.
+     */
+    int size(){
+        return this.size;
+    }
+
+    /**
+     * @return a program of the instructions added to this builder.
+     */
+    Program build(){
+        return this.build(null);
+    }
+
+    /**
+     * This method assumes the given builder shares this builder's side tables.
+     * @param following - the builder whose instructions follow this builder's; null if there is none.
+     * @return a program of the instructions added to this builder, followed by those added to the given one.
+     */
+    Program build(ProgramBuilder following){
+        int followingSize = following == null ? 0 : following.size;
+        int[] program = Arrays.copyOf(this.code, (this.size+followingSize)*Program.INSTRUCTION_SIZE);
+        if (following != null){
+            System.arraycopy(following.code, 0, program, this.size*Program.INSTRUCTION_SIZE,
+                    followingSize*Program.INSTRUCTION_SIZE);
+        }
+        return new Program(program, 0, this.size+followingSize,
+                this.tables.symbols.toArray(new Symbol[0]), this.tables.values.toArray(new Value[0]),
+                new ArrayList<>(this.tables.valueLists), new ArrayList<>(this.tables.parameterLists));
+    }
+
+    /**
+     * Remove the instructions added after this builder held the given number of instructions, such as those
+     * of a line which turned out to be illegal. Their side table entries are kept.
+     * @param size - the given number of instructions.
+     */
+    void truncate(int size){
+        this.size = size;
+    }
+
+    /**
+     * Remove all of the instructions, and start new side tables.
+     */
+    void clear(){
+        this.size = 0;
+        this.tables = new Tables();
+    }
+
+    /**
+     * Copy this builder's instructions into the given code, with their operands moved by the offsets of this
+     * builder's side table entries.
+     * @param code - the given code.
+     * @param position - the index of the instruction to copy the first instruction to.
+     * @param offsets - the offsets of this builder's entries in the side tables of the code's program.
+     * @return the index after the last instruction copied.
+     */
+    private int relocate(int[] code, int position, int[] offsets){
+        System.arraycopy(this.code, 0, code, position*Program.INSTRUCTION_SIZE,
+                this.size*Program.INSTRUCTION_SIZE);
+        for (int instruction=position; instruction<position+this.size; instruction++){
+            int offset = instruction*Program.INSTRUCTION_SIZE;
+            int firstTable;
+            int secondTable;
+            switch (code[offset+Program.OPCODE_OFFSET] & Program.OPCODE_MASK){
+                case Program.DEFINE_VARIABLE:
+                case Program.ASSIGN_VALUE:
+                    firstTable = SYMBOLS_OFFSET;
+                    secondTable = VALUES_OFFSET;
+                    break;
+                case Program.DECLARE_METHOD:
+                    firstTable = SYMBOLS_OFFSET;
+                    secondTable = PARAMETER_LISTS_OFFSET;
+                    break;
+                case Program.OPEN_METHOD_SCOPE:
+                    firstTable = SYMBOLS_OFFSET;
+                    secondTable = NO_TABLE;
+                    break;
+                case Program.OPEN_IF_WHILE_SCOPE:
+                    firstTable = NO_TABLE;
+                    secondTable = VALUE_LISTS_OFFSET;
+                    break;
+                case Program.CALL_METHOD:
+                    firstTable = SYMBOLS_OFFSET;
+                    secondTable = VALUE_LISTS_OFFSET;
+                    break;
+                default:
+                    continue;
+            }
+            relocateOperand(code, offset+Program.FIRST_OPERAND_OFFSET, offsets, firstTable);
+            relocateOperand(code, offset+Program.SECOND_OPERAND_OFFSET, offsets, secondTable);
+        }
+        return position+this.size;
+    }
+
+    /**
+     * Move the given operand by the offset of the given side table, unless it has no operand.
+     * @param code - the code which holds the operand.
+     * @param index - the index of the operand in the code.
+     * @param offsets - the offsets of the side tables.
+     * @param table - the index of the offset of the side table the operand refers to; NO_TABLE if it refers
+     * to none.
+     */
+    private static void relocateOperand(int[] code, int index, int[] offsets, int table){
+        if (table != NO_TABLE && code[index] != Program.NO_OPERAND){
+            code[index] += offsets[table];
+        }
+    }
+
+    /*----=   Instance Methods: 3. Code and Side Tables  =----*/
+
+    /**
+     * Append an instruction to the code.
+     * @param opcode - the instruction's opcode.
+     * @param lineNumber - the instruction's line number.
+     * @param firstOperand - the instruction's first operand.
+     * @param secondOperand - the instruction's second operand.
+     */
+    private void add(int opcode, int lineNumber, int firstOperand, int secondOperand){
+        int offset = this.size*Program.INSTRUCTION_SIZE;
+        if (offset == this.code.length){
+            this.code = Arrays.copyOf(this.code, this.code.length*2);
+        }
+        this.code[offset+Program.OPCODE_OFFSET] = opcode;
+        this.code[offset+Program.LINE_NUMBER_OFFSET] = lineNumber;
+        this.code[offset+Program.FIRST_OPERAND_OFFSET] = firstOperand;
+        this.code[offset+Program.SECOND_OPERAND_OFFSET] = secondOperand;
+        this.size++;
+    }
+
+    /**
+     * @param symbol - a variable or method symbol.
+     * @return the index of the given symbol in the symbols table.
+     */
+    private int addSymbol(Symbol symbol){
+        Integer index = this.tables.symbolIndexes.get(symbol);
+        if (index == null){
+            index = this.tables.symbols.size();
+            this.tables.symbols.add(symbol);
+            this.tables.symbolIndexes.put(symbol, index);
+        }
+        return index;
+    }
+
+    /**
+     * @param value - a value.
+     * @return the index of the given value in the values table.
+     */
+    private int addValue(Value value){
+        Integer index = this.tables.valueIndexes.get(value);
+        if (index == null){
+            index = this.tables.values.size();
+            this.tables.values.add(value);
+            this.tables.valueIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * @param values - a list of values.
+     * @return the index of the given list in the value lists table.
+     */
+    private int addValues(ArrayList<Value> values){
+        this.tables.valueLists.add(values);
+        return this.tables.valueLists.size()-1;
+    }
+}
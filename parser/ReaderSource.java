@@ -0,0 +1,69 @@
+package oop.ex6.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class extends Source and represents an s-java source which is read through a reader.
+ */
+class ReaderSource extends Source {
+
+    /*----=   Instance Data Members  =----*/
+
+    private final BufferedReader reader;
+    private String line;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor which receives the reader to read the source from.
+     * @param reader - the given reader.
+     */
+    ReaderSource(Reader reader){
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Open the file at the given path for reading with the default charset.
+     * @param path - the given path.
+     * @return the source of the file.
+     * @throws IOException - if the file could not be opened.
+     */
+    static ReaderSource open(Path path) throws IOException {
+        return new ReaderSource(new InputStreamReader(Files.newInputStream(path), Charset.defaultCharset()));
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Move on to the next line of the source.
+     * @return true if there is a next line; false if the end of the source has been reached.
+     * @throws IOException - if the next line could not be read.
+     */
+    boolean nextLine() throws IOException {
+        this.line = this.reader.readLine();
+        return this.line != null;
+    }
+
+    /**
+     * @return the current line of the source.
+     */
+    CharSequence getLine(){
+        return this.line;
+    }
+
+    /**
+     * Close the reader.
+     * @throws IOException - if the reader could not be closed.
+     */
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
@@ -0,0 +1,78 @@
+package oop.ex6.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * This abstract class represents the source of an s-java file, which the parser reads line by line.
+ */
+abstract class Source implements Closeable {
+
+    /*----=   Nested Interfaces  =----*/
+
+    /**
+     * This interface represents a way of opening a source, from its beginning, each time it is read.
+     */
+    interface Opener {
+
+        /**
+         * @return the source, from its beginning.
+         * @throws IOException - if the source could not be opened.
+         */
+        Source open() throws IOException;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Open the s-java file at the given path. Regular files are memory-mapped; any other file (e.g. a pipe)
+     * is read through a reader.
+     * @param fileName - the given path.
+     * @return the source of the s-java file.
+     * @throws IOException - if the file could not be opened.
+     */
+    static Source open(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        if (Files.isRegularFile(path)){
+            return TextSource.map(path);
+        }
+        return ReaderSource.open(path);
+    }
+
+    /**
+     * Open the s-java file at the given path for reading through a reader, so that its text is never held in
+     * memory as a whole, whatever its size and charset.
+     * @param fileName - the given path.
+     * @return the source of the s-java file.
+     * @throws IOException - if the file could not be opened.
+     */
+    static Source stream(String fileName) throws IOException {
+        return ReaderSource.open(Paths.get(fileName));
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * Move on to the next line of the source.
+     * @return true if there is a next line; false if the end of the source has been reached.
+     * @throws IOException - if the next line could not be read.
+     */
+    abstract boolean nextLine() throws IOException;
+
+    /**
+     * The returned line is only valid until the next call to nextLine(), and does not contain the line
+     * terminator.
+     * @return the current line of the source.
+     */
+    abstract CharSequence getLine();
+
+    /**
+     * Release the resources held by this source.
+     * @throws IOException - if the resources could not be released.
+     */
+    public void close() throws IOException {
+    }
+}
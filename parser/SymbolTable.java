@@ -0,0 +1,127 @@
+package oop.ex6.parser;
+
+import oop.ex6.members.Symbol;
+
+/**
+ * This class represents the table of the variable and method names of an s-java file, which interns each
+ * name into a symbol with a dense int id. Names are looked up by the characters of the scanned line, so a
+ * string is only created the first time a name appears in the file.
+ */
+class SymbolTable {
+
+    /*----=   Constants  =----*/
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int HASH_MULTIPLIER = 31;
+
+    /*----=   Instance Data Members  =----*/
+
+    private Symbol[] slots;
+    private int[] hashes;
+    private int size;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * The default constructor.
+     */
+    SymbolTable(){
+        this.slots = new Symbol[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return the number of symbols in this table, which is greater than the id of each of them.
+     */
+    int size(){
+        return this.size;
+    }
+
+    /**
+     * @return the symbols of this table, indexed by their ids.
+     */
+    Symbol[] toArray(){
+        Symbol[] symbols = new Symbol[this.size];
+        for (Symbol symbol: this.slots){
+            if (symbol != null){
+                symbols[symbol.getId()] = symbol;
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * @param text - the given text.
+     * @param begin - the offset of the name's first character.
+     * @param end - the offset after the name's last character.
+     * @return the symbol of the name between the given offsets of the given text; a new symbol, with the
+     * next id, if the name is not in this table yet.
+     */
+    Symbol intern(CharSequence text, int begin, int end){
+        int hash = 0;
+        for (int i=begin; i<end; i++){
+            hash = HASH_MULTIPLIER*hash+text.charAt(i);
+        }
+        int mask = this.slots.length-1;
+        int slot = hash & mask;
+        Symbol symbol;
+        while ((symbol = this.slots[slot]) != null){
+            if (this.hashes[slot] == hash && regionEquals(symbol.getName(), text, begin, end)){
+                return symbol;
+            }
+            slot = (slot+1) & mask;
+        }
+        symbol = new Symbol(this.size, text.subSequence(begin, end).toString());
+        this.slots[slot] = symbol;
+        this.hashes[slot] = hash;
+        this.size++;
+        if (2*this.size > this.slots.length){
+            this.grow();
+        }
+        return symbol;
+    }
+
+    /**
+     * @param name - the given name.
+     * @param text - the given text.
+     * @param begin - the offset of the first character.
+     * @param end - the offset after the last character.
+     * @return true if the text between the given offsets equals the given name; false otherwise.
+     */
+    private static boolean regionEquals(String name, CharSequence text, int begin, int end){
+        if (name.length() != end-begin){
+            return false;
+        }
+        for (int i=0; i<name.length(); i++){
+            if (name.charAt(i) != text.charAt(begin+i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Double the capacity of this table, and move its symbols to their new slots.
+     */
+    private void grow(){
+        Symbol[] oldSlots = this.slots;
+        int[] oldHashes = this.hashes;
+        this.slots = new Symbol[oldSlots.length*2];
+        this.hashes = new int[oldHashes.length*2];
+        int mask = this.slots.length-1;
+        int slot;
+        for (int i=0; i<oldSlots.length; i++){
+            if (oldSlots[i] != null){
+                slot = oldHashes[i] & mask;
+                while (this.slots[slot] != null){
+                    slot = (slot+1) & mask;
+                }
+                this.slots[slot] = oldSlots[i];
+                this.hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+}
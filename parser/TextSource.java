@@ -0,0 +1,270 @@
+package oop.ex6.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class extends Source and represents an s-java source whose whole text is available in memory.
+ * Line boundaries are found directly in the text, and each line is handed to the parser as a view of the
+ * text rather than as a new string. A source may also hold a range of the text's lines only, so that several
+ * parsers can read the ranges of a single text at once.
+ */
+class TextSource extends Source {
+
+    /*----=   Constants  =----*/
+
+    private static final char LINE_FEED = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+    private static final long NON_ASCII_MASK = 0x8080808080808080L;
+    private static final int BYTES_PER_LONG = 8;
+
+    // Formats for IO exceptions that are generated by this class.
+    private static final String FILE_TOO_LARGE = "file is too large to be mapped: ";
+
+    /*----=   Instance Data Members  =----*/
+
+    private final CharSequence text;
+    private final LineView line;
+    private final int end;
+    private int position;
+
+    /*----=   Constructors  =----*/
+
+    /**
+     * A constructor which receives the text of the source.
+     * @param text - the given text.
+     */
+    TextSource(CharSequence text){
+        this(text, 0, text.length());
+    }
+
+    /**
+     * A constructor for a source of a range of the given text's lines.
+     * @param text - the given text.
+     * @param start - the offset of the range's first line.
+     * @param end - the offset after the range's last line, and its line terminator.
+     */
+    TextSource(CharSequence text, int start, int end){
+        this.text = text;
+        this.line = new LineView(text);
+        this.end = end;
+        this.position = start;
+    }
+
+    /*----=   Static Methods  =----*/
+
+    /**
+     * Memory-map the file at the given path.
+     * @param path - the given path.
+     * @return the source of the file.
+     * @throws IOException - if the file could not be mapped.
+     */
+    static TextSource map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE){
+                throw new IOException(FILE_TOO_LARGE+path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return fromBytes(buffer, Charset.defaultCharset());
+        }
+    }
+
+    /**
+     * Create a source from the given bytes. If the bytes are ASCII and the given charset encodes ASCII as
+     * itself, the bytes are read directly; otherwise they are decoded with the given charset, replacing
+     * malformed input.
+     * @param bytes - the given bytes, between their position and limit.
+     * @param charset - the charset the bytes are encoded with.
+     * @return the source of the bytes.
+     * @throws IOException - if the bytes could not be decoded.
+     */
+    static TextSource fromBytes(ByteBuffer bytes, Charset charset) throws IOException {
+        if (isAsciiCompatible(charset) && isAscii(bytes)){
+            return new TextSource(new AsciiText(bytes));
+        }
+        return new TextSource(charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes.duplicate()));
+    }
+
+    /**
+     * @param charset - the given charset.
+     * @return true if the given charset encodes each ASCII character as the matching single byte; false
+     * otherwise.
+     */
+    private static boolean isAsciiCompatible(Charset charset){
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) ||
+                charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param bytes - the given bytes, between their position and limit.
+     * @return true if all of the given bytes are ASCII; false otherwise.
+     */
+    private static boolean isAscii(ByteBuffer bytes){
+        int index = bytes.position();
+        int limit = bytes.limit();
+        for (; index+BYTES_PER_LONG <= limit; index += BYTES_PER_LONG){
+            if ((bytes.getLong(index) & NON_ASCII_MASK) != 0){
+                return false;
+            }
+        }
+        for (; index < limit; index++){
+            if (bytes.get(index) < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @return the text of the source.
+     */
+    CharSequence getText(){
+        return this.text;
+    }
+
+    /**
+     * @return the offset of the next line, after the current line's terminator; the offset after the source's
+     * last line, if the current line is its last line.
+     */
+    int getPosition(){
+        return Math.min(this.position, this.end);
+    }
+
+    /**
+     * @return the offset after the source's last line.
+     */
+    int getEnd(){
+        return this.end;
+    }
+
+    /**
+     * Move on to the next line of the source. Lines are terminated by a line feed, a carriage return, or a
+     * carriage return followed by a line feed.
+     * @return true if there is a next line; false if the end of the source has been reached.
+     */
+    boolean nextLine(){
+        int length = this.end;
+        if (this.position >= length){
+            return false;
+        }
+        int end = this.position;
+        char c = 0;
+        while (end < length){
+            c = this.text.charAt(end);
+            if (c == LINE_FEED || c == CARRIAGE_RETURN){
+                break;
+            }
+            end++;
+        }
+        this.line.set(this.position, end);
+        this.position = end+1;
+        if (c == CARRIAGE_RETURN && this.position < length && this.text.charAt(this.position) == LINE_FEED){
+            this.position++;
+        }
+        return true;
+    }
+
+    /**
+     * @return the current line of the source.
+     */
+    CharSequence getLine(){
+        return this.line;
+    }
+
+    /*----=   Nested Classes  =----*/
+
+    /**
+     * This class represents a line of a text, as a view of the text between two offsets.
+     */
+    private static class LineView implements CharSequence {
+
+        private final CharSequence text;
+        private int offset;
+        private int length;
+
+        /**
+         * A constructor which receives the viewed text.
+         * @param text - the given text.
+         */
+        LineView(CharSequence text){
+            this.text = text;
+        }
+
+        /**
+         * View the text between the given offsets.
+         * @param begin - the offset of the line's first character.
+         * @param end - the offset after the line's last character.
+         */
+        void set(int begin, int end){
+            this.offset = begin;
+            this.length = end-begin;
+        }
+
+        public int length(){
+            return this.length;
+        }
+
+        public char charAt(int index){
+            return this.text.charAt(this.offset+index);
+        }
+
+        public CharSequence subSequence(int start, int end){
+            return this.text.subSequence(this.offset+start, this.offset+end).toString();
+        }
+
+        public String toString(){
+            return this.subSequence(0, this.length).toString();
+        }
+    }
+
+    /**
+     * This class represents ASCII bytes as a sequence of characters, without decoding them.
+     */
+    private static class AsciiText implements CharSequence {
+
+        private final ByteBuffer bytes;
+        private final int offset;
+        private final int length;
+
+        /**
+         * A constructor which receives the bytes.
+         * @param bytes - the given bytes, between their position and limit.
+         */
+        AsciiText(ByteBuffer bytes){
+            this.bytes = bytes;
+            this.offset = bytes.position();
+            this.length = bytes.remaining();
+        }
+
+        public int length(){
+            return this.length;
+        }
+
+        public char charAt(int index){
+            return (char) this.bytes.get(this.offset+index);
+        }
+
+        public CharSequence subSequence(int start, int end){
+            byte[] characters = new byte[end-start];
+            this.bytes.get(this.offset+start, characters);
+            return new String(characters, StandardCharsets.US_ASCII);
+        }
+
+        public String toString(){
+            return this.subSequence(0, this.length).toString();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package oop.ex6.scopes;
+
+import oop.ex6.executer.ExecutorException;
+import oop.ex6.members.Symbol;
+import oop.ex6.members.Variable;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the block-structured symbol table of a method's local scopes: the method scope and
+ * the if/while scopes nested in it. The innermost local variable of each symbol is kept in an array indexed by
+ * the symbol's id, together with the depth of the scope which defined it. Defining a variable pushes the
+ * variable it shadows onto an undo log, and closing a scope pops the log back to where it stood when the scope
+ * was opened, so looking up, defining and closing never walk the chain of scopes.
+ * A global variable which the method assigns is not copied: the global scope may be shared, and is never
+ * modified by a method. Instead an overlay, indexed by the same ids, holds the last type assigned to each
+ * global variable in this method, whichever scope assigned it; the ids it holds are listed, so closing the
+ * method scope resets the overlay without allocating or clearing the whole array.
+ */
+class BlockSymbolTable {
+
+    /*----=   Constants  =----*/
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*----=   Instance Data Members  =----*/
+
+    private final GlobalScope globalScope;
+
+    // The innermost local variable of each symbol, and the depth of the scope which defined it.
+    private Variable[] variables;
+    private int[] depths;
+
+    // The type last assigned to each global variable in this method, and the ids of the assigned globals.
+    private Variable.Type[] initializedGlobalTypes;
+    private int[] initializedGlobalSymbols;
+    private int initializedGlobalCount;
+
+    // The undo log of shadowed variables, and where it stood when each open scope was opened.
+    private int[] logSymbols;
+    private Variable[] logVariables;
+    private int[] logDepths;
+    private int logSize;
+    private int[] scopeStarts;
+    private int depth;
+
+    /*----=   Constructor  =----*/
+
+    /**
+     * A constructor for the symbol table of the method scopes opened in the given global scope.
+     * @param globalScope - the given global scope.
+     */
+    BlockSymbolTable(GlobalScope globalScope){
+        this.globalScope = globalScope;
+        this.variables = new Variable[INITIAL_CAPACITY];
+        this.depths = new int[INITIAL_CAPACITY];
+        this.initializedGlobalTypes = new Variable.Type[INITIAL_CAPACITY];
+        this.initializedGlobalSymbols = new int[INITIAL_CAPACITY];
+        this.initializedGlobalCount = 0;
+        this.logSymbols = new int[INITIAL_CAPACITY];
+        this.logVariables = new Variable[INITIAL_CAPACITY];
+        this.logDepths = new int[INITIAL_CAPACITY];
+        this.logSize = 0;
+        this.scopeStarts = new int[INITIAL_CAPACITY];
+        this.depth = 0;
+    }
+
+    /*----=   Instance Methods: 1. Scopes  =----*/
+
+    /**
+     * @return the global scope in which the method scopes of this table are opened.
+     */
+    GlobalScope getGlobalScope(){
+        return this.globalScope;
+    }
+
+    /**
+     * Open a method scope. A method scope which was left open by a failed execution is discarded first.
+     */
+    void openMethodScope(){
+        while (this.depth > 0){
+            this.closeScope();
+        }
+        this.openScope();
+    }
+
+    /**
+     * Open a local scope inside the innermost open scope.
+     */
+    void openScope(){
+        this.depth++;
+        if (this.depth == this.scopeStarts.length){
+            this.scopeStarts = Arrays.copyOf(this.scopeStarts, this.scopeStarts.length*2);
+        }
+        this.scopeStarts[this.depth] = this.logSize;
+    }
+
+    /**
+     * Close the innermost open scope, and restore the variables its variables shadowed. Closing the method
+     * scope also resets its overlay of initialized global variables.
+     */
+    void closeScope(){
+        int id;
+        while (this.logSize > this.scopeStarts[this.depth]){
+            this.logSize--;
+            id = this.logSymbols[this.logSize];
+            this.variables[id] = this.logVariables[this.logSize];
+            this.depths[id] = this.logDepths[this.logSize];
+            this.logVariables[this.logSize] = null;
+        }
+        this.depth--;
+        if (this.depth == 0){
+            for (int i=0; i<this.initializedGlobalCount; i++){
+                this.initializedGlobalTypes[this.initializedGlobalSymbols[i]] = null;
+            }
+            this.initializedGlobalCount = 0;
+        }
+    }
+
+    /*----=   Instance Methods: 2. Variables  =----*/
+
+    /**
+     * @param symbol - the given symbol.
+     * @return true if the innermost open scope defined a variable of the given symbol; false otherwise.
+     */
+    boolean isDefinedInScope(Symbol symbol){
+        int id = symbol.getId();
+        return id < this.variables.length && this.variables[id] != null && this.depths[id] == this.depth;
+    }
+
+    /**
+     * Define a variable of the given symbol in the innermost open scope, which shadows any variable of the
+     * same symbol until the scope is closed.
+     * @param symbol - the given symbol.
+     * @param variable - the given variable.
+     */
+    void defineVariable(Symbol symbol, Variable variable){
+        int id = symbol.getId();
+        this.ensureCapacity(id);
+        if (this.logSize == this.logSymbols.length){
+            this.logSymbols = Arrays.copyOf(this.logSymbols, this.logSize*2);
+            this.logVariables = Arrays.copyOf(this.logVariables, this.logSize*2);
+            this.logDepths = Arrays.copyOf(this.logDepths, this.logSize*2);
+        }
+        this.logSymbols[this.logSize] = id;
+        this.logVariables[this.logSize] = this.variables[id];
+        this.logDepths[this.logSize] = this.depths[id];
+        this.logSize++;
+        this.variables[id] = variable;
+        this.depths[id] = this.depth;
+    }
+
+    /**
+     * Gets the value type of the closest accessible variable of the given symbol: a local variable, a global
+     * variable initialized in this method, or a global variable.
+     * @param symbol - the given symbol.
+     * @return - the variable's value type; null if it is uninitialized.
+     * @throws ExecutorException - if no variable with the given name exists in the accessible variables.
+     */
+    Variable.Type getValueType(Symbol symbol) throws ExecutorException {
+        int id = symbol.getId();
+        if (id < this.variables.length){
+            if (this.variables[id] != null){
+                return this.variables[id].getValueType();
+            }
+            if (this.initializedGlobalTypes[id] != null){
+                return this.initializedGlobalTypes[id];
+            }
+        }
+        return this.globalScope.getVariable(symbol).getValueType();
+    }
+
+    /**
+     * Assign a new value to the closest local variable of the given symbol; if there is none, verify the
+     * assignment against the global variable, and record the value's type in the overlay instead.
+     * @param symbol - the given symbol.
+     * @param valueType - the value's variable type.
+     * @throws ExecutorException - if the variable doesn't exist in the accessible variables; or if variable
+     * assignment was illegal.
+     */
+    void assignType(Symbol symbol, Variable.Type valueType) throws ExecutorException {
+        int id = symbol.getId();
+        if (id < this.variables.length && this.variables[id] != null){
+            this.variables[id].assignVariable(valueType);
+            return;
+        }
+        this.globalScope.getVariable(symbol).verifyAssignment(valueType);
+        this.ensureCapacity(id);
+        if (this.initializedGlobalTypes[id] == null){
+            if (this.initializedGlobalCount == this.initializedGlobalSymbols.length){
+                this.initializedGlobalSymbols = Arrays.copyOf(this.initializedGlobalSymbols,
+                        this.initializedGlobalCount*2);
+            }
+            this.initializedGlobalSymbols[this.initializedGlobalCount++] = id;
+        }
+        this.initializedGlobalTypes[id] = valueType;
+    }
+
+    /**
+     * Grow the arrays indexed by symbol ids, so that they hold the given id.
+     * @param id - the given id.
+     */
+    private void ensureCapacity(int id){
+        if (id < this.variables.length){
+            return;
+        }
+        int capacity = Math.max(this.variables.length*2, id+1);
+        this.variables = Arrays.copyOf(this.variables, capacity);
+        this.depths = Arrays.copyOf(this.depths, capacity);
+        this.initializedGlobalTypes = Arrays.copyOf(this.initializedGlobalTypes, capacity);
+    }
+}
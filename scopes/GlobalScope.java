@@ -1,12 +1,14 @@
 package oop.ex6.scopes;
 
+import oop.ex6.diagnostics.DiagnosticCode;
 import oop.ex6.executer.ExecutorException;
 import oop.ex6.members.Parameter;
+import oop.ex6.members.Symbol;
 import oop.ex6.members.Value;
 import oop.ex6.members.Variable;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.BitSet;
 
 /**
  * This class extends Scope and represents a global scope inside an s-java file.
@@ -15,7 +17,9 @@ public class GlobalScope extends Scope {
 
     /*----=   Instance Data Members  =----*/
 
-    private Hashtable<String, ArrayList<Parameter>> methods;
+    private SymbolMap<Variable> variables;
+    private SymbolMap<ArrayList<Parameter>> methods;
+    private final BlockSymbolTable localScopes;
 
     /*----=   Constructor  =----*/
 
@@ -23,22 +27,83 @@ public class GlobalScope extends Scope {
      * The default constructor.
      */
     public GlobalScope(){
-        this.variables = new Hashtable<>();
-        this.methods = new Hashtable<>();
+        this.variables = new SymbolMap<>();
+        this.methods = new SymbolMap<>();
+        this.localScopes = new BlockSymbolTable(this);
+    }
+
+    /**
+     * A constructor for a global scope with the given variables and methods.
+     * @param variables - the given variables.
+     * @param methods - the given methods.
+     */
+    private GlobalScope(SymbolMap<Variable> variables, SymbolMap<ArrayList<Parameter>> methods){
+        this.variables = variables;
+        this.methods = methods;
+        this.localScopes = new BlockSymbolTable(this);
+    }
+
+    /**
+     * Once the global scope commands have been carried out, method scopes only read the global scope: a
+     * method scope records the global variables it initializes in its own overlay. The snapshot may
+     * therefore be shared by method scopes which are verified on different threads - but since the method
+     * scopes opened in a global scope share its table of local variables, each thread opens them in a view
+     * of its own, which freezing the snapshot again gives.
+     * Freezing a snapshot again is cheap, as the immutable variables and methods are shared.
+     * @return an immutable snapshot of this global scope's variables and methods.
+     */
+    public GlobalScope freeze(){
+        return new GlobalScope(this.variables.freeze(), this.methods.freeze());
+    }
+
+    /**
+     * Find the variables and methods whose declarations differ between this global scope and the given one:
+     * those which only one of them declares, and those whose modifier, type, value type or parameters differ.
+     * This method assumes the symbols of both global scopes were interned by the same parser.
+     * @param globalScope - the given global scope.
+     * @param changedSymbols - the set to add the ids of their symbols to.
+     */
+    public void addChangedSymbols(GlobalScope globalScope, BitSet changedSymbols){
+        this.variables.addChangedIds(globalScope.variables, Variable::isSameAs, changedSymbols);
+        this.methods.addChangedIds(globalScope.methods, GlobalScope::haveSameParameters, changedSymbols);
+    }
+
+    /**
+     * @param parameters - the parameters of a method.
+     * @param otherParameters - the parameters of another method.
+     * @return true if both methods have parameters of the same modifiers, types and names, in the same order;
+     * false otherwise.
+     */
+    private static boolean haveSameParameters(ArrayList<Parameter> parameters,
+                                              ArrayList<Parameter> otherParameters){
+        if (parameters.size() != otherParameters.size()){
+            return false;
+        }
+        for (int i=0; i<parameters.size(); i++){
+            Parameter parameter = parameters.get(i);
+            Parameter otherParameter = otherParameters.get(i);
+            if (parameter.isFinal() != otherParameter.isFinal() ||
+                    parameter.getParameterType() != otherParameter.getParameterType() ||
+                    parameter.getParameterSymbol().getId() != otherParameter.getParameterSymbol().getId()){
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Retrieves a variable with the given variable name from the closest accessible scope.
-     * @param variableName - the given variable name.
+     * @param variableSymbol - the given variable symbol.
      * @return - the retrieved variable.
      * @throws ExecutorException - if no variable with the given name exists in this scope's accessible
      * variables.
      */
-    protected Variable getVariable(String variableName) throws ExecutorException {
-        if (this.variables.containsKey(variableName)){
-            return this.variables.get(variableName);
+    protected Variable getVariable(Symbol variableSymbol) throws ExecutorException {
+        Variable variable = this.variables.get(variableSymbol);
+        if (variable != null){
+            return variable;
         }
-        throw new ScopeException(VARIABLE+variableName+MISSING);
+        throw new ScopeException(DiagnosticCode.MISSING_VARIABLE, variableSymbol);
     }
 
     /**
@@ -53,9 +118,9 @@ public class GlobalScope extends Scope {
         if (value.getValueType() != null){
             return value.getValueType();
         }
-        Variable.Type valueType = this.getVariable(value.getValueName()).getValueType();
+        Variable.Type valueType = this.getVariable(value.getValueSymbol()).getValueType();
         if (valueType == null){
-            throw new ScopeException(ILLEGAL_METHOD_CALL+value.getValueName()+UNINITIALIZED_VALUE);
+            throw new ScopeException(DiagnosticCode.UNINITIALIZED_VALUE, value.getValueSymbol());
         }
         return valueType;
     }
@@ -64,69 +129,69 @@ public class GlobalScope extends Scope {
      * Define a new variable with the given parameters in this scope.
      * @param isFinal - the variable's final modifier.
      * @param variableType - the variable's type.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param value - the variable's value.
      * @throws ExecutorException - if a variable of the same name already exists in this scope; or if
      * the variable's value references a missing or uninitialized variable; or if the variable construction
      * was illegal.
      */
     public void defineVariable
-            (boolean isFinal, Variable.Type variableType, String variableName, Value value)
+            (boolean isFinal, Variable.Type variableType, Symbol variableSymbol, Value value)
             throws ExecutorException {
-        if (this.variables.containsKey(variableName)){
-            throw new ScopeException(VARIABLE_OVERFLOW);
+        if (this.variables.get(variableSymbol) != null){
+            throw new ScopeException(DiagnosticCode.VARIABLE_OVERFLOW);
         }
         Variable.Type valueType = null;
         if (value != null){
             valueType = this.getValueType(value);
         }
         Variable variable = new Variable(isFinal, variableType, valueType);
-        this.variables.put(variableName, variable);
+        this.variables.put(variableSymbol, variable);
     }
 
     /**
      * Assign a new value to an existing variable in this scope's accessible variables.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param value - the value.
      * @throws ExecutorException - if the variable doesn't exist in this scope's accessible variables;
      * or if the value references a missing or uninitialized variable;
      * or if the variable assignment was illegal.
      */
-    public void assignValue(String variableName, Value value) throws ExecutorException {
+    public void assignValue(Symbol variableSymbol, Value value) throws ExecutorException {
         Variable.Type valueType = this.getValueType(value);
-        this.assignType(variableName, valueType);
+        this.assignType(variableSymbol, valueType);
     }
 
     /**
      * Assign a new value to existing variable in the scope's accessible variables.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param valueType - the value's variable type.
      * @throws ExecutorException - if the variable doesn't exist in this scope's accessible variables;
      * or if variable assignment was illegal.
      */
-    protected void assignType(String variableName, Variable.Type valueType) throws ExecutorException {
-        if (this.variables.containsKey(variableName)){
-            Variable variable = this.variables.get(variableName);
+    protected void assignType(Symbol variableSymbol, Variable.Type valueType) throws ExecutorException {
+        Variable variable = this.variables.get(variableSymbol);
+        if (variable != null){
             variable.assignVariable(valueType);
         }
         else {
-            throw new ScopeException(VARIABLE+variableName+MISSING);
+            throw new ScopeException(DiagnosticCode.MISSING_VARIABLE, variableSymbol);
         }
     }
 
     /**
      * Declare a new method with the given parameters.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @param parameters - the given parameters.
      * @throws ExecutorException - if a method of the same name already exists; if two parameters have the
      * same name; if the method was declared from inside a method.
      */
-    public void declareMethod(String methodName, ArrayList<Parameter> parameters) throws ExecutorException {
-        if (this.methods.containsKey(methodName)){
-            throw new ScopeException(METHOD_OVERFLOW+methodName);
+    public void declareMethod(Symbol methodSymbol, ArrayList<Parameter> parameters) throws ExecutorException {
+        if (this.methods.get(methodSymbol) != null){
+            throw new ScopeException(DiagnosticCode.METHOD_OVERFLOW, methodSymbol);
         }
         this.verifyMethodParameters(parameters);
-        this.methods.put(methodName, parameters);
+        this.methods.put(methodSymbol, parameters);
     }
 
     /**
@@ -135,47 +200,53 @@ public class GlobalScope extends Scope {
      * @throws ExecutorException - if the verification failed.
      */
     private void verifyMethodParameters(ArrayList<Parameter> parameters) throws ExecutorException {
-        ArrayList<String> verifiedParameters = new ArrayList<>();
+        SymbolMap<Parameter> verifiedParameters = new SymbolMap<>();
         for (Parameter parameter: parameters){
-            if (verifiedParameters.contains(parameter.getParameterName())){
-                throw new ScopeException(PARAMETER_OVERFLOW);
+            if (verifiedParameters.get(parameter.getParameterSymbol()) != null){
+                throw new ScopeException(DiagnosticCode.PARAMETER_OVERFLOW);
             }
-            verifiedParameters.add(parameter.getParameterName());
+            verifiedParameters.put(parameter.getParameterSymbol(), parameter);
         }
     }
 
     /**
      * Open a new method scope inside this scope.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @return - the new method scope.
      * @throws ExecutorException - if the method was opened from inside a method.
      */
-    public MethodScope openMethodScope(String methodName) throws ExecutorException {
-        MethodScope methodScope = new MethodScope();
+    public MethodScope openMethodScope(Symbol methodSymbol) throws ExecutorException {
+        this.localScopes.openMethodScope();
+        MethodScope methodScope = new MethodScope(this.localScopes);
         methodScope.parent = this;
-        this.addParametersToMethodScope(methodName, methodScope);
+        this.addParametersToMethodScope(methodSymbol, methodScope);
         return methodScope;
     }
 
     /**
      * Receive the name of an already declared method, and the method scope representing it, and add each of
-     * the method's parameters to that method scope as an initialized variable.
-     * @param methodName - the given method's name.
+     * the method's parameters to that method scope as an initialized variable. A method whose declaration
+     * failed has no parameters.
+     * @param methodSymbol - the given method's symbol.
      * @param methodScope - the given method scope representing the method.
      * @throws ExecutorException - if the parameters's value references a missing or uninitialized variable;
      * or if the variable construction was illegal.
      */
-    private void addParametersToMethodScope(String methodName, MethodScope methodScope) throws ExecutorException {
+    private void addParametersToMethodScope(Symbol methodSymbol, MethodScope methodScope) throws ExecutorException {
         boolean isFinal;
         Variable.Type variableType;
-        String variableName;
+        Symbol variableSymbol;
         Value value;
-        for (Parameter parameter: this.methods.get(methodName)){
+        ArrayList<Parameter> parameters = this.methods.get(methodSymbol);
+        if (parameters == null){
+            return;
+        }
+        for (Parameter parameter: parameters){
             isFinal = parameter.isFinal();
             variableType = parameter.getParameterType();
-            variableName = parameter.getParameterName();
-            value = new Value(variableType);
-            methodScope.defineVariable(isFinal, variableType, variableName, value);
+            variableSymbol = parameter.getParameterSymbol();
+            value = Value.of(variableType);
+            methodScope.defineVariable(isFinal, variableType, variableSymbol, value);
         }
     }
 
@@ -187,32 +258,33 @@ public class GlobalScope extends Scope {
      * illegal i.e. not boolean or referencing a missing/uninitialized variable.
      */
     public IfWhileScope openIfWhileScope(ArrayList<Value> conditions) throws ExecutorException {
-        throw new ScopeException(GLOBAL_IF_WHILE);
+        throw new ScopeException(DiagnosticCode.GLOBAL_IF_WHILE);
     }
 
     /**
      * Perform a method call  to the given method, with the given values.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @param values - the given values.
      * @throws ExecutorException - if the method does not exist in this file's global scope; or if one
      * of the values references a missing or uninitialized variable; or if the method's parameters don't
      * match the given values.
      */
-    public void callMethod(String methodName, ArrayList<Value> values) throws ExecutorException {
-        throw new ScopeException(GLOBAL_METHOD_CALL);
+    public void callMethod(Symbol methodSymbol, ArrayList<Value> values) throws ExecutorException {
+        throw new ScopeException(DiagnosticCode.GLOBAL_METHOD_CALL);
     }
 
     /**
      * Get the parameters of the given method.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @return - the method's parameters.
      * @throws ExecutorException - if the method does not exist in this file's global scope.
      */
-    protected ArrayList<Parameter> getMethodParameters(String methodName) throws ExecutorException {
-        if (!this.methods.containsKey(methodName)){
-            throw new ScopeException(ILLEGAL_METHOD_CALL+methodName+MISSING);
+    protected ArrayList<Parameter> getMethodParameters(Symbol methodSymbol) throws ExecutorException {
+        ArrayList<Parameter> parameters = this.methods.get(methodSymbol);
+        if (parameters == null){
+            throw new ScopeException(DiagnosticCode.MISSING_METHOD, methodSymbol);
         }
-        return this.methods.get(methodName);
+        return parameters;
     }
 
     /**
@@ -220,7 +292,7 @@ public class GlobalScope extends Scope {
      * @throws ExecutorException - if this return statement was sent to a global scope.
      */
     public void sendReturnStatement() throws ExecutorException {
-        throw new ScopeException(GLOBAL_RETURN_STATEMENT);
+        throw new ScopeException(DiagnosticCode.GLOBAL_RETURN_STATEMENT);
     }
 
     /**
@@ -230,7 +302,15 @@ public class GlobalScope extends Scope {
      * immediately preceding it; if this statement was sent to a global scope.
      */
     public Scope closeScope() throws ExecutorException {
-        throw new ScopeException(GLOBAL_CLOSE_STATEMENTS);
+        throw new ScopeException(DiagnosticCode.GLOBAL_CLOSE_STATEMENTS);
+    }
+
+    /**
+     * The global scope has no parent to return to.
+     * @return - this scope.
+     */
+    public Scope abandonScope(){
+        return this;
     }
 
     /**
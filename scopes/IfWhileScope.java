@@ -1,43 +1,35 @@
 package oop.ex6.scopes;
 
+import oop.ex6.diagnostics.DiagnosticCode;
 import oop.ex6.executer.ExecutorException;
 import oop.ex6.members.Parameter;
+import oop.ex6.members.Symbol;
 import oop.ex6.members.Value;
 import oop.ex6.members.Variable;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 
 /**
  * This class extends Scope and represents an if/while scope inside an s-java file.
  */
 public class IfWhileScope extends Scope {
 
+    /*----=   Instance Data Members  =----*/
+
+    private final BlockSymbolTable localScopes;
+
     /*----=   Constructor  =----*/
 
     /**
-     * The default constructor.
+     * A constructor for an if/while scope whose variables are kept in the given table of local scopes.
+     * @param localScopes - the given table of local scopes.
      */
-    public IfWhileScope(){
-        this.variables = new Hashtable<>();
+    IfWhileScope(BlockSymbolTable localScopes){
+        this.localScopes = localScopes;
     }
 
     /*----=   Instance Methods  =----*/
 
-    /**
-     * Gets the closest accessible variable of the given name.
-     * @param variableName - the given variable name.
-     * @return - the retrieved variable.
-     * @throws ExecutorException - if no variable with the given name exists in this scope's accessible
-     * variables.
-     */
-    protected Variable getVariable(String variableName) throws ExecutorException {
-        if (this.variables.containsKey(variableName)){
-            return this.variables.get(variableName);
-        }
-        return this.parent.getVariable(variableName);
-    }
-
     /**
      * Gets the variable type of a given value.
      * @param value - the given value.
@@ -50,9 +42,9 @@ public class IfWhileScope extends Scope {
         if (value.getValueType() != null){
             return value.getValueType();
         }
-        Variable.Type valueType = this.getVariable(value.getValueName()).getValueType();
+        Variable.Type valueType = this.localScopes.getValueType(value.getValueSymbol());
         if (valueType == null){
-            throw new ScopeException(ILLEGAL_METHOD_CALL+value.getValueName()+UNINITIALIZED_VALUE);
+            throw new ScopeException(DiagnosticCode.UNINITIALIZED_VALUE, value.getValueSymbol());
         }
         return valueType;
     }
@@ -61,75 +53,69 @@ public class IfWhileScope extends Scope {
      * Define a new variable with the given parameters in this scope.
      * @param isFinal - the variable's final modifier.
      * @param variableType - the variable's type.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param value - the variable's value.
      * @throws ExecutorException - if a variable of the same name already exists in this scope; or if
      * the variable's value references a missing or uninitialized variable; or if the variable construction
      * was illegal.
      */
     public void defineVariable
-            (boolean isFinal, Variable.Type variableType, String variableName, Value value)
+            (boolean isFinal, Variable.Type variableType, Symbol variableSymbol, Value value)
             throws ExecutorException {
-        if (this.variables.containsKey(variableName)){
-            throw new ScopeException(VARIABLE_OVERFLOW);
+        if (this.localScopes.isDefinedInScope(variableSymbol)){
+            throw new ScopeException(DiagnosticCode.VARIABLE_OVERFLOW);
         }
         Variable.Type valueType = null;
         if (value != null){
             valueType = this.getValueType(value);
         }
         Variable variable = new Variable(isFinal, variableType, valueType);
-        this.variables.put(variableName, variable);
+        this.localScopes.defineVariable(variableSymbol, variable);
     }
 
     /**
      * Assign a new value to an existing variable in this scope's accessible variables.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param value - the value.
      * @throws ExecutorException - if the variable doesn't exist in this scope's accessible variables;
      * or if the value references a missing or uninitialized variable;
      * or if the variable assignment was illegal.
      */
-    public void assignValue(String variableName, Value value) throws ExecutorException {
+    public void assignValue(Symbol variableSymbol, Value value) throws ExecutorException {
         Variable.Type valueType = this.getValueType(value);
-        this.assignType(variableName, valueType);
+        this.assignType(variableSymbol, valueType);
     }
 
     /**
      * Assign a new value to existing variable in the scope's accessible variables.
-     * @param variableName - the variable's name.
+     * @param variableSymbol - the variable's symbol.
      * @param valueType - the value's variable type.
      * @throws ExecutorException - if the variable doesn't exist in this scope's accessible variables;
      * or if variable assignment was illegal.
      */
-    protected void assignType(String variableName, Variable.Type valueType) throws ExecutorException {
-        if (this.variables.containsKey(variableName)){
-            Variable variable = this.variables.get(variableName);
-            variable.assignVariable(valueType);
-        }
-        else {
-            this.parent.assignType(variableName,valueType);
-        }
+    protected void assignType(Symbol variableSymbol, Variable.Type valueType) throws ExecutorException {
+        this.localScopes.assignType(variableSymbol, valueType);
     }
 
     /**
      * Declare a new method with the given parameters.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @param parameters - the given parameters.
      * @throws ExecutorException - if a method of the same name already exists; if two parameters have the
      * same name; if the method was declared from inside a method.
      */
-    public void declareMethod(String methodName, ArrayList<Parameter> parameters) throws ExecutorException {
-        throw new ScopeException(LOCAL_METHOD_DECLARATION);
+    public void declareMethod(Symbol methodSymbol, ArrayList<Parameter> parameters) throws ExecutorException {
+        throw new ScopeException(DiagnosticCode.LOCAL_METHOD_DECLARATION);
     }
 
     /**
      * Open a new method scope inside this scope.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @return - the new method scope.
      * @throws ExecutorException - if the method was opened from inside a method.
      */
-    public MethodScope openMethodScope(String methodName) throws ExecutorException {
-        throw new ScopeException(LOCAL_METHOD_DECLARATION);
+    public MethodScope openMethodScope(Symbol methodSymbol) throws ExecutorException {
+        throw new ScopeException(DiagnosticCode.LOCAL_METHOD_DECLARATION);
     }
 
     /**
@@ -141,7 +127,8 @@ public class IfWhileScope extends Scope {
      */
     public IfWhileScope openIfWhileScope(ArrayList<Value> conditions) throws ExecutorException {
         this.verifyIfWhileConditions(conditions);
-        IfWhileScope ifWhileScope = new IfWhileScope();
+        this.localScopes.openScope();
+        IfWhileScope ifWhileScope = new IfWhileScope(this.localScopes);
         ifWhileScope.parent = this;
         return ifWhileScope;
     }
@@ -157,59 +144,63 @@ public class IfWhileScope extends Scope {
         for (Value condition: conditions){
             conditionType = this.getValueType(condition);
             if (!Variable.Type.BOOLEAN.accepts(conditionType)){
-                throw new ScopeException(NOT_BOOLEAN_CONDITION);
+                throw new ScopeException(DiagnosticCode.NOT_BOOLEAN_CONDITION);
             }
         }
     }
 
     /**
      * Perform a method call  to the given method, with the given values.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @param values - the given values.
      * @throws ExecutorException - if the method does not exist in this file's global scope; or if one
      * of the values references a missing or uninitialized variable; or if the method's parameters don't
      * match the given values.
      */
-    public void callMethod(String methodName, ArrayList<Value> values) throws ExecutorException {
-        ArrayList<Parameter> parameters = this.getMethodParameters(methodName);
-        ArrayList<Variable.Type> valueTypes = new ArrayList<>();
-        Variable.Type valueType;
-        for (Value value: values){
-            valueType = this.getValueType(value);
-            valueTypes.add(valueType);
-        }
-        this.verifyMethodCall(parameters, valueTypes);
+    public void callMethod(Symbol methodSymbol, ArrayList<Value> values) throws ExecutorException {
+        ArrayList<Parameter> parameters = this.getMethodParameters(methodSymbol);
+        this.verifyMethodCall(parameters, values);
     }
 
     /**
-     * Verifies that the given parameters match the given value's types.
+     * Verifies that the given parameters match the types of the given values. The type of every value is
+     * retrieved before the number of values is verified, and the first mismatched type is only reported if
+     * the numbers match; the types are compared as they are retrieved, so no list of types is created.
      * @param parameters - the given parameters.
-     * @param valueTypes - the given value's types.
-     * @throws ExecutorException - if the number of parameters and value's types is different; or if
-     * one of the parameter's type doesn't match the corresponding value's type.
+     * @param values - the given values.
+     * @throws ExecutorException - if one of the values references a missing or uninitialized variable; if the
+     * number of parameters and values is different; or if one of the parameter's type doesn't match the
+     * corresponding value's type.
      */
-    private void verifyMethodCall(ArrayList<Parameter> parameters, ArrayList<Variable.Type> valueTypes)
+    private void verifyMethodCall(ArrayList<Parameter> parameters, ArrayList<Value> values)
             throws ExecutorException {
-        if (parameters.size() != valueTypes.size()){
-            throw new ScopeException(ILLEGAL_METHOD_CALL+parameters.size()+PARAMETERS_NUMBER_EXPECTED);
-        }
-        for (int i=0; i<parameters.size(); i++){
-            if (!parameters.get(i).getParameterType().equals(valueTypes.get(i))){
-                throw new ScopeException(ILLEGAL_METHOD_CALL+BAD_PARAMETER_1+
-                        parameters.get(i).getParameterType().toString()+BAD_PARAMETER_2+
-                        valueTypes.get(i));
+        Variable.Type expectedType = null;
+        Variable.Type foundType = null;
+        Variable.Type valueType;
+        for (int i=0; i<values.size(); i++){
+            valueType = this.getValueType(values.get(i));
+            if (expectedType == null && i < parameters.size() &&
+                    parameters.get(i).getParameterType() != valueType){
+                expectedType = parameters.get(i).getParameterType();
+                foundType = valueType;
             }
         }
+        if (parameters.size() != values.size()){
+            throw new ScopeException(DiagnosticCode.PARAMETERS_NUMBER_EXPECTED, parameters.size());
+        }
+        if (expectedType != null){
+            throw new ScopeException(DiagnosticCode.BAD_PARAMETER, expectedType, foundType);
+        }
     }
 
     /**
      * Get the parameters of the given method.
-     * @param methodName - the method's name.
+     * @param methodSymbol - the method's symbol.
      * @return - the method's parameters.
      * @throws ExecutorException - if the method does not exist in this file's global scope.
      */
-    protected ArrayList<Parameter> getMethodParameters(String methodName) throws ExecutorException {
-        return this.parent.getMethodParameters(methodName);
+    protected ArrayList<Parameter> getMethodParameters(Symbol methodSymbol) throws ExecutorException {
+        return this.localScopes.getGlobalScope().getMethodParameters(methodSymbol);
     }
 
     /**
@@ -226,6 +217,15 @@ public class IfWhileScope extends Scope {
      * immediately preceding it; if this statement was sent to a global scope.
      */
     public Scope closeScope() throws ExecutorException {
+        return this.abandonScope();
+    }
+
+    /**
+     * An if/while scope is never left unverified, so this is the same as closing it.
+     * @return - this scope's parent.
+     */
+    public Scope abandonScope(){
+        this.localScopes.closeScope();
         Scope parentScope = this.parent;
         this.parent = null;
         return parentScope;
@@ -236,6 +236,6 @@ public class IfWhileScope extends Scope {
      * @throws ExecutorException - if this statement was sent to a local scope.
      */
     public void endCode() throws ExecutorException {
-        throw new ScopeException(UNCLOSED_IF_WHILE);
+        throw new ScopeException(DiagnosticCode.UNCLOSED_IF_WHILE);
     }
 }
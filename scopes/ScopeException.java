@@ -1,5 +1,6 @@
 package oop.ex6.scopes;
 
+import oop.ex6.diagnostics.DiagnosticCode;
 import oop.ex6.executer.ExecutorException;
 
 /**
@@ -7,28 +8,14 @@ import oop.ex6.executer.ExecutorException;
  */
 public class ScopeException extends ExecutorException {
 
-    /*----=   Instance Data Members  =----*/
-
-    private String detail_message;
-    private final static String detail_message_header = "Scope exception: ";
-
     /*----=   Constructor  =----*/
 
     /**
-     * A constructor which receives a detail message.
-     * @param message - the given detail message.
-     */
-    public ScopeException(String message){
-        this.detail_message = message+"\n";
-    }
-
-    /*----=   Instance Methods  =----*/
-
-    /**
-     * @return this exception's header and detail message.
+     * A constructor which receives the code and arguments of this exception's message.
+     * @param code - the given code.
+     * @param arguments - the arguments of the code's message.
      */
-    public String getMessage(){
-        return this.detail_message;
+    public ScopeException(DiagnosticCode code, Object... arguments){
+        super(code, arguments);
     }
-
 }
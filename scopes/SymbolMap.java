@@ -0,0 +1,158 @@
+package oop.ex6.scopes;
+
+import oop.ex6.members.Symbol;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.BiPredicate;
+
+/**
+ * This class represents a map from symbols to the variables or methods of a scope. The map is an
+ * open-addressing table keyed by the symbols' int ids: since ids are dense, each id usually falls in a slot
+ * of its own, and a lookup costs a single array access whatever the length of the name.
+ * @param <V> - the type of the mapped values.
+ */
+class SymbolMap<V> {
+
+    /*----=   Constants  =----*/
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int EMPTY = -1;
+
+    /*----=   Instance Data Members  =----*/
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private final boolean isFrozen;
+
+    /*----=   Constructors  =----*/
+
+    /**
+     * The default constructor.
+     */
+    SymbolMap(){
+        this.keys = new int[INITIAL_CAPACITY];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new Object[INITIAL_CAPACITY];
+        this.size = 0;
+        this.isFrozen = false;
+    }
+
+    /**
+     * A constructor for a frozen copy of the given map.
+     * @param map - the given map.
+     */
+    private SymbolMap(SymbolMap<V> map){
+        this.keys = map.keys.clone();
+        this.values = map.values.clone();
+        this.size = map.size;
+        this.isFrozen = true;
+    }
+
+    /*----=   Instance Methods  =----*/
+
+    /**
+     * @param symbol - the given symbol.
+     * @return the value mapped to the given symbol; null if there is none.
+     */
+    V get(Symbol symbol){
+        return this.get(symbol.getId());
+    }
+
+    /**
+     * @param id - the id of a symbol.
+     * @return the value mapped to the symbol; null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    private V get(int id){
+        int mask = this.keys.length-1;
+        for (int slot = id & mask; this.keys[slot] != EMPTY; slot = (slot+1) & mask){
+            if (this.keys[slot] == id){
+                return (V) this.values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Map the given symbol to the given value, in place of any value it is already mapped to.
+     * @param symbol - the given symbol.
+     * @param value - the given value, which is not null.
+     * @throws UnsupportedOperationException - if this map is frozen.
+     */
+    void put(Symbol symbol, V value){
+        if (this.isFrozen){
+            throw new UnsupportedOperationException();
+        }
+        if (2*(this.size+1) > this.keys.length){
+            this.grow();
+        }
+        int id = symbol.getId();
+        int mask = this.keys.length-1;
+        int slot = id & mask;
+        while (this.keys[slot] != EMPTY && this.keys[slot] != id){
+            slot = (slot+1) & mask;
+        }
+        if (this.keys[slot] == EMPTY){
+            this.keys[slot] = id;
+            this.size++;
+        }
+        this.values[slot] = value;
+    }
+
+    /**
+     * @return an immutable copy of this map, which may be read by several threads; this map itself if it is
+     * already frozen.
+     */
+    SymbolMap<V> freeze(){
+        return this.isFrozen ? this : new SymbolMap<>(this);
+    }
+
+    /**
+     * Add the ids of the symbols which this map and the given map do not map to the same values to the given
+     * set: those which only one of them maps, and those whose values differ.
+     * @param map - the given map.
+     * @param isSame - the test of whether two values are the same.
+     * @param changedIds - the given set.
+     */
+    @SuppressWarnings("unchecked")
+    void addChangedIds(SymbolMap<V> map, BiPredicate<V, V> isSame, BitSet changedIds){
+        for (int slot=0; slot<this.keys.length; slot++){
+            if (this.keys[slot] != EMPTY){
+                V value = map.get(this.keys[slot]);
+                if (value == null || !isSame.test((V) this.values[slot], value)){
+                    changedIds.set(this.keys[slot]);
+                }
+            }
+        }
+        for (int slot=0; slot<map.keys.length; slot++){
+            if (map.keys[slot] != EMPTY && this.get(map.keys[slot]) == null){
+                changedIds.set(map.keys[slot]);
+            }
+        }
+    }
+
+    /**
+     * Double the capacity of this map, and move its entries to their new slots.
+     */
+    private void grow(){
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.keys = new int[oldKeys.length*2];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new Object[oldValues.length*2];
+        int mask = this.keys.length-1;
+        int slot;
+        for (int i=0; i<oldKeys.length; i++){
+            if (oldKeys[i] != EMPTY){
+                slot = oldKeys[i] & mask;
+                while (this.keys[slot] != EMPTY){
+                    slot = (slot+1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+}